@@ -69,7 +69,11 @@ open class LookupStorage(private val targetDataDir: File) : BasicMapsOwner() {
         for ((lookupSymbol, paths) in lookups) {
             val key = LookupSymbolKey(lookupSymbol.name, lookupSymbol.scope)
             val fileIds = paths.mapTo(HashSet<Int>()) { pathToId[it]!! }
-            fileIds.addAll(lookupMap[key] ?: emptySet())
+            val oldFileIds = lookupMap[key]
+            if (oldFileIds != null) {
+                if (oldFileIds.containsAll(fileIds)) continue
+                fileIds.addAll(oldFileIds)
+            }
             lookupMap[key] = fileIds
         }
     }
@@ -121,12 +125,9 @@ open class LookupStorage(private val targetDataDir: File) : BasicMapsOwner() {
     }
 
     private fun removeGarbageIfNeeded(force: Boolean = false) {
-        if (!force && size <= MINIMUM_GARBAGE_COLLECTIBLE_SIZE && deletedCount.toDouble() / size <= DELETED_TO_SIZE_TRESHOLD) return
-
-        for (hash in lookupMap.keys) {
-            lookupMap[hash] = lookupMap[hash]!!.filter { it in idToFile }.toSet()
-        }
+        if (!force && (size <= MINIMUM_GARBAGE_COLLECTIBLE_SIZE || deletedCount.toDouble() / size <= DELETED_TO_SIZE_TRESHOLD)) return
 
+        // ids of removed files are not in fileToId, so they are dropped by the remapping below
         val oldFileToId = fileToId.toMap()
         val oldIdToNewId = HashMap<Int, Int>(oldFileToId.size)
         idToFile.clean()
@@ -140,7 +141,7 @@ open class LookupStorage(private val targetDataDir: File) : BasicMapsOwner() {
         }
 
         for (lookup in lookupMap.keys) {
-            val fileIds = lookupMap[lookup]!!.mapNotNull { oldIdToNewId[it] }.toSet()
+            val fileIds = lookupMap[lookup]!!.mapNotNullTo(HashSet<Int>()) { oldIdToNewId[it] }
 
             if (fileIds.isEmpty()) {
                 lookupMap.remove(lookup)
@@ -182,7 +183,8 @@ open class LookupStorage(private val targetDataDir: File) : BasicMapsOwner() {
 }
 
 class LookupTrackerImpl(private val delegate: LookupTracker) : LookupTracker {
-    val lookups = MultiMap<LookupSymbol, String>()
+    // the same name is usually looked up many times in a file, so paths are kept in sets to store each lookup once
+    val lookups = MultiMap.createSet<LookupSymbol, String>()
 
     override val requiresPosition: Boolean
         get() = delegate.requiresPosition
@@ -17,6 +17,7 @@
 package org.jetbrains.kotlin.incremental.storage
 
 import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
 import com.intellij.util.io.IOUtil
 import com.intellij.util.io.KeyDescriptor
 import com.intellij.util.io.PersistentHashMap
@@ -78,8 +79,9 @@ class LazyStorage<K, V>(
         append(key) { out -> IOUtil.writeUTF(out, value) }
     }
 
+    // must match IntCollectionExternalizer
     fun append(key: K, value: Int) {
-        append(key) { out -> out.writeInt(value) }
+        append(key) { out -> DataInputOutputUtil.writeINT(out, value) }
     }
 
     @Synchronized
@@ -18,6 +18,7 @@ package org.jetbrains.kotlin.incremental.storage
 
 import com.intellij.openapi.util.io.FileUtil
 import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
 import com.intellij.util.io.EnumeratorStringDescriptor
 import com.intellij.util.io.IOUtil
 import com.intellij.util.io.KeyDescriptor
@@ -171,6 +172,15 @@ object IntExternalizer : DataExternalizer<Int> {
     }
 }
 
+// variable-length encoding: small non-negative values (e.g. file ids) take one or two bytes instead of four
+object CompactIntExternalizer : DataExternalizer<Int> {
+    override fun read(input: DataInput): Int = DataInputOutputUtil.readINT(input)
+
+    override fun save(output: DataOutput, value: Int) {
+        DataInputOutputUtil.writeINT(output, value)
+    }
+}
+
 object PathStringDescriptor : EnumeratorStringDescriptor() {
     override fun getHashCode(value: String) = FileUtil.pathHashCode(value)
 
@@ -213,4 +223,4 @@ open class CollectionExternalizer<T>(
 
 object StringCollectionExternalizer : CollectionExternalizer<String>(EnumeratorStringDescriptor(), { HashSet() })
 
-object IntCollectionExternalizer : CollectionExternalizer<Int>(IntExternalizer, { HashSet() })
+object IntCollectionExternalizer : CollectionExternalizer<Int>(CompactIntExternalizer, { HashSet() })
@@ -52,6 +52,9 @@ public class ClassFileFactory implements OutputFileCollection {
     private final Map<FqName, PackageCodegen> package2codegen = new HashMap<FqName, PackageCodegen>();
     private final Map<FqName, MultifileClassCodegen> multifileClass2codegen = new HashMap<FqName, MultifileClassCodegen>();
     private final Map<String, OutAndSourceFileList> generators = new LinkedHashMap<String, OutAndSourceFileList>();
+    // Code generation units (package parts or multifile classes) which generated the outputs, only filled in parallel mode
+    private final Map<String, Integer> generatorUnits = new HashMap<String, Integer>();
+    private final ThreadLocal<Integer> currentUnit = new ThreadLocal<Integer>();
 
     private boolean isDone = false;
 
@@ -75,15 +78,63 @@ public class ClassFileFactory implements OutputFileCollection {
             @NotNull Collection<? extends PsiFile> sourceFiles) {
         String outputFilePath = asmType.getInternalName() + ".class";
         List<File> ioSourceFiles = toIoFilesIgnoringNonPhysical(sourceFiles);
-        state.getProgress().reportOutput(ioSourceFiles, new File(outputFilePath));
         ClassBuilder answer = builderFactory.newClassBuilder(origin);
-        generators.put(outputFilePath, new ClassBuilderAndSourceFileList(answer, ioSourceFiles));
+        synchronized (this) {
+            state.getProgress().reportOutput(ioSourceFiles, new File(outputFilePath));
+            generators.put(outputFilePath, new ClassBuilderAndSourceFileList(answer, ioSourceFiles));
+            Integer unit = currentUnit.get();
+            if (unit != null) {
+                generatorUnits.put(outputFilePath, unit);
+            }
+        }
         return answer;
     }
 
+    /**
+     * Runs the given generation attributing all produced classes to the given unit. Outputs are ordered by unit in {@link #done()},
+     * so the order of output files does not depend on the order in which units are generated by different threads.
+     */
+    void generateInUnit(int unit, @NotNull Runnable generation) {
+        currentUnit.set(unit);
+        try {
+            generation.run();
+        }
+        finally {
+            currentUnit.remove();
+        }
+    }
+
+    private void sortGeneratorsByUnit() {
+        if (generatorUnits.isEmpty()) return;
+
+        List<String> outputFilePaths = new ArrayList<String>(generators.keySet());
+        Collections.sort(outputFilePaths, new Comparator<String>() {
+            @Override
+            public int compare(String path1, String path2) {
+                int unit1 = getUnit(path1);
+                int unit2 = getUnit(path2);
+                return unit1 < unit2 ? -1 : (unit1 == unit2 ? 0 : 1);
+            }
+
+            private int getUnit(String path) {
+                Integer unit = generatorUnits.get(path);
+                return unit != null ? unit : Integer.MAX_VALUE;
+            }
+        });
+
+        Map<String, OutAndSourceFileList> sortedGenerators = new LinkedHashMap<String, OutAndSourceFileList>();
+        for (String path : outputFilePaths) {
+            sortedGenerators.put(path, generators.get(path));
+        }
+        generators.clear();
+        generators.putAll(sortedGenerators);
+        generatorUnits.clear();
+    }
+
     void done() {
         if (!isDone) {
             isDone = true;
+            sortGeneratorsByUnit();
             Collection<PackageCodegen> packageCodegens = package2codegen.values();
             Collection<MultifileClassCodegen> multifileClassCodegens = multifileClass2codegen.values();
             for (MultifileClassCodegen codegen : multifileClassCodegens) {
@@ -223,7 +274,7 @@ public class ClassFileFactory implements OutputFileCollection {
     }
 
     @NotNull
-    public PackageCodegen forPackage(@NotNull FqName fqName, @NotNull Collection<KtFile> files) {
+    public synchronized PackageCodegen forPackage(@NotNull FqName fqName, @NotNull Collection<KtFile> files) {
         assert !isDone : "Already done!";
         PackageCodegen codegen = package2codegen.get(fqName);
         if (codegen == null) {
@@ -235,7 +286,7 @@ public class ClassFileFactory implements OutputFileCollection {
     }
 
     @NotNull
-    public MultifileClassCodegen forMultifileClass(@NotNull FqName facadeFqName, @NotNull Collection<KtFile> files) {
+    public synchronized MultifileClassCodegen forMultifileClass(@NotNull FqName facadeFqName, @NotNull Collection<KtFile> files) {
         assert !isDone : "Already done!";
         MultifileClassCodegen codegen = multifileClass2codegen.get(facadeFqName);
         if (codegen == null) {
@@ -551,6 +551,18 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
 
     @Override
     public StackValue visitForExpression(@NotNull KtForExpression forExpression, StackValue receiver) {
+        // Is it "0 until n", "n downTo 0", "x.indices" or a range followed by "step" and "reversed()"
+        KtExpression loopRange = forExpression.getLoopRange();
+        assert loopRange != null;
+        RangeCodegenUtil.IntrinsicProgression intrinsicProgression = RangeCodegenUtil.getIntrinsicProgression(loopRange, bindingContext);
+        if (intrinsicProgression != null) {
+            ForInIntrinsicProgressionLoopGenerator generator = new ForInIntrinsicProgressionLoopGenerator(forExpression, intrinsicProgression);
+            if (generator.isSupported()) {
+                generateForLoop(generator);
+                return StackValue.none();
+            }
+        }
+
         // Is it a "1..2" or so
         RangeCodegenUtil.BinaryCall binaryCall = RangeCodegenUtil.getRangeAsBinaryCall(forExpression);
         if (binaryCall != null) {
@@ -563,8 +575,6 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
             }
         }
 
-        KtExpression loopRange = forExpression.getLoopRange();
-        assert loopRange != null;
         KotlinType loopRangeType = bindingContext.getType(loopRange);
         assert loopRangeType != null;
         Type asmLoopRangeType = asmType(loopRangeType);
@@ -1046,6 +1056,275 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
         }
     }
 
+    private class ForInIntrinsicProgressionLoopGenerator extends AbstractForInProgressionOrRangeLoopGenerator {
+        private final RangeCodegenUtil.IntrinsicProgression progression;
+        private final Type incrementType;
+        // 1 or -1: reversed() changes the direction, step only changes the increment
+        private int direction;
+        // -1 unless there's a step, in which case the increment is stored with the sign of the direction
+        private int incrementVar = -1;
+
+        private ForInIntrinsicProgressionLoopGenerator(
+                @NotNull KtForExpression forExpression,
+                @NotNull RangeCodegenUtil.IntrinsicProgression progression
+        ) {
+            super(forExpression);
+            this.progression = progression;
+            this.incrementType = asmElementType == Type.LONG_TYPE ? Type.LONG_TYPE : Type.INT_TYPE;
+        }
+
+        public boolean isSupported() {
+            return asmElementType == Type.INT_TYPE || asmElementType == Type.CHAR_TYPE || asmElementType == Type.LONG_TYPE;
+        }
+
+        @Override
+        public void beforeLoop() {
+            super.beforeLoop();
+
+            storeFirstAndLast();
+
+            for (RangeCodegenUtil.ProgressionOperation operation : progression.operations) {
+                if (operation.step == null) {
+                    reverse();
+                }
+                else {
+                    applyStep(operation.step);
+                }
+            }
+        }
+
+        private void storeFirstAndLast() {
+            switch (progression.kind) {
+                case RANGE_TO:
+                case DOWN_TO:
+                    gen(progression.left, asmElementType);
+                    v.store(loopParameterVar, asmElementType);
+                    gen(progression.right, asmElementType);
+                    v.store(endVar, asmElementType);
+                    direction = progression.kind == RangeCodegenUtil.ProgressionKind.RANGE_TO ? 1 : -1;
+                    break;
+
+                case UNTIL:
+                    gen(progression.left, asmElementType);
+                    v.store(loopParameterVar, asmElementType);
+                    gen(progression.right, asmElementType);
+                    v.store(endVar, asmElementType);
+                    KotlinType boundType = bindingContext.getType(progression.right);
+                    assert boundType != null : "No type for " + progression.right.getText();
+                    if (asmType(boundType).equals(asmElementType)) {
+                        // The last element of 'x until MIN_VALUE' can't be represented, until() throws in this case
+                        genThrowIfBoundIsMinValue();
+                    }
+                    v.load(endVar, asmElementType);
+                    genIncrement(asmElementType, -1, v);
+                    v.store(endVar, asmElementType);
+                    direction = 1;
+                    break;
+
+                case ARRAY_INDICES:
+                case COLLECTION_INDICES:
+                case CHAR_SEQUENCE_INDICES:
+                    v.iconst(0);
+                    v.store(loopParameterVar, Type.INT_TYPE);
+                    assert progression.receiverType != null : "No receiver type for " + progression.left.getText();
+                    gen(progression.left, asmType(progression.receiverType));
+                    if (progression.kind == RangeCodegenUtil.ProgressionKind.ARRAY_INDICES) {
+                        v.arraylength();
+                    }
+                    else if (progression.kind == RangeCodegenUtil.ProgressionKind.COLLECTION_INDICES) {
+                        v.invokeinterface("java/util/Collection", "size", "()I");
+                    }
+                    else {
+                        v.invokeinterface("java/lang/CharSequence", "length", "()I");
+                    }
+                    v.iconst(1);
+                    v.sub(Type.INT_TYPE);
+                    v.store(endVar, Type.INT_TYPE);
+                    direction = 1;
+                    break;
+
+                default:
+                    throw new IllegalStateException("Unexpected progression kind: " + progression.kind);
+            }
+        }
+
+        private void genThrowIfBoundIsMinValue() {
+            Label boundIsValid = new Label();
+            v.load(endVar, asmElementType);
+            if (asmElementType == Type.LONG_TYPE) {
+                v.lconst(Long.MIN_VALUE);
+                v.lcmp();
+                v.ifne(boundIsValid);
+            }
+            else {
+                v.iconst(asmElementType == Type.CHAR_TYPE ? Character.MIN_VALUE : Integer.MIN_VALUE);
+                v.ificmpne(boundIsValid);
+            }
+
+            v.anew(Type.getObjectType("java/lang/IllegalArgumentException"));
+            v.dup();
+            genStringBuilderConstructor(v);
+            v.aconst("The to argument value '");
+            genInvokeAppendMethod(v, JAVA_STRING_TYPE);
+            v.load(endVar, asmElementType);
+            genInvokeAppendMethod(v, asmElementType);
+            v.aconst("' was too small.");
+            genInvokeAppendMethod(v, JAVA_STRING_TYPE);
+            v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+            v.invokespecial("java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+            v.athrow();
+
+            v.mark(boundIsValid);
+        }
+
+        private void reverse() {
+            v.load(loopParameterVar, asmElementType);
+            v.load(endVar, asmElementType);
+            v.store(loopParameterVar, asmElementType);
+            v.store(endVar, asmElementType);
+
+            direction = -direction;
+            if (incrementVar != -1) {
+                v.load(incrementVar, incrementType);
+                v.neg(incrementType);
+                v.store(incrementVar, incrementType);
+            }
+        }
+
+        private void applyStep(@NotNull KtExpression step) {
+            if (incrementVar == -1) {
+                incrementVar = createLoopTempVariable(incrementType);
+            }
+            gen(step, incrementType);
+            v.store(incrementVar, incrementType);
+
+            Label stepIsPositive = new Label();
+            v.load(incrementVar, incrementType);
+            if (incrementType == Type.LONG_TYPE) {
+                v.lconst(0L);
+                v.lcmp();
+            }
+            v.ifgt(stepIsPositive);
+
+            v.anew(Type.getObjectType("java/lang/IllegalArgumentException"));
+            v.dup();
+            genStringBuilderConstructor(v);
+            v.aconst("Step must be positive, was: ");
+            genInvokeAppendMethod(v, JAVA_STRING_TYPE);
+            v.load(incrementVar, incrementType);
+            genInvokeAppendMethod(v, incrementType);
+            v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+            v.invokespecial("java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+            v.athrow();
+
+            v.mark(stepIsPositive);
+            if (direction < 0) {
+                v.load(incrementVar, incrementType);
+                v.neg(incrementType);
+                v.store(incrementVar, incrementType);
+            }
+
+            // Make the last element reachable from the first one, so that the post-condition check never misses it:
+            // end - (end - start) mod step for an increasing progression, end + (start - end) mod |step| for a decreasing one
+            v.load(endVar, incrementType);
+            if (direction > 0) {
+                genDifferenceModulo(endVar, loopParameterVar);
+                v.sub(incrementType);
+            }
+            else {
+                genDifferenceModulo(loopParameterVar, endVar);
+                v.add(incrementType);
+            }
+            StackValue.coerce(incrementType, asmElementType, v);
+            v.store(endVar, asmElementType);
+        }
+
+        // Pushes (a - b) mod |step| in the arithmetical sense, without overflow
+        private void genDifferenceModulo(int a, int b) {
+            v.load(a, incrementType);
+            genModulo();
+            v.load(b, incrementType);
+            genModulo();
+            v.sub(incrementType);
+            genModulo();
+        }
+
+        // Replaces the value on the stack with its remainder of division by |step|, which is never negative
+        private void genModulo() {
+            v.load(incrementVar, incrementType);
+            if (direction < 0) {
+                v.neg(incrementType);
+            }
+            v.rem(incrementType);
+
+            Label nonNegative = new Label();
+            if (incrementType == Type.LONG_TYPE) {
+                v.dup2();
+                v.lconst(0L);
+                v.lcmp();
+                v.ifge(nonNegative);
+            }
+            else {
+                v.dup();
+                v.ifge(nonNegative);
+            }
+            v.load(incrementVar, incrementType);
+            if (direction < 0) {
+                v.neg(incrementType);
+            }
+            v.add(incrementType);
+            v.mark(nonNegative);
+        }
+
+        @Override
+        public void checkEmptyLoop(@NotNull Label loopExit) {
+            v.load(loopParameterVar, asmElementType);
+            v.load(endVar, asmElementType);
+            if (asmElementType == Type.LONG_TYPE) {
+                v.lcmp();
+                if (direction > 0) {
+                    v.ifgt(loopExit);
+                }
+                else {
+                    v.iflt(loopExit);
+                }
+            }
+            else {
+                if (direction > 0) {
+                    v.ificmpgt(loopExit);
+                }
+                else {
+                    v.ificmplt(loopExit);
+                }
+            }
+        }
+
+        @Override
+        protected void assignToLoopParameter() {
+        }
+
+        @Override
+        protected void increment(@NotNull Label loopExit) {
+            checkPostCondition(loopExit);
+
+            if (incrementVar == -1 && asmElementType == Type.INT_TYPE) {
+                v.iinc(loopParameterVar, direction);
+            }
+            else if (incrementVar == -1) {
+                v.load(loopParameterVar, asmElementType);
+                genIncrement(asmElementType, direction, v);
+                v.store(loopParameterVar, asmElementType);
+            }
+            else {
+                v.load(loopParameterVar, asmElementType);
+                v.load(incrementVar, incrementType);
+                v.add(incrementType);
+                StackValue.coerce(incrementType, asmElementType, v);
+                v.store(loopParameterVar, asmElementType);
+            }
+        }
+    }
+
     private class ForInProgressionExpressionLoopGenerator extends AbstractForInProgressionOrRangeLoopGenerator {
         private int incrementVar;
         private Type incrementType;
@@ -1251,52 +1530,7 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
 
     @Override
     public StackValue visitStringTemplateExpression(@NotNull KtStringTemplateExpression expression, StackValue receiver) {
-        StringBuilder constantValue = new StringBuilder("");
-        final KtStringTemplateEntry[] entries = expression.getEntries();
-
-        if (entries.length == 1 && entries[0] instanceof KtStringTemplateEntryWithExpression) {
-            KtExpression expr = entries[0].getExpression();
-            return genToString(gen(expr), expressionType(expr));
-        }
-
-        for (KtStringTemplateEntry entry : entries) {
-            if (entry instanceof KtLiteralStringTemplateEntry) {
-                constantValue.append(entry.getText());
-            }
-            else if (entry instanceof KtEscapeStringTemplateEntry) {
-                constantValue.append(((KtEscapeStringTemplateEntry) entry).getUnescapedValue());
-            }
-            else {
-                constantValue = null;
-                break;
-            }
-        }
-        if (constantValue != null) {
-            Type type = expressionType(expression);
-            return StackValue.constant(constantValue.toString(), type);
-        }
-        else {
-            return StackValue.operation(JAVA_STRING_TYPE, new Function1<InstructionAdapter, Unit>() {
-                @Override
-                public Unit invoke(InstructionAdapter v) {
-                    genStringBuilderConstructor(v);
-                    for (KtStringTemplateEntry entry : entries) {
-                        if (entry instanceof KtStringTemplateEntryWithExpression) {
-                            invokeAppend(entry.getExpression());
-                        }
-                        else {
-                            String text = entry instanceof KtEscapeStringTemplateEntry
-                                          ? ((KtEscapeStringTemplateEntry) entry).getUnescapedValue()
-                                          : entry.getText();
-                            v.aconst(text);
-                            genInvokeAppendMethod(v, JAVA_STRING_TYPE);
-                        }
-                    }
-                    v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
-                    return Unit.INSTANCE;
-                }
-            });
-        }
+        return StringConcatenationGenerator.generate(this, expression);
     }
 
     @Override
@@ -1357,6 +1591,13 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
             @Nullable SamType samType,
             @Nullable FunctionDescriptor functionReferenceTarget
     ) {
+        if (samType == null && functionReferenceTarget == null &&
+            InvokeDynamicLambdaCodegen.isApplicable(state, context, declaration, descriptor)) {
+            return new InvokeDynamicLambdaCodegen(
+                    state, declaration, descriptor, strategy, context.intoStaticClosure(descriptor, this, typeMapper), parentCodegen
+            ).generate();
+        }
+
         ClassBuilder cv = state.getFactory().newVisitor(
                 JvmDeclarationOriginKt.OtherOrigin(declaration, descriptor),
                 asmTypeForAnonymousClass(bindingContext, descriptor),
@@ -2116,6 +2357,14 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
 
         DeclarationDescriptor containingDeclaration = propertyDescriptor.getContainingDeclaration();
 
+        if (!forceField && superCallTarget == null && isPrivateCompanionPropertyWithDirectFieldAccess(propertyDescriptor)) {
+            // Instead of the companion's getter and its access$ accessor, which in turn reads the field through an accessor
+            // in the outer class, read the field directly or through the outer class accessor only
+            forceField = true;
+            skipAccessorsForPrivateFieldInOuterClass =
+                    context.getClassOrPackageParentContext().getContextDescriptor() == containingDeclaration.getContainingDeclaration();
+        }
+
         FieldAccessorKind fieldAccessorKind = FieldAccessorKind.NORMAL;
         boolean isBackingFieldInClassCompanion = JvmAbi.isPropertyWithBackingFieldInOuterClass(propertyDescriptor);
         if (isBackingFieldInClassCompanion && forceField) {
@@ -2207,6 +2456,25 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
                                    isStaticBackingField, fieldName, callableGetter, callableSetter, state, receiver);
     }
 
+    private boolean isPrivateCompanionPropertyWithDirectFieldAccess(@NotNull PropertyDescriptor descriptor) {
+        if (!state.isDirectCompanionAccessEnabled()) return false;
+        if (context.getFirstCrossInlineOrNonInlineContext().isInlineMethodContext()) return false;
+
+        if (descriptor.getKind() != CallableMemberDescriptor.Kind.DECLARATION ||
+            !Visibilities.isPrivate(descriptor.getVisibility()) ||
+            !JvmAbi.isPropertyWithBackingFieldInOuterClass(descriptor) ||
+            descriptor.isLateInit() ||
+            descriptor.getExtensionReceiverParameter() != null ||
+            isConstOrHasJvmFieldAnnotation(descriptor) ||
+            getPropertyDelegateType(descriptor, bindingContext) != null) {
+            return false;
+        }
+
+        PropertyGetterDescriptor getter = descriptor.getGetter();
+        PropertySetterDescriptor setter = descriptor.getSetter();
+        return (getter == null || !getter.hasBody()) && (setter == null || !setter.hasBody());
+    }
+
     @NotNull
     private StackValue.Property intermediateValueForSyntheticExtensionProperty(
             @NotNull SyntheticJavaPropertyDescriptor propertyDescriptor,
@@ -2809,6 +3077,11 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
 
     @Override
     public StackValue visitDotQualifiedExpression(@NotNull KtDotQualifiedExpression expression, StackValue receiver) {
+        if (state.isCollectionChainFusionEnabled()) {
+            StackValue fusedChain = FusedCollectionChainCodegen.generateIfFusible(this, expression);
+            if (fusedChain != null) return fusedChain;
+        }
+
         StackValue receiverValue = StackValue.none(); //gen(expression.getReceiverExpression())
         return genQualified(receiverValue, expression.getSelectorExpression());
     }
@@ -3126,23 +3399,7 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
     }
 
     public void invokeAppend(KtExpression expr) {
-        if (expr instanceof KtBinaryExpression) {
-            KtBinaryExpression binaryExpression = (KtBinaryExpression) expr;
-            if (binaryExpression.getOperationToken() == KtTokens.PLUS) {
-                KtExpression left = binaryExpression.getLeft();
-                KtExpression right = binaryExpression.getRight();
-                Type leftType = expressionType(left);
-
-                if (leftType.equals(JAVA_STRING_TYPE)) {
-                    invokeAppend(left);
-                    invokeAppend(right);
-                    return;
-                }
-            }
-        }
-        Type exprType = expressionType(expr);
-        gen(expr, exprType);
-        genInvokeAppendMethod(v, exprType.getSort() == Type.ARRAY ? OBJECT_TYPE : exprType);
+        StringConcatenationGenerator.generateAppend(this, expr);
     }
 
     @Nullable
@@ -154,6 +154,9 @@ public class FunctionCodegen {
         Method asmMethod = jvmSignature.getAsmMethod();
 
         int flags = getMethodAsmFlags(functionDescriptor, contextKind);
+        if (typeMapper.isPrivateCompanionMemberWithDirectAccess(functionDescriptor)) {
+            flags = (flags & ~ACC_PRIVATE) | ACC_SYNTHETIC;
+        }
         boolean isNative = NativeKt.hasNativeAnnotation(functionDescriptor);
 
         if (isNative && owner instanceof MultifileClassFacadeContext) {
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.codegen
+
+import com.intellij.psi.PsiElement
+import com.intellij.psi.util.PsiTreeUtil
+import org.jetbrains.kotlin.builtins.KotlinBuiltIns
+import org.jetbrains.kotlin.descriptors.FunctionDescriptor
+import org.jetbrains.kotlin.descriptors.ValueParameterDescriptor
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.kotlin.psi.*
+import org.jetbrains.kotlin.resolve.BindingContext
+import org.jetbrains.kotlin.resolve.DescriptorUtils
+import org.jetbrains.kotlin.resolve.calls.callUtil.getResolvedCall
+import org.jetbrains.kotlin.resolve.calls.callUtil.isSafeCall
+import org.jetbrains.kotlin.resolve.calls.model.ExpressionValueArgument
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes.OBJECT_TYPE
+import org.jetbrains.kotlin.resolve.jvm.diagnostics.ErrorsJvm
+import org.jetbrains.kotlin.types.KotlinType
+import org.jetbrains.org.objectweb.asm.Label
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter
+
+/**
+ * Compiles a chain of inline stdlib collection operations, e.g. `list.filter { ... }.map { ... }.sumBy { ... }`, to a single loop
+ * over the source iterable or array. Lambda bodies are generated in place, and every element flows through all operations
+ * before the next one is taken, so no intermediate lists are created.
+ *
+ * Note that this changes the order in which the lambdas of different operations are invoked, and short-circuiting terminal
+ * operations (`any`, `all`, `none`) stop evaluating the preceding operations as well. That's why the fusion is only enabled
+ * with `-Xfuse-collection-chains`.
+ */
+class FusedCollectionChainCodegen private constructor(
+        private val codegen: ExpressionCodegen,
+        private val chain: FusedCollectionChain
+) {
+    private val v: InstructionAdapter = codegen.v
+    private val frameMap: FrameMap = codegen.frameMap
+
+    private val terminal = chain.operations.last()
+
+    private val resultType: Type = when (terminal.kind) {
+        OperationKind.FOR_EACH -> Type.VOID_TYPE
+        OperationKind.SUM_BY, OperationKind.COUNT -> Type.INT_TYPE
+        OperationKind.SUM_BY_DOUBLE -> Type.DOUBLE_TYPE
+        OperationKind.ANY, OperationKind.ALL, OperationKind.NONE -> Type.BOOLEAN_TYPE
+        OperationKind.FILTER, OperationKind.FILTER_NOT, OperationKind.MAP -> ARRAY_LIST_TYPE
+    }
+
+    private fun generate(): StackValue {
+        codegen.state.diagnostics.report(
+                ErrorsJvm.COLLECTION_OPERATIONS_FUSED.on(chain.expression, chain.operations.joinToString { it.name })
+        )
+
+        return StackValue.operation(resultType) {
+            generateLoop()
+        }
+    }
+
+    private fun generateLoop() {
+        val loopEntry = Label()
+        val nextElement = Label()
+        val loopExit = Label()
+
+        val sourceType = asmType(chain.sourceType)
+        codegen.gen(chain.source, sourceType)
+        val sourceVar = frameMap.enterTemp(sourceType)
+        val indexVar: Int
+        if (chain.isArraySource) {
+            v.store(sourceVar, sourceType)
+            indexVar = frameMap.enterTemp(Type.INT_TYPE)
+            v.iconst(0)
+            v.store(indexVar, Type.INT_TYPE)
+        }
+        else {
+            v.invokeinterface("java/lang/Iterable", "iterator", "()Ljava/util/Iterator;")
+            v.store(sourceVar, ITERATOR_TYPE)
+            indexVar = -1
+        }
+
+        val resultVar = if (resultType != Type.VOID_TYPE) frameMap.enterTemp(resultType) else -1
+        when (terminal.kind) {
+            OperationKind.FOR_EACH -> {}
+            OperationKind.SUM_BY, OperationKind.COUNT, OperationKind.ANY -> v.iconst(0)
+            OperationKind.ALL, OperationKind.NONE -> v.iconst(1)
+            OperationKind.SUM_BY_DOUBLE -> v.dconst(0.0)
+            OperationKind.FILTER, OperationKind.FILTER_NOT, OperationKind.MAP -> {
+                v.anew(ARRAY_LIST_TYPE)
+                v.dup()
+                v.invokespecial(ARRAY_LIST_TYPE.internalName, "<init>", "()V", false)
+            }
+        }
+        if (resultVar != -1) {
+            v.store(resultVar, resultType)
+        }
+
+        val parameterVars = chain.operations.map { frameMap.enter(it.parameter, asmType(it.parameter.type)) }
+        val parameterStarts = chain.operations.map { Label() }
+
+        v.mark(loopEntry)
+        var elementType: Type
+        if (chain.isArraySource) {
+            v.load(indexVar, Type.INT_TYPE)
+            v.load(sourceVar, sourceType)
+            v.arraylength()
+            v.ificmpge(loopExit)
+            elementType = AsmUtil.correctElementType(sourceType)
+            v.load(sourceVar, sourceType)
+            v.load(indexVar, Type.INT_TYPE)
+            v.aload(elementType)
+            v.iinc(indexVar, 1)
+        }
+        else {
+            v.load(sourceVar, ITERATOR_TYPE)
+            v.invokeinterface(ITERATOR_TYPE.internalName, "hasNext", "()Z")
+            v.ifeq(loopExit)
+            v.load(sourceVar, ITERATOR_TYPE)
+            v.invokeinterface(ITERATOR_TYPE.internalName, "next", "()Ljava/lang/Object;")
+            elementType = OBJECT_TYPE
+        }
+
+        for ((index, operation) in chain.operations.withIndex()) {
+            val parameterVar = parameterVars[index]
+            val parameterType = asmType(operation.parameter.type)
+            StackValue.coerce(elementType, parameterType, v)
+            v.store(parameterVar, parameterType)
+            v.mark(parameterStarts[index])
+
+            val body = operation.body
+            if (operation !== terminal) {
+                when (operation.kind) {
+                    OperationKind.FILTER, OperationKind.FILTER_NOT -> {
+                        codegen.gen(body, Type.BOOLEAN_TYPE)
+                        if (operation.kind == OperationKind.FILTER) v.ifeq(nextElement) else v.ifne(nextElement)
+                        v.load(parameterVar, parameterType)
+                        elementType = parameterType
+                    }
+                    OperationKind.MAP -> {
+                        elementType = asmType(operation.returnType)
+                        codegen.gen(body, elementType)
+                    }
+                    else -> throw AssertionError("Not an intermediate operation: ${operation.kind}")
+                }
+                continue
+            }
+
+            when (operation.kind) {
+                OperationKind.FOR_EACH -> codegen.gen(body, Type.VOID_TYPE)
+                OperationKind.SUM_BY, OperationKind.SUM_BY_DOUBLE -> {
+                    codegen.gen(body, resultType)
+                    v.load(resultVar, resultType)
+                    v.add(resultType)
+                    v.store(resultVar, resultType)
+                }
+                OperationKind.COUNT -> {
+                    codegen.gen(body, Type.BOOLEAN_TYPE)
+                    v.ifeq(nextElement)
+                    v.iinc(resultVar, 1)
+                }
+                OperationKind.ANY, OperationKind.ALL, OperationKind.NONE -> {
+                    codegen.gen(body, Type.BOOLEAN_TYPE)
+                    // The result is decided once the predicate is true for 'any' and 'none', or false for 'all'
+                    if (operation.kind == OperationKind.ALL) v.ifne(nextElement) else v.ifeq(nextElement)
+                    v.iconst(if (operation.kind == OperationKind.ANY) 1 else 0)
+                    v.store(resultVar, resultType)
+                    v.goTo(loopExit)
+                }
+                OperationKind.FILTER, OperationKind.FILTER_NOT -> {
+                    codegen.gen(body, Type.BOOLEAN_TYPE)
+                    if (operation.kind == OperationKind.FILTER) v.ifeq(nextElement) else v.ifne(nextElement)
+                    v.load(resultVar, resultType)
+                    v.load(parameterVar, parameterType)
+                    StackValue.coerce(parameterType, OBJECT_TYPE, v)
+                    addToResult()
+                }
+                OperationKind.MAP -> {
+                    codegen.gen(body, OBJECT_TYPE)
+                    v.load(resultVar, resultType)
+                    v.swap()
+                    addToResult()
+                }
+            }
+        }
+
+        v.mark(nextElement)
+        v.goTo(loopEntry)
+        v.mark(loopExit)
+
+        for ((index, operation) in chain.operations.withIndex().reversed()) {
+            val parameter = operation.parameter
+            frameMap.leave(parameter)
+            v.visitLocalVariable(parameter.name.asString(), asmType(parameter.type).descriptor, null,
+                                 parameterStarts[index], nextElement, parameterVars[index])
+        }
+
+        if (resultVar != -1) {
+            v.load(resultVar, resultType)
+            frameMap.leaveTemp(resultType)
+        }
+        if (indexVar != -1) {
+            frameMap.leaveTemp(Type.INT_TYPE)
+        }
+        frameMap.leaveTemp(sourceType)
+    }
+
+    private fun addToResult() {
+        v.invokevirtual(ARRAY_LIST_TYPE.internalName, "add", "(Ljava/lang/Object;)Z", false)
+        v.pop()
+    }
+
+    private fun asmType(type: KotlinType): Type = codegen.state.typeMapper.mapType(type)
+
+    companion object {
+        private val ARRAY_LIST_TYPE = Type.getObjectType("java/util/ArrayList")
+        private val ITERATOR_TYPE = Type.getObjectType("java/util/Iterator")
+
+        /**
+         * Returns the fused chain code for [expression] if it's a chain of at least two supported operations, or null otherwise.
+         */
+        @JvmStatic
+        fun generateIfFusible(codegen: ExpressionCodegen, expression: KtQualifiedExpression): StackValue? {
+            val chain = FusedCollectionChain.recognize(expression, codegen.bindingContext) ?: return null
+            return FusedCollectionChainCodegen(codegen, chain).generate()
+        }
+    }
+
+    private enum class OperationKind(val functionName: String, val isIntermediate: Boolean) {
+        FILTER("filter", true),
+        FILTER_NOT("filterNot", true),
+        MAP("map", true),
+        FOR_EACH("forEach", false),
+        SUM_BY("sumBy", false),
+        SUM_BY_DOUBLE("sumByDouble", false),
+        COUNT("count", false),
+        ANY("any", false),
+        ALL("all", false),
+        NONE("none", false);
+
+        companion object {
+            private val byName = values().associateBy { it.functionName }
+
+            fun byName(name: String): OperationKind? = byName[name]
+        }
+    }
+
+    private class FusedOperation(
+            val kind: OperationKind,
+            val lambda: KtFunctionLiteral,
+            val function: FunctionDescriptor
+    ) {
+        val name: String get() = kind.functionName
+        val parameter: ValueParameterDescriptor get() = function.valueParameters.single()
+        val returnType: KotlinType get() = function.returnType!!
+        val body: KtBlockExpression get() = lambda.bodyExpression!!
+    }
+
+    private class FusedCollectionChain(
+            val expression: KtQualifiedExpression,
+            val source: KtExpression,
+            val sourceType: KotlinType,
+            val isArraySource: Boolean,
+            val operations: List<FusedOperation>
+    ) {
+        companion object {
+            private val COLLECTIONS_PACKAGE = FqName("kotlin.collections")
+
+            fun recognize(expression: KtQualifiedExpression, bindingContext: BindingContext): FusedCollectionChain? {
+                val operations = arrayListOf<FusedOperation>()
+                var current: KtExpression = expression
+                var sourceType: KotlinType? = null
+
+                while (current is KtDotQualifiedExpression) {
+                    val resolvedCall = current.getResolvedCall(bindingContext) ?: break
+                    if (resolvedCall.call.isSafeCall()) break
+
+                    val descriptor = resolvedCall.resultingDescriptor as? FunctionDescriptor ?: break
+                    if (!descriptor.isInline || DescriptorUtils.getFqName(descriptor).parent() != COLLECTIONS_PACKAGE.toUnsafe()) break
+
+                    val kind = OperationKind.byName(descriptor.name.asString()) ?: break
+                    // Only the outermost operation may be a terminal one, everything below it produces a list
+                    if (operations.isNotEmpty() && !kind.isIntermediate) break
+
+                    val receiverType = descriptor.extensionReceiverParameter?.type ?: break
+                    if (!KotlinBuiltIns.isIterableOrNullableIterable(receiverType) &&
+                        !KotlinBuiltIns.isArray(receiverType) && !KotlinBuiltIns.isPrimitiveArray(receiverType)) break
+
+                    val argument = resolvedCall.valueArgumentsByIndex?.singleOrNull() as? ExpressionValueArgument ?: break
+                    val argumentExpression = argument.valueArgument?.getArgumentExpression() ?: break
+                    val lambda = (KtPsiUtil.deparenthesize(argumentExpression) as? KtLambdaExpression)?.functionLiteral ?: break
+                    val function = bindingContext[BindingContext.FUNCTION, lambda] ?: break
+                    if (function.valueParameters.size != 1 || !canBeGeneratedInPlace(lambda)) break
+
+                    operations.add(0, FusedOperation(kind, lambda, function))
+                    sourceType = receiverType
+                    current = KtPsiUtil.safeDeparenthesize(current.receiverExpression)
+                }
+
+                // Operations which can't be fused are left as the source of the chain
+                if (operations.size < 2 || sourceType == null) return null
+
+                return FusedCollectionChain(expression, current, sourceType, !KotlinBuiltIns.isIterableOrNullableIterable(sourceType),
+                                            operations)
+            }
+
+            // The lambda body is generated as a part of the enclosing function, so it must not return from the lambda
+            // or contain declarations which would be compiled relative to the lambda. Try-expressions are rejected because the
+            // loop may run while the enclosing expression keeps values on the stack
+            private fun canBeGeneratedInPlace(lambda: KtFunctionLiteral): Boolean {
+                val body = lambda.bodyExpression ?: return false
+                return PsiTreeUtil.findChildOfAnyType<PsiElement>(
+                        body,
+                        KtReturnExpression::class.java,
+                        KtLambdaExpression::class.java,
+                        KtNamedFunction::class.java,
+                        KtClassOrObject::class.java,
+                        KtObjectLiteralExpression::class.java,
+                        KtCallableReferenceExpression::class.java,
+                        KtTryExpression::class.java
+                ) == null
+            }
+        }
+    }
+}
@@ -37,6 +37,7 @@ import org.jetbrains.kotlin.codegen.inline.InlineCodegenUtil;
 import org.jetbrains.kotlin.codegen.serialization.JvmSerializerExtension;
 import org.jetbrains.kotlin.codegen.signature.BothSignatureWriter;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.when.SealedClassSwitchCodegen;
 import org.jetbrains.kotlin.descriptors.*;
 import org.jetbrains.kotlin.incremental.components.NoLookupLocation;
 import org.jetbrains.kotlin.lexer.KtTokens;
@@ -390,6 +391,8 @@ public class ImplementationBodyCodegen extends ClassBodyCodegen {
 
         generateToArray();
 
+        generateSealedClassOrdinals();
+
         genClosureFields(context.closure, v, typeMapper);
 
         for (ExpressionCodegenExtension extension : ExpressionCodegenExtension.Companion.getInstances(state.getProject())) {
@@ -486,6 +489,45 @@ public class ImplementationBodyCodegen extends ClassBodyCodegen {
         }
     }
 
+    private void generateSealedClassOrdinals() {
+        if (kind != OwnerKind.IMPLEMENTATION || !state.isSealedClassSwitchEnabled()) return;
+
+        if (descriptor.getModality() == Modality.SEALED) {
+            generateSealedClassOrdinal(SealedClassSwitchCodegen.getOrdinalMethodName(descriptor, typeMapper), -1, ACC_PUBLIC | ACC_SYNTHETIC);
+            generateSealedClassOrdinal(
+                    SealedClassSwitchCodegen.getSubclassCountMethodName(descriptor, typeMapper),
+                    SealedClassSwitchCodegen.getSealedSubclasses(descriptor).size(),
+                    ACC_PUBLIC | ACC_STATIC | ACC_SYNTHETIC
+            );
+        }
+
+        ClassDescriptor superClass = DescriptorUtilsKt.getSuperClassNotAny(descriptor);
+        if (superClass != null && superClass.getModality() == Modality.SEALED) {
+            int ordinal = SealedClassSwitchCodegen.getSealedSubclasses(superClass).indexOf(descriptor);
+            if (ordinal >= 0) {
+                generateSealedClassOrdinal(
+                        SealedClassSwitchCodegen.getOrdinalMethodName(superClass, typeMapper), ordinal,
+                        ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC
+                );
+                generateSealedClassOrdinal(
+                        SealedClassSwitchCodegen.getSubclassOrdinalMethodName(superClass, typeMapper), ordinal,
+                        ACC_PUBLIC | ACC_STATIC | ACC_SYNTHETIC
+                );
+            }
+        }
+    }
+
+    private void generateSealedClassOrdinal(@NotNull String name, int ordinal, int access) {
+        MethodVisitor mv = v.newMethod(NO_ORIGIN, access, name, "()I", null, null);
+        if (state.getClassBuilderMode() != ClassBuilderMode.FULL) return;
+
+        mv.visitCode();
+        InstructionAdapter iv = new InstructionAdapter(mv);
+        iv.iconst(ordinal);
+        iv.areturn(Type.INT_TYPE);
+        FunctionCodegen.endVisit(mv, name, myClass);
+    }
+
     private void generateFunctionsForDataClasses() {
         if (!descriptor.isData()) return;
 
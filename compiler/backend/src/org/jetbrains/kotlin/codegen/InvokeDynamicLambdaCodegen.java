@@ -0,0 +1,390 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.codegen;
+
+import com.intellij.openapi.util.Ref;
+import com.intellij.psi.PsiElement;
+import com.intellij.util.ArrayUtil;
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.binding.CalculatedClosure;
+import org.jetbrains.kotlin.codegen.context.ClosureContext;
+import org.jetbrains.kotlin.codegen.context.CodegenContext;
+import org.jetbrains.kotlin.codegen.context.InlineLambdaContext;
+import org.jetbrains.kotlin.codegen.context.MethodContext;
+import org.jetbrains.kotlin.codegen.inline.InlineCodegenUtil;
+import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.state.JetTypeMapper;
+import org.jetbrains.kotlin.descriptors.*;
+import org.jetbrains.kotlin.psi.*;
+import org.jetbrains.kotlin.resolve.BindingContext;
+import org.jetbrains.kotlin.resolve.DescriptorUtils;
+import org.jetbrains.kotlin.resolve.calls.callUtil.CallUtilKt;
+import org.jetbrains.kotlin.resolve.calls.model.ResolvedCall;
+import org.jetbrains.kotlin.resolve.calls.model.VariableAsFunctionResolvedCall;
+import org.jetbrains.kotlin.resolve.inline.InlineUtil;
+import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
+import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOriginKt;
+import org.jetbrains.kotlin.resolve.jvm.jvmSignature.JvmMethodSignature;
+import org.jetbrains.kotlin.resolve.scopes.receivers.ImplicitReceiver;
+import org.jetbrains.kotlin.resolve.scopes.receivers.Receiver;
+import org.jetbrains.kotlin.types.KotlinType;
+import org.jetbrains.kotlin.types.expressions.ExpressionTypingUtils;
+import org.jetbrains.org.objectweb.asm.Handle;
+import org.jetbrains.org.objectweb.asm.MethodVisitor;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
+import org.jetbrains.org.objectweb.asm.commons.Method;
+
+import static org.jetbrains.kotlin.codegen.AsmUtil.boxType;
+import static org.jetbrains.kotlin.codegen.AsmUtil.writeKotlinSyntheticClassAnnotation;
+import static org.jetbrains.kotlin.codegen.binding.CodegenBinding.CLOSURE;
+import static org.jetbrains.kotlin.resolve.jvm.AsmTypes.OBJECT_TYPE;
+import static org.jetbrains.kotlin.resolve.jvm.AsmTypes.UNIT_TYPE;
+import static org.jetbrains.org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates a lambda which captures nothing without a class of its own: the body becomes a static method of the current class
+ * and the instance is created by an invokedynamic call bootstrapped with {@code LambdaMetafactory}. The call site of a non-capturing
+ * lambda is constant, so the same instance is returned every time, as with the {@code INSTANCE} field of a lambda class.
+ * <p/>
+ * Call sites are put into a synthetic class next to the current one, e.g. {@code Foo$Lambdas} for {@code Foo}, which is the only class
+ * written with the Java 8 class file version. The current class keeps its version, so it can still be read by the inliner, and its
+ * stack map frames are computed as before. The methods of the factory class have no branches, so they need no frames at all.
+ * <p/>
+ * The instance implements {@code FunctionN} but doesn't extend {@code kotlin.jvm.internal.Lambda}, so {@code TypeIntrinsics} takes its
+ * arity from the interface. It has no Kotlin metadata, so it can't be introspected with Kotlin reflection.
+ */
+public class InvokeDynamicLambdaCodegen {
+    private static final Handle LAMBDA_METAFACTORY = new Handle(
+            H_INVOKESTATIC,
+            "java/lang/invoke/LambdaMetafactory",
+            "metafactory",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;" +
+            "Ljava/lang/invoke/MethodType;Ljava/lang/invoke/MethodHandle;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/CallSite;"
+    );
+
+    private final GenerationState state;
+    private final JetTypeMapper typeMapper;
+    private final KtElement declaration;
+    private final FunctionDescriptor funDescriptor;
+    private final FunctionGenerationStrategy strategy;
+    private final ClosureContext context;
+    private final MemberCodegen<?> parentCodegen;
+
+    public InvokeDynamicLambdaCodegen(
+            @NotNull GenerationState state,
+            @NotNull KtElement declaration,
+            @NotNull FunctionDescriptor funDescriptor,
+            @NotNull FunctionGenerationStrategy strategy,
+            @NotNull ClosureContext context,
+            @NotNull MemberCodegen<?> parentCodegen
+    ) {
+        this.state = state;
+        this.typeMapper = state.getTypeMapper();
+        this.declaration = declaration;
+        this.funDescriptor = funDescriptor;
+        this.strategy = strategy;
+        this.context = context;
+        this.parentCodegen = parentCodegen;
+    }
+
+    public static boolean isApplicable(
+            @NotNull GenerationState state,
+            @NotNull CodegenContext<?> context,
+            @NotNull KtElement declaration,
+            @NotNull FunctionDescriptor funDescriptor
+    ) {
+        if (!state.isInvokeDynamicLambdasEnabled() || state.getClassBuilderMode() != ClassBuilderMode.FULL) return false;
+
+        // Bytecode of inline functions and inlined lambdas is copied to other classes, where the static method with the body is not accessible
+        if (!(declaration instanceof KtFunctionLiteral) || isInsideInlinedCode(context, funDescriptor)) return false;
+
+        return !capturesAnything(state, (KtFunctionLiteral) declaration, funDescriptor);
+    }
+
+    private static boolean isInsideInlinedCode(@NotNull CodegenContext<?> context, @NotNull FunctionDescriptor funDescriptor) {
+        if (InlineUtil.isInlineOrContainingInline(funDescriptor)) return true;
+
+        for (CodegenContext<?> current = context; current != null; current = current.getParentContext()) {
+            if (current instanceof InlineLambdaContext ||
+                current instanceof MethodContext && ((MethodContext) current).isInlineMethodContext()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Captured variables and receivers are only discovered while the body is generated, so they are looked for in the resolved calls
+    // of the body beforehand. Nested declarations are rejected as well: they would be generated as classes nested in a lambda class
+    // which doesn't exist.
+    private static boolean capturesAnything(
+            @NotNull GenerationState state,
+            @NotNull KtFunctionLiteral functionLiteral,
+            @NotNull final FunctionDescriptor funDescriptor
+    ) {
+        final BindingContext bindingContext = state.getBindingContext();
+        final boolean isInlineEnabled = state.isInlineEnabled();
+        final Ref<Boolean> result = Ref.create(false);
+
+        functionLiteral.acceptChildren(new KtTreeVisitorVoid() {
+            @Override
+            public void visitElement(@NotNull PsiElement element) {
+                if (!result.get()) {
+                    super.visitElement(element);
+                }
+            }
+
+            @Override
+            public void visitClassOrObject(@NotNull KtClassOrObject classOrObject) {
+                result.set(true);
+            }
+
+            @Override
+            public void visitObjectLiteralExpression(@NotNull KtObjectLiteralExpression expression) {
+                result.set(true);
+            }
+
+            @Override
+            public void visitNamedFunction(@NotNull KtNamedFunction function) {
+                result.set(true);
+            }
+
+            @Override
+            public void visitCallableReferenceExpression(@NotNull KtCallableReferenceExpression expression) {
+                result.set(true);
+            }
+
+            @Override
+            public void visitLambdaExpression(@NotNull KtLambdaExpression lambdaExpression) {
+                if (isInlineEnabled && InlineUtil.isInlinedArgument(lambdaExpression.getFunctionLiteral(), bindingContext, false)) {
+                    super.visitLambdaExpression(lambdaExpression);
+                }
+                else {
+                    result.set(true);
+                }
+            }
+
+            @Override
+            public void visitThisExpression(@NotNull KtThisExpression expression) {
+                DeclarationDescriptor target = bindingContext.get(BindingContext.REFERENCE_TARGET, expression.getInstanceReference());
+                if (target == null || isCapturedThis(target, funDescriptor)) {
+                    result.set(true);
+                }
+            }
+
+            @Override
+            public void visitSimpleNameExpression(@NotNull KtSimpleNameExpression expression) {
+                ResolvedCall<?> resolvedCall = CallUtilKt.getResolvedCall(expression, bindingContext);
+                if (resolvedCall instanceof VariableAsFunctionResolvedCall) {
+                    VariableAsFunctionResolvedCall call = (VariableAsFunctionResolvedCall) resolvedCall;
+                    if (capturesAnything(call.getVariableCall()) || capturesAnything(call.getFunctionCall())) {
+                        result.set(true);
+                    }
+                }
+                else if (resolvedCall != null && capturesAnything(resolvedCall)) {
+                    result.set(true);
+                }
+            }
+
+            private boolean capturesAnything(@NotNull ResolvedCall<?> resolvedCall) {
+                CallableDescriptor target = resolvedCall.getResultingDescriptor();
+                if ((target instanceof VariableDescriptor && !(target instanceof PropertyDescriptor) ||
+                     ExpressionTypingUtils.isLocalFunction(target)) && !isDeclaredInside(target, funDescriptor)) {
+                    return true;
+                }
+                return isCapturedReceiver(resolvedCall.getDispatchReceiver(), funDescriptor) ||
+                       isCapturedReceiver(resolvedCall.getExtensionReceiver(), funDescriptor);
+            }
+        });
+
+        return result.get();
+    }
+
+    private static boolean isCapturedReceiver(@Nullable Receiver receiver, @NotNull FunctionDescriptor funDescriptor) {
+        return receiver instanceof ImplicitReceiver && isCapturedThis(((ImplicitReceiver) receiver).getDeclarationDescriptor(), funDescriptor);
+    }
+
+    private static boolean isCapturedThis(@NotNull DeclarationDescriptor thisOwner, @NotNull FunctionDescriptor funDescriptor) {
+        if (thisOwner instanceof ClassDescriptor) {
+            // Objects are loaded from their static INSTANCE field
+            return !((ClassDescriptor) thisOwner).getKind().isSingleton();
+        }
+        return !isDeclaredInside(thisOwner, funDescriptor);
+    }
+
+    private static boolean isDeclaredInside(@NotNull DeclarationDescriptor descriptor, @NotNull FunctionDescriptor funDescriptor) {
+        for (DeclarationDescriptor current = descriptor; current != null; current = current.getContainingDeclaration()) {
+            if (current == funDescriptor) return true;
+        }
+        return false;
+    }
+
+    @NotNull
+    public static ClassBuilder createFactoryClass(@NotNull GenerationState state, @NotNull ClassBuilder owner, @NotNull KtFile file) {
+        Type factoryType = Type.getObjectType(owner.getThisName() + "$Lambdas");
+        ClassBuilder factory = state.getFactory().newVisitor(JvmDeclarationOrigin.NO_ORIGIN, factoryType, file);
+        factory.defineClass(
+                file,
+                V1_8,
+                ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC,
+                factoryType.getInternalName(),
+                null,
+                OBJECT_TYPE.getInternalName(),
+                ArrayUtil.EMPTY_STRING_ARRAY
+        );
+
+        writeKotlinSyntheticClassAnnotation(factory, state);
+
+        WriteAnnotationUtilKt.writeSyntheticClassMetadata(factory);
+
+        return factory;
+    }
+
+    @NotNull
+    public StackValue generate() {
+        String ownerInternalName = parentCodegen.v.getThisName();
+        Method implementation = generateImplementationMethod(ownerInternalName);
+
+        ClassBuilder factory = parentCodegen.getInvokeDynamicLambdaFactory();
+        final String factoryInternalName = factory.getThisName();
+        final Type functionType = typeMapper.mapType(getFunctionSupertype());
+        final Method factoryMethod = new Method(implementation.getName(), functionType, new Type[0]);
+        generateFactoryMethod(factory, factoryMethod, ownerInternalName, implementation);
+
+        return StackValue.operation(functionType, new Function1<InstructionAdapter, Unit>() {
+            @Override
+            public Unit invoke(InstructionAdapter v) {
+                v.invokestatic(factoryInternalName, factoryMethod.getName(), factoryMethod.getDescriptor(), false);
+                return Unit.INSTANCE;
+            }
+        });
+    }
+
+    private void generateFactoryMethod(
+            @NotNull ClassBuilder factory,
+            @NotNull Method factoryMethod,
+            @NotNull String ownerInternalName,
+            @NotNull Method implementation
+    ) {
+        Method samMethod = typeMapper.mapSignature(ClosureCodegen.getErasedInvokeFunction(funDescriptor)).getAsmMethod();
+        Handle implementationHandle = new Handle(H_INVOKESTATIC, ownerInternalName, implementation.getName(), implementation.getDescriptor());
+
+        MethodVisitor mv = factory.newMethod(
+                JvmDeclarationOrigin.NO_ORIGIN, ACC_STATIC | ACC_SYNTHETIC, factoryMethod.getName(), factoryMethod.getDescriptor(), null, null
+        );
+        mv.visitCode();
+
+        InstructionAdapter iv = new InstructionAdapter(mv);
+        iv.invokedynamic(
+                samMethod.getName(),
+                factoryMethod.getDescriptor(),
+                LAMBDA_METAFACTORY,
+                new Object[] {
+                        Type.getMethodType(samMethod.getDescriptor()),
+                        implementationHandle,
+                        Type.getMethodType(getInstantiatedMethodDescriptor(implementation))
+                }
+        );
+        iv.areturn(factoryMethod.getReturnType());
+
+        FunctionCodegen.endVisit(mv, "lambda factory", declaration);
+    }
+
+    @NotNull
+    private Method generateImplementationMethod(@NotNull String ownerInternalName) {
+        JvmMethodSignature invokeSignature = typeMapper.mapSignature(funDescriptor);
+        Type[] argumentTypes = invokeSignature.getAsmMethod().getArgumentTypes();
+        String name = getImplementationMethodName(ownerInternalName);
+
+        // LambdaMetafactory can't adapt a void method to the Object returned by invoke(), so Unit-returning lambdas return Unit.INSTANCE.
+        // The body itself is generated as if the method returned void, see UnitReturningMethodVisitor
+        boolean returnsUnit = invokeSignature.getReturnType() == Type.VOID_TYPE;
+        Method implementation = new Method(name, returnsUnit ? UNIT_TYPE : invokeSignature.getReturnType(), argumentTypes);
+        JvmMethodSignature bodySignature = new JvmMethodSignature(
+                new Method(name, invokeSignature.getReturnType(), argumentTypes), null, invokeSignature.getValueParameters()
+        );
+
+        // Not private: the method is referenced from the factory class
+        MethodVisitor mv = parentCodegen.v.newMethod(
+                JvmDeclarationOriginKt.OtherOrigin(declaration, funDescriptor),
+                ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC,
+                implementation.getName(), implementation.getDescriptor(), null, null
+        );
+        if (returnsUnit) {
+            mv = new UnitReturningMethodVisitor(mv);
+        }
+
+        FunctionCodegen.generateMethodBody(mv, funDescriptor, context.intoFunction(funDescriptor), bodySignature, strategy, parentCodegen);
+        FunctionCodegen.endVisit(mv, "lambda", declaration);
+
+        CalculatedClosure closure = state.getBindingContext().get(CLOSURE, context.getContextDescriptor());
+        assert closure != null && JvmCodegenUtil.isConst(closure) : "Lambda generated with invokedynamic captures values: " + funDescriptor;
+
+        return implementation;
+    }
+
+    @NotNull
+    private String getImplementationMethodName(@NotNull String ownerInternalName) {
+        // The name of the class which would otherwise be generated for this lambda, e.g. "Foo$bar$1", is unique, so is "lambda$bar$1"
+        String classInternalName = typeMapper.mapType(context.getContextDescriptor()).getInternalName();
+        String suffix = classInternalName.startsWith(ownerInternalName + "$")
+                        ? classInternalName.substring(ownerInternalName.length() + 1)
+                        : classInternalName.substring(classInternalName.lastIndexOf('/') + 1);
+        return "lambda$" + suffix;
+    }
+
+    @NotNull
+    private KotlinType getFunctionSupertype() {
+        for (KotlinType supertype : context.getContextDescriptor().getTypeConstructor().getSupertypes()) {
+            if (DescriptorUtils.isInterface(supertype.getConstructor().getDeclarationDescriptor())) {
+                return supertype;
+            }
+        }
+        throw new IllegalStateException("Lambda class should implement a function type: " + funDescriptor);
+    }
+
+    @NotNull
+    private static String getInstantiatedMethodDescriptor(@NotNull Method implementation) {
+        Type[] argumentTypes = implementation.getArgumentTypes();
+        Type[] boxedArgumentTypes = new Type[argumentTypes.length];
+        for (int i = 0; i < argumentTypes.length; i++) {
+            boxedArgumentTypes[i] = boxType(argumentTypes[i]);
+        }
+        return Type.getMethodDescriptor(boxType(implementation.getReturnType()), boxedArgumentTypes);
+    }
+
+    private static class UnitReturningMethodVisitor extends MethodVisitor {
+        public UnitReturningMethodVisitor(@NotNull MethodVisitor mv) {
+            super(InlineCodegenUtil.API, mv);
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            if (opcode == RETURN) {
+                StackValue.putUnitInstance(new InstructionAdapter(mv));
+                super.visitInsn(ARETURN);
+            }
+            else {
+                super.visitInsn(opcode);
+            }
+        }
+    }
+}
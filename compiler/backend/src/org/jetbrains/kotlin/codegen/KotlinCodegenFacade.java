@@ -18,16 +18,21 @@ package org.jetbrains.kotlin.codegen;
 
 import com.google.common.collect.Sets;
 import com.intellij.util.containers.MultiMap;
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
 import org.jetbrains.kotlin.fileClasses.JvmFileClassInfo;
 import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.progress.ProgressIndicatorAndCompilationCanceledStatus;
 import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class KotlinCodegenFacade {
 
@@ -47,7 +52,7 @@ public class KotlinCodegenFacade {
     public static void doGenerateFiles(
             @NotNull Collection<KtFile> files,
             @NotNull GenerationState state,
-            @NotNull CompilationErrorHandler errorHandler
+            @NotNull final CompilationErrorHandler errorHandler
     ) {
         MultiMap<FqName, KtFile> filesInPackages = new MultiMap<FqName, KtFile>();
         MultiMap<FqName, KtFile> filesInMultifileClasses = new MultiMap<FqName, KtFile>();
@@ -65,22 +70,91 @@ public class KotlinCodegenFacade {
             }
         }
 
+        List<Runnable> units = new ArrayList<Runnable>();
+        List<Collection<KtFile>> unitFiles = new ArrayList<Collection<KtFile>>();
+
         Set<FqName> obsoleteMultifileClasses = new HashSet<FqName>(state.getObsoleteMultifileClasses());
         for (FqName multifileClassFqName : Sets.union(filesInMultifileClasses.keySet(), obsoleteMultifileClasses)) {
-            doCheckCancelled(state);
-            generateMultifileClass(state, multifileClassFqName, filesInMultifileClasses.get(multifileClassFqName), errorHandler);
+            final MultifileClassCodegen codegen =
+                    state.getFactory().forMultifileClass(multifileClassFqName, filesInMultifileClasses.get(multifileClassFqName));
+            units.add(new Runnable() {
+                @Override
+                public void run() {
+                    codegen.generate(errorHandler);
+                }
+            });
+            unitFiles.add(filesInMultifileClasses.get(multifileClassFqName));
         }
 
         Set<FqName> packagesWithObsoleteParts = new HashSet<FqName>(state.getPackagesWithObsoleteParts());
         for (FqName packageFqName : Sets.union(packagesWithObsoleteParts, filesInPackages.keySet())) {
-            doCheckCancelled(state);
-            generatePackage(state, packageFqName, filesInPackages.get(packageFqName), errorHandler);
+            final PackageCodegen codegen = state.getFactory().forPackage(packageFqName, filesInPackages.get(packageFqName));
+            units.add(new Runnable() {
+                @Override
+                public void run() {
+                    codegen.generate(errorHandler);
+                }
+            });
+            unitFiles.add(filesInPackages.get(packageFqName));
+        }
+
+        if (state.isParallelCodegenEnabled() && units.size() > 1) {
+            generateInParallel(state, units);
+        }
+        else {
+            for (int i = 0; i < units.size(); i++) {
+                doCheckCancelled(state);
+                units.get(i).run();
+                releaseBindings(state, unitFiles.get(i));
+            }
         }
 
         doCheckCancelled(state);
         state.getFactory().done();
     }
 
+    private static void generateInParallel(@NotNull final GenerationState state, @NotNull List<Runnable> units) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(state.getCodegenThreads(), units.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>(units.size());
+            for (int i = 0; i < units.size(); i++) {
+                final int unitIndex = i;
+                final Runnable unit = units.get(i);
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        doCheckCancelled(state);
+                        state.getFactory().generateInUnit(unitIndex, unit);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating code", e);
+        }
+        catch (ExecutionException e) {
+            throw ExceptionUtilsKt.rethrow(e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // A file belongs to exactly one unit, so later units can only need bodies of its inline functions, which are not released.
+    // Nothing is released in parallel mode, where other units read the binding context concurrently.
+    private static void releaseBindings(@NotNull GenerationState state, @NotNull Collection<KtFile> files) {
+        Function1<KtFile, Unit> releaseFileBindings = state.getReleaseFileBindings();
+        if (releaseFileBindings == null) return;
+
+        for (KtFile file : files) {
+            releaseFileBindings.invoke(file);
+        }
+    }
+
     private static void doCheckCancelled(GenerationState state) {
         if (state.getClassBuilderMode() == ClassBuilderMode.FULL) {
             ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
@@ -99,15 +173,5 @@ public class KotlinCodegenFacade {
         codegen.generate(errorHandler);
     }
 
-    private static void generateMultifileClass(
-            @NotNull GenerationState state,
-            @NotNull FqName multifileClassFqName,
-            @NotNull Collection<KtFile> files,
-            @NotNull CompilationErrorHandler handler
-    ) {
-        MultifileClassCodegen codegen = state.getFactory().forMultifileClass(multifileClassFqName, files);
-        codegen.generate(handler);
-    }
-
     private KotlinCodegenFacade() {}
 }
@@ -85,6 +85,7 @@ public abstract class MemberCodegen<T extends KtElement/* TODO: & JetDeclaration
     private NameGenerator inlineNameGenerator;
 
     private SourceMapper sourceMapper;
+    private ClassBuilder invokeDynamicLambdaFactory;
     private final ConstantExpressionEvaluator constantExpressionEvaluator;
 
     public MemberCodegen(
@@ -171,9 +172,24 @@ public abstract class MemberCodegen<T extends KtElement/* TODO: & JetDeclaration
             SourceMapper.Companion.flushToClassBuilder(sourceMapper, v);
         }
 
+        if (invokeDynamicLambdaFactory != null) {
+            invokeDynamicLambdaFactory.done();
+        }
+
         v.done();
     }
 
+    /**
+     * see InvokeDynamicLambdaCodegen
+     */
+    @NotNull
+    public ClassBuilder getInvokeDynamicLambdaFactory() {
+        if (invokeDynamicLambdaFactory == null) {
+            invokeDynamicLambdaFactory = InvokeDynamicLambdaCodegen.createFactoryClass(state, v, element.getContainingKtFile());
+        }
+        return invokeDynamicLambdaFactory;
+    }
+
     public void genFunctionOrProperty(@NotNull KtDeclaration functionOrProperty) {
         if (functionOrProperty instanceof KtNamedFunction) {
             try {
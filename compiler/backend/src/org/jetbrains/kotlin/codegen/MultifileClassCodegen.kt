@@ -49,6 +49,7 @@ import org.jetbrains.kotlin.resolve.scopes.MemberScope
 import org.jetbrains.kotlin.serialization.deserialization.descriptors.DeserializedCallableMemberDescriptor
 import org.jetbrains.kotlin.serialization.deserialization.descriptors.DeserializedPropertyDescriptor
 import org.jetbrains.kotlin.serialization.deserialization.descriptors.DeserializedSimpleFunctionDescriptor
+import org.jetbrains.kotlin.util.PhaseMetrics
 import org.jetbrains.org.objectweb.asm.AnnotationVisitor
 import org.jetbrains.org.objectweb.asm.MethodVisitor
 import org.jetbrains.org.objectweb.asm.Opcodes
@@ -114,7 +115,10 @@ class MultifileClassCodegen(
         generateDelegatesToPreviouslyCompiledParts(generateCallableMemberTasks, partFqNames)
 
         if (!generateCallableMemberTasks.isEmpty()) {
-            generateMultifileFacadeClass(generateCallableMemberTasks, partFqNames)
+            // the facade is generated from all the files at once, so it's only a part of the "codegen" total
+            state.phaseMetrics.measure(PhaseMetrics.CODEGEN) {
+                generateMultifileFacadeClass(generateCallableMemberTasks, partFqNames)
+            }
         }
     }
 
@@ -125,6 +129,7 @@ class MultifileClassCodegen(
     ) {
         for (file in files) {
             ProgressIndicatorAndCompilationCanceledStatus.checkCanceled()
+            val metrics = state.phaseMetrics.start(PhaseMetrics.CODEGEN)
             try {
                 generatePart(file, generateCallableMemberTasks, partFqNames)
             }
@@ -140,6 +145,11 @@ class MultifileClassCodegen(
                     e.printStackTrace()
                 }
             }
+            finally {
+                if (metrics != null) {
+                    state.phaseMetrics.finish(metrics, file.virtualFile?.path ?: file.name)
+                }
+            }
         }
     }
 
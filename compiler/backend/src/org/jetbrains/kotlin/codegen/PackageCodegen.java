@@ -33,6 +33,7 @@ import org.jetbrains.kotlin.progress.ProgressIndicatorAndCompilationCanceledStat
 import org.jetbrains.kotlin.psi.*;
 import org.jetbrains.kotlin.resolve.BindingContext;
 import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOriginKt;
+import org.jetbrains.kotlin.util.PhaseMetrics;
 import org.jetbrains.org.objectweb.asm.Type;
 
 import java.util.Collection;
@@ -57,6 +58,7 @@ public class PackageCodegen {
     public void generate(@NotNull CompilationErrorHandler errorHandler) {
         for (KtFile file : files) {
             ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
+            PhaseMetrics.Snapshot metrics = state.getPhaseMetrics().start(PhaseMetrics.CODEGEN);
             try {
                 generateFile(file);
             }
@@ -72,6 +74,12 @@ public class PackageCodegen {
                     e.printStackTrace();
                 }
             }
+            finally {
+                if (metrics != null) {
+                    VirtualFile vFile = file.getVirtualFile();
+                    state.getPhaseMetrics().finish(metrics, vFile == null ? file.getName() : vFile.getPath());
+                }
+            }
         }
     }
 
@@ -19,16 +19,26 @@ package org.jetbrains.kotlin.codegen;
 import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.builtins.KotlinBuiltIns;
 import org.jetbrains.kotlin.builtins.PrimitiveType;
 import org.jetbrains.kotlin.descriptors.CallableDescriptor;
 import org.jetbrains.kotlin.descriptors.ClassifierDescriptor;
+import org.jetbrains.kotlin.descriptors.ReceiverParameterDescriptor;
 import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.name.FqNameUnsafe;
 import org.jetbrains.kotlin.name.Name;
 import org.jetbrains.kotlin.psi.*;
+import org.jetbrains.kotlin.resolve.BindingContext;
 import org.jetbrains.kotlin.resolve.DescriptorUtils;
+import org.jetbrains.kotlin.resolve.calls.callUtil.CallUtilKt;
+import org.jetbrains.kotlin.resolve.calls.model.ExpressionValueArgument;
+import org.jetbrains.kotlin.resolve.calls.model.ResolvedCall;
+import org.jetbrains.kotlin.resolve.calls.model.ResolvedValueArgument;
+import org.jetbrains.kotlin.resolve.scopes.receivers.ExpressionReceiver;
+import org.jetbrains.kotlin.resolve.scopes.receivers.Receiver;
 import org.jetbrains.kotlin.types.KotlinType;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.jetbrains.kotlin.builtins.KotlinBuiltIns.RANGES_PACKAGE_FQ_NAME;
@@ -38,6 +48,13 @@ public class RangeCodegenUtil {
     private static final ImmutableMap<FqName, PrimitiveType> RANGE_TO_ELEMENT_TYPE;
     private static final ImmutableMap<FqName, PrimitiveType> PROGRESSION_TO_ELEMENT_TYPE;
 
+    private static final FqNameUnsafe UNTIL_FQ_NAME = RANGES_PACKAGE_FQ_NAME.child(Name.identifier("until")).toUnsafe();
+    private static final FqNameUnsafe DOWN_TO_FQ_NAME = RANGES_PACKAGE_FQ_NAME.child(Name.identifier("downTo")).toUnsafe();
+    private static final FqNameUnsafe STEP_FQ_NAME = RANGES_PACKAGE_FQ_NAME.child(Name.identifier("step")).toUnsafe();
+    private static final FqNameUnsafe REVERSED_FQ_NAME = RANGES_PACKAGE_FQ_NAME.child(Name.identifier("reversed")).toUnsafe();
+    private static final FqNameUnsafe COLLECTION_INDICES_FQ_NAME = new FqNameUnsafe("kotlin.collections.indices");
+    private static final FqNameUnsafe CHAR_SEQUENCE_INDICES_FQ_NAME = new FqNameUnsafe("kotlin.text.indices");
+
     private static PrimitiveType[] supportedRangeTypes() {
         return new PrimitiveType[] {
                 PrimitiveType.CHAR,
@@ -143,6 +160,135 @@ public class RangeCodegenUtil {
         return false;
     }
 
+    /**
+     * Returns a description of a for-loop range which can be iterated without creating a range or progression object:
+     * `a..b`, `a until b`, `a downTo b` or `x.indices` (for arrays, collections and char sequences), followed by any sequence
+     * of `reversed()` and `step` calls. Plain `a..b` is not reported, it's handled by the range literal loop generator.
+     */
+    @Nullable
+    public static IntrinsicProgression getIntrinsicProgression(@NotNull KtExpression rangeExpression, @NotNull BindingContext bindingContext) {
+        List<ProgressionOperation> operations = new ArrayList<ProgressionOperation>();
+        KtExpression expression = KtPsiUtil.deparenthesize(rangeExpression);
+        while (expression != null) {
+            ResolvedCall<?> resolvedCall = CallUtilKt.getResolvedCall(expression, bindingContext);
+            if (resolvedCall == null || CallUtilKt.isSafeCall(resolvedCall.getCall())) return null;
+
+            CallableDescriptor descriptor = resolvedCall.getResultingDescriptor();
+            KtExpression receiver = getExplicitReceiverExpression(resolvedCall);
+            if (receiver == null) return null;
+
+            FqNameUnsafe fqName = DescriptorUtils.getFqName(descriptor);
+            List<KtExpression> arguments = getArgumentExpressions(resolvedCall);
+            if (arguments == null) return null;
+
+            if (fqName.equals(REVERSED_FQ_NAME) && arguments.isEmpty()) {
+                operations.add(0, new ProgressionOperation(null));
+                expression = KtPsiUtil.deparenthesize(receiver);
+            }
+            else if (fqName.equals(STEP_FQ_NAME) && arguments.size() == 1) {
+                operations.add(0, new ProgressionOperation(arguments.get(0)));
+                expression = KtPsiUtil.deparenthesize(receiver);
+            }
+            else if (isOptimizableRangeTo(descriptor) && arguments.size() == 1) {
+                return operations.isEmpty() ? null : new IntrinsicProgression(ProgressionKind.RANGE_TO, receiver, arguments.get(0), null, operations);
+            }
+            else if (fqName.equals(UNTIL_FQ_NAME) && arguments.size() == 1) {
+                return new IntrinsicProgression(ProgressionKind.UNTIL, receiver, arguments.get(0), null, operations);
+            }
+            else if (fqName.equals(DOWN_TO_FQ_NAME) && arguments.size() == 1) {
+                return new IntrinsicProgression(ProgressionKind.DOWN_TO, receiver, arguments.get(0), null, operations);
+            }
+            else if ((fqName.equals(COLLECTION_INDICES_FQ_NAME) || fqName.equals(CHAR_SEQUENCE_INDICES_FQ_NAME)) && arguments.isEmpty()) {
+                ReceiverParameterDescriptor receiverParameter = descriptor.getExtensionReceiverParameter();
+                if (receiverParameter == null) return null;
+                KotlinType receiverType = receiverParameter.getType();
+
+                ProgressionKind kind;
+                if (fqName.equals(CHAR_SEQUENCE_INDICES_FQ_NAME)) {
+                    kind = ProgressionKind.CHAR_SEQUENCE_INDICES;
+                }
+                else if (KotlinBuiltIns.isArray(receiverType) || KotlinBuiltIns.isPrimitiveArray(receiverType)) {
+                    kind = ProgressionKind.ARRAY_INDICES;
+                }
+                else {
+                    kind = ProgressionKind.COLLECTION_INDICES;
+                }
+                return new IntrinsicProgression(kind, receiver, null, receiverType, operations);
+            }
+            else {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static KtExpression getExplicitReceiverExpression(@NotNull ResolvedCall<?> resolvedCall) {
+        Receiver receiver = resolvedCall.getCall().getExplicitReceiver();
+        return receiver instanceof ExpressionReceiver ? ((ExpressionReceiver) receiver).getExpression() : null;
+    }
+
+    @Nullable
+    private static List<KtExpression> getArgumentExpressions(@NotNull ResolvedCall<?> resolvedCall) {
+        List<KtExpression> result = new ArrayList<KtExpression>();
+        List<ResolvedValueArgument> arguments = resolvedCall.getValueArgumentsByIndex();
+        if (arguments == null) return null;
+        for (ResolvedValueArgument argument : arguments) {
+            if (!(argument instanceof ExpressionValueArgument)) return null;
+            ValueArgument valueArgument = ((ExpressionValueArgument) argument).getValueArgument();
+            KtExpression expression = valueArgument != null ? valueArgument.getArgumentExpression() : null;
+            if (expression == null) return null;
+            result.add(expression);
+        }
+        return result;
+    }
+
+    public enum ProgressionKind {
+        RANGE_TO,
+        UNTIL,
+        DOWN_TO,
+        ARRAY_INDICES,
+        COLLECTION_INDICES,
+        CHAR_SEQUENCE_INDICES
+    }
+
+    public static class ProgressionOperation {
+        // null for reversed()
+        @Nullable
+        public final KtExpression step;
+
+        private ProgressionOperation(@Nullable KtExpression step) {
+            this.step = step;
+        }
+    }
+
+    public static class IntrinsicProgression {
+        public final ProgressionKind kind;
+        // receiver of `indices`
+        public final KtExpression left;
+        @Nullable
+        public final KtExpression right;
+        // type of the receiver parameter of `indices`
+        @Nullable
+        public final KotlinType receiverType;
+        // in the order of application
+        public final List<ProgressionOperation> operations;
+
+        private IntrinsicProgression(
+                @NotNull ProgressionKind kind,
+                @NotNull KtExpression left,
+                @Nullable KtExpression right,
+                @Nullable KotlinType receiverType,
+                @NotNull List<ProgressionOperation> operations
+        ) {
+            this.kind = kind;
+            this.left = left;
+            this.right = right;
+            this.receiverType = receiverType;
+            this.operations = operations;
+        }
+    }
+
     public static class BinaryCall {
         public final KtExpression left;
         public final KtExpression op;
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen
+
+import org.jetbrains.kotlin.codegen.intrinsics.Concat
+import org.jetbrains.kotlin.codegen.intrinsics.StringPlus
+import org.jetbrains.kotlin.descriptors.CallableMemberDescriptor
+import org.jetbrains.kotlin.lexer.KtTokens
+import org.jetbrains.kotlin.psi.*
+import org.jetbrains.kotlin.resolve.calls.callUtil.getResolvedCall
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes.JAVA_STRING_TYPE
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter
+
+/**
+ * Generates string templates and chains of `String.plus` calls with a single `StringBuilder`.
+ *
+ * Nested templates and `+` operands are flattened into one list of parts, adjacent compile-time constants are folded into
+ * a single string, and the builder is presized with the total length of the constant parts. A concatenation that consists
+ * of a single non-constant part is compiled to `String.valueOf` instead.
+ */
+class StringConcatenationGenerator private constructor(private val codegen: ExpressionCodegen) {
+    private sealed class Part {
+        class Constant(val text: String) : Part()
+        class Expression(val expression: KtExpression, val type: Type) : Part()
+    }
+
+    private val parts = arrayListOf<Part>()
+
+    private fun add(expression: KtExpression) {
+        val expr = KtPsiUtil.deparenthesize(expression) ?: expression
+
+        val constant = constantText(expr)
+        if (constant != null) {
+            addConstant(constant)
+        }
+        else if (expr is KtStringTemplateExpression) {
+            addEntries(expr)
+        }
+        else if (expr is KtBinaryExpression && isStringConcatenation(expr)) {
+            addOperands(expr)
+        }
+        else {
+            parts.add(Part.Expression(expr, codegen.expressionType(expr)))
+        }
+    }
+
+    private fun addOperands(expression: KtBinaryExpression) {
+        add(expression.left!!)
+        add(expression.right!!)
+    }
+
+    private fun addEntries(template: KtStringTemplateExpression) {
+        for (entry in template.entries) {
+            when (entry) {
+                is KtLiteralStringTemplateEntry -> addConstant(entry.text)
+                is KtEscapeStringTemplateEntry -> addConstant(entry.unescapedValue)
+                else -> entry.expression?.let { add(it) }
+            }
+        }
+    }
+
+    private fun addConstant(text: String) {
+        if (text.isEmpty()) return
+
+        val last = parts.lastOrNull()
+        if (last is Part.Constant) {
+            parts[parts.size - 1] = Part.Constant(last.text + text)
+        }
+        else {
+            parts.add(Part.Constant(text))
+        }
+    }
+
+    private fun constantText(expression: KtExpression): String? {
+        val value = ExpressionCodegen.getCompileTimeConstant(expression, codegen.bindingContext)?.value
+        // Floating point constants are left to StringBuilder.append, so that their formatting is the one of the runtime
+        return when (value) {
+            is String, is Char, is Boolean, is Int, is Long, is Short, is Byte -> value.toString()
+            else -> null
+        }
+    }
+
+    private fun isStringConcatenation(expression: KtBinaryExpression): Boolean {
+        if (expression.operationToken != KtTokens.PLUS || expression.left == null || expression.right == null) return false
+        if (codegen.expressionType(expression.left) != JAVA_STRING_TYPE) return false
+
+        val descriptor = expression.getResolvedCall(codegen.bindingContext)?.resultingDescriptor?.original
+        if (descriptor !is CallableMemberDescriptor) return false
+
+        val intrinsic = codegen.state.intrinsics.getIntrinsic(descriptor)
+        return intrinsic is Concat || intrinsic is StringPlus
+    }
+
+    private fun generate(): StackValue {
+        val single = parts.singleOrNull()
+        when {
+            parts.isEmpty() -> return StackValue.constant("", JAVA_STRING_TYPE)
+            single is Part.Constant -> return StackValue.constant(single.text, JAVA_STRING_TYPE)
+            single is Part.Expression -> return AsmUtil.genToString(codegen.gen(single.expression), single.type)
+        }
+
+        return StackValue.operation(JAVA_STRING_TYPE) { v ->
+            val constantsLength = parts.sumBy { (it as? Part.Constant)?.text?.length ?: 0 }
+            if (constantsLength > 0) {
+                AsmUtil.genStringBuilderConstructor(v, constantsLength + DEFAULT_CAPACITY)
+            }
+            else {
+                AsmUtil.genStringBuilderConstructor(v)
+            }
+            appendParts(v)
+            v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false)
+        }
+    }
+
+    private fun appendParts(v: InstructionAdapter) {
+        for (part in parts) {
+            when (part) {
+                is Part.Constant -> {
+                    v.aconst(part.text)
+                    AsmUtil.genInvokeAppendMethod(v, JAVA_STRING_TYPE)
+                }
+                is Part.Expression -> {
+                    codegen.gen(part.expression, part.type)
+                    AsmUtil.genInvokeAppendMethod(v, part.type)
+                }
+            }
+        }
+    }
+
+    companion object {
+        // Same as the default capacity of StringBuilder, reserved for the non-constant parts
+        private const val DEFAULT_CAPACITY = 16
+
+        @JvmStatic
+        fun generate(codegen: ExpressionCodegen, expression: KtExpression): StackValue {
+            val generator = StringConcatenationGenerator(codegen)
+            generator.add(expression)
+            return generator.generate()
+        }
+
+        /**
+         * Generates `LHS + RHS` for the `String.plus` intrinsic, where the call is already known to be a concatenation.
+         */
+        @JvmStatic
+        fun generateConcatenation(codegen: ExpressionCodegen, expression: KtBinaryExpression): StackValue {
+            val generator = StringConcatenationGenerator(codegen)
+            generator.addOperands(expression)
+            return generator.generate()
+        }
+
+        /**
+         * Appends the flattened parts of [expression] to the `StringBuilder` on top of the stack.
+         */
+        @JvmStatic
+        fun generateAppend(codegen: ExpressionCodegen, expression: KtExpression) {
+            val generator = StringConcatenationGenerator(codegen)
+            generator.add(expression)
+            generator.appendParts(codegen.v)
+        }
+    }
+}
@@ -29,8 +29,10 @@ import org.jetbrains.kotlin.codegen.JvmRuntimeTypes;
 import org.jetbrains.kotlin.codegen.SamCodegenUtil;
 import org.jetbrains.kotlin.codegen.SamType;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.when.SealedClassSwitchCodegen;
 import org.jetbrains.kotlin.codegen.when.SwitchCodegenUtil;
 import org.jetbrains.kotlin.codegen.when.WhenByEnumsMapping;
+import org.jetbrains.kotlin.codegen.when.WhenBySealedClassMapping;
 import org.jetbrains.kotlin.descriptors.*;
 import org.jetbrains.kotlin.descriptors.impl.ClassDescriptorImpl;
 import org.jetbrains.kotlin.fileClasses.FileClasses;
@@ -77,6 +79,7 @@ class CodegenAnnotatingVisitor extends KtVisitorVoid {
     private final GenerationState.GenerateClassFilter filter;
     private final JvmRuntimeTypes runtimeTypes;
     private final JvmFileClassesProvider fileClassesProvider;
+    private final boolean sealedClassSwitch;
 
     public CodegenAnnotatingVisitor(@NotNull GenerationState state) {
         this.bindingTrace = state.getBindingTrace();
@@ -84,6 +87,7 @@ class CodegenAnnotatingVisitor extends KtVisitorVoid {
         this.filter = state.getGenerateDeclaredClassFilter();
         this.runtimeTypes = state.getJvmRuntimeTypes();
         this.fileClassesProvider = state.getFileClassesProvider();
+        this.sealedClassSwitch = state.isSealedClassSwitchEnabled();
     }
 
     @NotNull
@@ -513,7 +517,12 @@ class CodegenAnnotatingVisitor extends KtVisitorVoid {
     @Override
     public void visitWhenExpression(@NotNull KtWhenExpression expression) {
         super.visitWhenExpression(expression);
-        if (!isWhenWithEnums(expression)) return;
+        if (!isWhenWithEnums(expression)) {
+            if (sealedClassSwitch) {
+                recordMappingForWhenBySealedClass(expression);
+            }
+            return;
+        }
 
         String currentClassName = getCurrentTopLevelClassOrPackagePartInternalName(expression.getContainingKtFile());
 
@@ -546,6 +555,30 @@ class CodegenAnnotatingVisitor extends KtVisitorVoid {
         bindingTrace.record(MAPPING_FOR_WHEN_BY_ENUM, expression, mapping);
     }
 
+    private void recordMappingForWhenBySealedClass(@NotNull KtWhenExpression expression) {
+        ClassDescriptor sealedClass = SealedClassSwitchCodegen.getSealedClassIfApplicable(expression, bindingContext);
+        if (sealedClass == null) return;
+
+        String currentClassName = getCurrentTopLevelClassOrPackagePartInternalName(expression.getContainingKtFile());
+
+        if (bindingContext.get(MAPPINGS_FOR_WHENS_BY_SEALED_CLASS_IN_CLASS_FILE, currentClassName) == null) {
+            bindingTrace.record(MAPPINGS_FOR_WHENS_BY_SEALED_CLASS_IN_CLASS_FILE, currentClassName, new ArrayList<WhenBySealedClassMapping>(1));
+        }
+
+        List<WhenBySealedClassMapping> mappings = bindingContext.get(MAPPINGS_FOR_WHENS_BY_SEALED_CLASS_IN_CLASS_FILE, currentClassName);
+        assert mappings != null : "guaranteed by contract";
+
+        WhenBySealedClassMapping mapping = new WhenBySealedClassMapping(sealedClass, currentClassName, mappings.size());
+
+        for (ClassDescriptor subclass : SealedClassSwitchCodegen.getCheckedSubclasses(expression, bindingContext)) {
+            mapping.putFirstTime(subclass, mapping.size() + 1);
+        }
+
+        mappings.add(mapping);
+
+        bindingTrace.record(MAPPING_FOR_WHEN_BY_SEALED_CLASS, expression, mapping);
+    }
+
     private boolean isWhenWithEnums(@NotNull KtWhenExpression expression) {
         return WhenChecker.isWhenByEnum(expression, bindingContext) &&
                SwitchCodegenUtil.checkAllItemsAreConstantsSatisfying(
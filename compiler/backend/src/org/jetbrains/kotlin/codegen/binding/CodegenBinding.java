@@ -23,6 +23,7 @@ import org.jetbrains.kotlin.codegen.JvmCodegenUtil;
 import org.jetbrains.kotlin.codegen.SamType;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
 import org.jetbrains.kotlin.codegen.when.WhenByEnumsMapping;
+import org.jetbrains.kotlin.codegen.when.WhenBySealedClassMapping;
 import org.jetbrains.kotlin.descriptors.*;
 import org.jetbrains.kotlin.fileClasses.JvmFileClassesProvider;
 import org.jetbrains.kotlin.name.FqName;
@@ -60,6 +61,12 @@ public class CodegenBinding {
     public static final WritableSlice<String, List<WhenByEnumsMapping>> MAPPINGS_FOR_WHENS_BY_ENUM_IN_CLASS_FILE =
             Slices.createSimpleSlice();
 
+    public static final WritableSlice<KtWhenExpression, WhenBySealedClassMapping> MAPPING_FOR_WHEN_BY_SEALED_CLASS =
+            Slices.createSimpleSlice();
+
+    public static final WritableSlice<String, List<WhenBySealedClassMapping>> MAPPINGS_FOR_WHENS_BY_SEALED_CLASS_IN_CLASS_FILE =
+            Slices.createSimpleSlice();
+
     static {
         BasicWritableSlice.initSliceDebugNames(CodegenBinding.class);
     }
@@ -32,9 +32,19 @@ public class ClosureContext extends ClassContext {
             @NotNull FunctionDescriptor functionDescriptor,
             @Nullable CodegenContext parentContext,
             @NotNull LocalLookup localLookup
+    ) {
+        this(typeMapper, functionDescriptor, parentContext, localLookup, OwnerKind.IMPLEMENTATION);
+    }
+
+    public ClosureContext(
+            @NotNull JetTypeMapper typeMapper,
+            @NotNull FunctionDescriptor functionDescriptor,
+            @Nullable CodegenContext parentContext,
+            @NotNull LocalLookup localLookup,
+            @NotNull OwnerKind contextKind
     ) {
         super(typeMapper, anonymousClassForCallable(typeMapper.getBindingContext(), functionDescriptor),
-              OwnerKind.IMPLEMENTATION, parentContext, localLookup);
+              contextKind, parentContext, localLookup);
 
         this.functionDescriptor = functionDescriptor;
     }
@@ -331,6 +331,19 @@ public abstract class CodegenContext<T extends DeclarationDescriptor> {
         return new ClosureContext(typeMapper, funDescriptor, this, localLookup);
     }
 
+    /**
+     * Context for a lambda which has no class of its own: its body is generated as a static method of the current class,
+     * see InvokeDynamicLambdaCodegen
+     */
+    @NotNull
+    public ClosureContext intoStaticClosure(
+            @NotNull FunctionDescriptor funDescriptor,
+            @NotNull LocalLookup localLookup,
+            @NotNull JetTypeMapper typeMapper
+    ) {
+        return new ClosureContext(typeMapper, funDescriptor, this, localLookup, OwnerKind.PACKAGE);
+    }
+
     @Nullable
     public CodegenContext getParentContext() {
         return parentContext;
@@ -581,13 +594,15 @@ public abstract class CodegenContext<T extends DeclarationDescriptor> {
             int getterAccessFlag = getter == null ? propertyAccessFlag
                                                   : propertyAccessFlag | getVisibilityAccessFlag(getter);
             boolean getterAccessorRequired = isAccessorRequired(getterAccessFlag, unwrappedDescriptor, descriptorContext,
-                                                                withinInliningContext, superCallTarget != null);
+                                                                withinInliningContext, superCallTarget != null) &&
+                                             !isDirectlyAccessible(getter, superCallTarget, withinInliningContext);
 
             PropertySetterDescriptor setter = propertyDescriptor.getSetter();
             int setterAccessFlag = setter == null ? propertyAccessFlag
                                                   : propertyAccessFlag | getVisibilityAccessFlag(setter);
             boolean setterAccessorRequired = isAccessorRequired(setterAccessFlag, unwrappedDescriptor, descriptorContext,
-                                                                withinInliningContext, superCallTarget != null);
+                                                                withinInliningContext, superCallTarget != null) &&
+                                             !isDirectlyAccessible(setter, superCallTarget, withinInliningContext);
 
             if (!getterAccessorRequired && !setterAccessorRequired) {
                 return descriptor;
@@ -596,13 +611,24 @@ public abstract class CodegenContext<T extends DeclarationDescriptor> {
         }
         else {
             int flag = getVisibilityAccessFlag(unwrappedDescriptor);
-            if (!isAccessorRequired(flag, unwrappedDescriptor, descriptorContext, withinInliningContext, superCallTarget != null)) {
+            if (!isAccessorRequired(flag, unwrappedDescriptor, descriptorContext, withinInliningContext, superCallTarget != null) ||
+                isDirectlyAccessible(unwrappedDescriptor, superCallTarget, withinInliningContext)) {
                 return descriptor;
             }
             return (D) descriptorContext.getAccessor(descriptor, superCallTarget);
         }
     }
 
+    private boolean isDirectlyAccessible(
+            @Nullable CallableMemberDescriptor descriptor,
+            @Nullable ClassDescriptor superCallTarget,
+            boolean withinInliningContext
+    ) {
+        // Code of inline functions may be inlined into other packages, where package-private members are not accessible
+        return descriptor != null && superCallTarget == null && !withinInliningContext &&
+               getState().getTypeMapper().isPrivateCompanionMemberWithDirectAccess(descriptor);
+    }
+
     private static boolean isAccessorRequired(
             int accessFlag,
             @NotNull CallableMemberDescriptor unwrappedDescriptor,
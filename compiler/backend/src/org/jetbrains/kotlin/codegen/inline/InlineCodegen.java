@@ -46,6 +46,7 @@ import org.jetbrains.kotlin.resolve.jvm.jvmSignature.JvmMethodParameterSignature
 import org.jetbrains.kotlin.resolve.jvm.jvmSignature.JvmMethodSignature;
 import org.jetbrains.kotlin.serialization.deserialization.descriptors.DeserializedSimpleFunctionDescriptor;
 import org.jetbrains.kotlin.types.expressions.LabelResolver;
+import org.jetbrains.kotlin.util.PhaseMetrics;
 import org.jetbrains.org.objectweb.asm.Label;
 import org.jetbrains.org.objectweb.asm.MethodVisitor;
 import org.jetbrains.org.objectweb.asm.Opcodes;
@@ -137,6 +138,7 @@ public class InlineCodegen extends CallGenerator {
             return;
         }
 
+        PhaseMetrics.Snapshot metrics = state.getPhaseMetrics().start(PhaseMetrics.INLINE);
         try {
             nodeAndSmap = createMethodNode(callDefault);
             endCall(inlineCall(nodeAndSmap));
@@ -155,6 +157,7 @@ public class InlineCodegen extends CallGenerator {
         }
         finally {
             state.getInlineCycleReporter().exitFromInliningOf(resolvedCall);
+            state.getPhaseMetrics().finish(metrics);
         }
     }
 
@@ -198,8 +201,8 @@ public class InlineCodegen extends CallGenerator {
                 throw new IllegalStateException("Couldn't find declaration file for " + containerId);
             }
 
-            nodeAndSMAP = InlineCodegenUtil.getMethodNode(
-                    file.contentsToByteArray(), asmMethod.getName(), asmMethod.getDescriptor(), containingClasses.getFacadeClassId()
+            nodeAndSMAP = state.getInlineMethodNodeCache().getMethodNode(
+                    file, asmMethod.getName(), asmMethod.getDescriptor(), containingClasses.getFacadeClassId()
             );
 
             if (nodeAndSMAP == null) {
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.codegen.inline
+
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.containers.ContainerUtil
+import org.jetbrains.kotlin.name.ClassId
+import org.jetbrains.org.objectweb.asm.tree.MethodNode
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Bodies of compiled inline functions, so that the containing class is read and parsed once rather than at every call site.
+ *
+ * Nodes are cached per [org.jetbrains.kotlin.codegen.state.GenerationState] by the class file they come from, and across
+ * compilations in the same process by the contents of that class file. Cached nodes are never mutated: every call gets its own copy.
+ * Methods which are not found in the class file are not cached, the caller reports them as an error anyway.
+ */
+class InlineMethodNodeCache {
+    private data class MethodInFile(val filePath: String, val methodName: String, val methodDescriptor: String)
+
+    private data class MethodInClass(val classHash: String, val classId: ClassId, val methodName: String, val methodDescriptor: String)
+
+    private val nodes = ConcurrentHashMap<MethodInFile, SMAPAndMethodNode>()
+
+    fun getMethodNode(file: VirtualFile, methodName: String, methodDescriptor: String, classId: ClassId): SMAPAndMethodNode? {
+        val key = MethodInFile(file.path, methodName, methodDescriptor)
+        var template = nodes[key]
+        if (template == null) {
+            val loaded = loadMethodNode(file.contentsToByteArray(), methodName, methodDescriptor, classId) ?: return null
+            template = nodes.putIfAbsent(key, loaded) ?: loaded
+        }
+        return copy(template)
+    }
+
+    companion object {
+        private val sharedNodes = ContainerUtil.createConcurrentSoftValueMap<MethodInClass, SMAPAndMethodNode>()
+
+        private fun loadMethodNode(classData: ByteArray, methodName: String, methodDescriptor: String, classId: ClassId): SMAPAndMethodNode? {
+            val key = MethodInClass(hash(classData), classId, methodName, methodDescriptor)
+            sharedNodes[key]?.let { return it }
+
+            val loaded = InlineCodegenUtil.getMethodNode(classData, methodName, methodDescriptor, classId) ?: return null
+            sharedNodes.put(key, loaded)
+            return loaded
+        }
+
+        private fun hash(classData: ByteArray): String {
+            val digest = MessageDigest.getInstance("MD5").digest(classData)
+            val sb = StringBuilder(digest.size * 2)
+            for (byte in digest) {
+                sb.append(Character.forDigit((byte.toInt() shr 4) and 0xF, 16))
+                sb.append(Character.forDigit(byte.toInt() and 0xF, 16))
+            }
+            return sb.toString()
+        }
+
+        private fun copy(template: SMAPAndMethodNode): SMAPAndMethodNode {
+            val original = template.node
+            val node = MethodNode(
+                    InlineCodegenUtil.API, original.access, original.name, original.desc, original.signature,
+                    original.exceptions?.toTypedArray()
+            )
+            // MethodNode.accept() resets labels of the source node, so copying the same template concurrently is not safe
+            synchronized(original) {
+                original.accept(node)
+            }
+            return SMAPAndMethodNode(node, template.classSMAP)
+        }
+    }
+}
@@ -42,19 +42,17 @@ class Concat : IntrinsicMethod() {
     ): Type {
         if (element is KtBinaryExpression && element.operationReference.getReferencedNameElementType() == KtTokens.PLUS) {
             // LHS + RHS
-            genStringBuilderConstructor(v)
-            codegen.invokeAppend(element.left)
-            codegen.invokeAppend(element.right)
-        }
-        else {
-            // LHS?.plus(RHS)
-            receiver.put(AsmTypes.OBJECT_TYPE, v)
-            genStringBuilderConstructor(v)
-            v.swap()
-            genInvokeAppendMethod(v, returnType)
-            codegen.invokeAppend(arguments.get(0))
+            StringConcatenationGenerator.generateConcatenation(codegen, element).put(JAVA_STRING_TYPE, v)
+            return JAVA_STRING_TYPE
         }
 
+        // LHS?.plus(RHS)
+        receiver.put(AsmTypes.OBJECT_TYPE, v)
+        genStringBuilderConstructor(v)
+        v.swap()
+        genInvokeAppendMethod(v, returnType)
+        codegen.invokeAppend(arguments.get(0))
+
         v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false)
         return JAVA_STRING_TYPE
     }
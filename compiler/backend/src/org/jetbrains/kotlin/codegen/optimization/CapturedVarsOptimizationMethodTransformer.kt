@@ -0,0 +1,279 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.codegen.optimization
+
+import org.jetbrains.kotlin.codegen.AsmUtil
+import org.jetbrains.kotlin.codegen.StackValue
+import org.jetbrains.kotlin.codegen.optimization.common.OptimizationBasicInterpreter
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.*
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
+import org.jetbrains.org.objectweb.asm.tree.analysis.Frame
+import java.util.*
+
+/**
+ * Replaces `kotlin.jvm.internal.Ref.*Ref` instances created for captured local variables with plain local variables,
+ * provided that the reference never escapes the method (which is the case when all lambdas capturing the variable were inlined).
+ *
+ * A reference can be replaced if it's only created, initialized, stored into and loaded from local variables,
+ * duplicated or popped on the stack, and used as a receiver of `element` field reads and writes.
+ * Any other usage, as well as a merge of the reference with another value in a frame which is used later, prevents the optimization.
+ */
+class CapturedVarsOptimizationMethodTransformer : MethodTransformer() {
+    override fun transform(internalClassName: String, methodNode: MethodNode) {
+        if (methodNode.instructions.toArray().none { it.opcode == Opcodes.NEW && (it as TypeInsnNode).desc in VALUE_TYPES }) return
+
+        val interpreter = CapturedVarsInterpreter()
+        val frames = MethodTransformer.analyze(internalClassName, methodNode, interpreter)
+
+        checkStackInstructions(methodNode, frames)
+
+        val capturedVars = interpreter.capturedVars.filter { !it.hazard && it.initInsn != null }
+        if (capturedVars.isEmpty()) return
+
+        collectLocalVariables(methodNode, frames)
+
+        for (capturedVar in capturedVars) {
+            rewrite(methodNode, capturedVar)
+        }
+    }
+
+    private fun checkStackInstructions(methodNode: MethodNode, frames: Array<Frame<BasicValue>?>) {
+        val insns = methodNode.instructions.toArray()
+        for (i in insns.indices) {
+            val insn = insns[i]
+            val frame = frames[i] ?: continue
+
+            val affectedValues = when (insn.opcode) {
+                Opcodes.POP, Opcodes.DUP -> 1
+                Opcodes.POP2, Opcodes.DUP_X1, Opcodes.DUP2, Opcodes.SWAP -> 2
+                Opcodes.DUP_X2, Opcodes.DUP2_X1 -> 3
+                Opcodes.DUP2_X2 -> 4
+                else -> continue
+            }
+
+            for (depth in 0..Math.min(affectedValues, frame.stackSize) - 1) {
+                val value = frame.getStack(frame.stackSize - 1 - depth)
+                if (value is CapturedVarValue && affectedValues == 1) {
+                    value.capturedVar.stackInsns.add(insn)
+                }
+                else {
+                    markHazard(value)
+                }
+            }
+        }
+    }
+
+    private fun collectLocalVariables(methodNode: MethodNode, frames: Array<Frame<BasicValue>?>) {
+        for (localVariable in methodNode.localVariables ?: return) {
+            val desc = localVariable.desc
+            if (!desc.startsWith("L") || desc.substring(1, desc.length - 1) !in VALUE_TYPES) continue
+
+            val frame = frames[methodNode.instructions.indexOf(localVariable.start)] ?: continue
+            val value = frame.getLocal(localVariable.index)
+            if (value is CapturedVarValue) {
+                value.capturedVar.localVariables.add(localVariable)
+            }
+        }
+    }
+
+    private fun rewrite(methodNode: MethodNode, capturedVar: CapturedVar) {
+        val insns = methodNode.instructions
+        val valueType = capturedVar.valueType
+        val index = methodNode.maxLocals
+        methodNode.maxLocals += valueType.size
+
+        insns.insertBefore(capturedVar.newInsn, InsnNode(defaultValueOpcode(valueType)))
+        insns.set(capturedVar.newInsn, VarInsnNode(valueType.getOpcode(Opcodes.ISTORE), index))
+
+        insns.remove(capturedVar.initInsn)
+        capturedVar.loadInsns.forEach { insns.remove(it) }
+        capturedVar.storeInsns.forEach { insns.remove(it) }
+        capturedVar.stackInsns.forEach { insns.remove(it) }
+
+        capturedVar.getFieldInsns.forEach { insns.set(it, VarInsnNode(valueType.getOpcode(Opcodes.ILOAD), index)) }
+        capturedVar.putFieldInsns.forEach { insns.set(it, VarInsnNode(valueType.getOpcode(Opcodes.ISTORE), index)) }
+
+        for (localVariable in capturedVar.localVariables) {
+            localVariable.index = index
+            localVariable.desc = localVariableDescriptor(localVariable, valueType)
+            localVariable.signature = null
+        }
+    }
+
+    // Ref.ObjectRef<T> of a local variable of type T is generated with a generic signature, use T if it's available
+    private fun localVariableDescriptor(localVariable: LocalVariableNode, valueType: Type): String {
+        val signature = localVariable.signature
+        val prefix = "L" + OBJECT_REF_TYPE.internalName + "<"
+        if (valueType.sort == Type.OBJECT && signature != null && signature.startsWith(prefix) && signature.endsWith(">;")) {
+            val argument = signature.substring(prefix.length, signature.length - 2)
+            if ('<' !in argument && (argument.startsWith("L") || argument.startsWith("["))) return argument
+        }
+        return valueType.descriptor
+    }
+
+    private fun defaultValueOpcode(type: Type): Int =
+            when (type.sort) {
+                Type.LONG -> Opcodes.LCONST_0
+                Type.FLOAT -> Opcodes.FCONST_0
+                Type.DOUBLE -> Opcodes.DCONST_0
+                Type.OBJECT, Type.ARRAY -> Opcodes.ACONST_NULL
+                else -> Opcodes.ICONST_0
+            }
+
+    companion object {
+        private val OBJECT_REF_TYPE = StackValue.sharedTypeForType(AsmUtil.OBJECT_TYPE)
+
+        // Ref type internal name -> type of its 'element' field
+        private val VALUE_TYPES: Map<String, Type> =
+                listOf(Type.INT_TYPE, Type.LONG_TYPE, Type.FLOAT_TYPE, Type.DOUBLE_TYPE, Type.BYTE_TYPE, Type.SHORT_TYPE,
+                       Type.CHAR_TYPE, Type.BOOLEAN_TYPE, AsmUtil.OBJECT_TYPE).associate {
+                    StackValue.sharedTypeForType(it).internalName to StackValue.refType(it)
+                }
+
+        private fun markHazard(value: BasicValue?) {
+            when (value) {
+                is CapturedVarValue -> value.capturedVar.hazard = true
+                is MergedCapturedVarsValue -> value.capturedVars.forEach { it.hazard = true }
+            }
+        }
+    }
+
+    private class CapturedVar(val newInsn: TypeInsnNode, val valueType: Type) {
+        val value = CapturedVarValue(this)
+
+        var hazard = false
+        var initInsn: MethodInsnNode? = null
+        val loadInsns = LinkedHashSet<AbstractInsnNode>()
+        val storeInsns = LinkedHashSet<AbstractInsnNode>()
+        val stackInsns = LinkedHashSet<AbstractInsnNode>()
+        val getFieldInsns = LinkedHashSet<AbstractInsnNode>()
+        val putFieldInsns = LinkedHashSet<AbstractInsnNode>()
+        val localVariables = ArrayList<LocalVariableNode>()
+
+        fun isElementField(insn: AbstractInsnNode): Boolean =
+                insn is FieldInsnNode && insn.owner == newInsn.desc && insn.name == "element"
+    }
+
+    private class CapturedVarValue(val capturedVar: CapturedVar) : BasicValue(Type.getObjectType(capturedVar.newInsn.desc)) {
+        override fun equals(other: Any?) = this === other
+        override fun hashCode() = System.identityHashCode(this)
+    }
+
+    // The same frame slot can contain one of several references (or some other value) depending on the path,
+    // such a value can't be used without a hazard
+    private class MergedCapturedVarsValue(val capturedVars: Set<CapturedVar>) : BasicValue(AsmUtil.OBJECT_TYPE) {
+        override fun equals(other: Any?) = other is MergedCapturedVarsValue && capturedVars == other.capturedVars
+        override fun hashCode() = capturedVars.hashCode()
+    }
+
+    private class CapturedVarsInterpreter : OptimizationBasicInterpreter() {
+        private val newInsnToCapturedVar = LinkedHashMap<AbstractInsnNode, CapturedVar>()
+
+        val capturedVars: Collection<CapturedVar> get() = newInsnToCapturedVar.values
+
+        override fun newOperation(insn: AbstractInsnNode): BasicValue? {
+            if (insn.opcode == Opcodes.NEW) {
+                val valueType = VALUE_TYPES[(insn as TypeInsnNode).desc]
+                if (valueType != null) {
+                    return newInsnToCapturedVar.getOrPut(insn) { CapturedVar(insn, valueType) }.value
+                }
+            }
+            return super.newOperation(insn)
+        }
+
+        override fun copyOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue? {
+            if (value is CapturedVarValue) {
+                when (insn.opcode) {
+                    Opcodes.ALOAD -> value.capturedVar.loadInsns.add(insn)
+                    Opcodes.ASTORE -> value.capturedVar.storeInsns.add(insn)
+                    // DUP, POP and the like are checked separately, the analyzer doesn't pass all of their operands here
+                }
+                return value
+            }
+            if (value is MergedCapturedVarsValue && (insn.opcode == Opcodes.ALOAD || insn.opcode == Opcodes.ASTORE)) {
+                markHazard(value)
+            }
+            return super.copyOperation(insn, value)
+        }
+
+        override fun unaryOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue? {
+            if (value is CapturedVarValue && insn.opcode == Opcodes.GETFIELD && value.capturedVar.isElementField(insn)) {
+                value.capturedVar.getFieldInsns.add(insn)
+            }
+            else {
+                markHazard(value)
+            }
+            return super.unaryOperation(insn, value)
+        }
+
+        override fun binaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue): BasicValue? {
+            if (value1 is CapturedVarValue && insn.opcode == Opcodes.PUTFIELD && value1.capturedVar.isElementField(insn)) {
+                value1.capturedVar.putFieldInsns.add(insn)
+            }
+            else {
+                markHazard(value1)
+            }
+            markHazard(value2)
+            return super.binaryOperation(insn, value1, value2)
+        }
+
+        override fun ternaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue, value3: BasicValue): BasicValue? {
+            markHazard(value1)
+            markHazard(value2)
+            markHazard(value3)
+            return super.ternaryOperation(insn, value1, value2, value3)
+        }
+
+        override fun naryOperation(insn: AbstractInsnNode, values: List<BasicValue>): BasicValue? {
+            val receiver = values.firstOrNull()
+            if (receiver is CapturedVarValue && values.size == 1 && insn.opcode == Opcodes.INVOKESPECIAL &&
+                (insn as MethodInsnNode).name == "<init>" && insn.owner == receiver.capturedVar.newInsn.desc &&
+                receiver.capturedVar.initInsn.let { it == null || it == insn }) {
+                receiver.capturedVar.initInsn = insn
+            }
+            else {
+                values.forEach { markHazard(it) }
+            }
+            return super.naryOperation(insn, values)
+        }
+
+        override fun returnOperation(insn: AbstractInsnNode, value: BasicValue, expected: BasicValue) {
+            markHazard(value)
+            super.returnOperation(insn, value, expected)
+        }
+
+        override fun merge(v: BasicValue, w: BasicValue): BasicValue {
+            // BasicValue.equals() only compares types, so it can't be used to tell tracked values from the others
+            if (v === w) return v
+
+            val merged = LinkedHashSet<CapturedVar>()
+            for (value in listOf(v, w)) {
+                when (value) {
+                    is CapturedVarValue -> merged.add(value.capturedVar)
+                    is MergedCapturedVarsValue -> merged.addAll(value.capturedVars)
+                }
+            }
+            if (merged.isEmpty()) return super.merge(v, w)
+
+            return MergedCapturedVarsValue(merged)
+        }
+    }
+}
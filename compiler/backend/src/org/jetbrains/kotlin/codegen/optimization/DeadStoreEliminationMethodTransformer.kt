@@ -0,0 +1,227 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization
+
+import org.jetbrains.kotlin.codegen.inline.InlineCodegenUtil
+import org.jetbrains.kotlin.codegen.optimization.common.isMeaningful
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.*
+import java.util.*
+
+/**
+ * Removes stores to local variables whose values are never read, and then renumbers the remaining local variable slots
+ * so that the slots freed by the removed stores (and temporaries that are never used at all) no longer count towards `maxLocals`.
+ *
+ * Such stores mostly appear after inlining and in temporaries of `when` subjects and receivers that turn out to be unused.
+ * Stores to variables visible in the local variable table are kept so that their values can still be inspected in the debugger;
+ * the only exception are the fake `$i$f$`/`$i$a$` variables which mark inlined code and are never read anyway.
+ *
+ * A dead store is replaced with `POP`/`POP2`, or removed together with the instruction that pushed the value,
+ * if the latter has no side effects.
+ */
+class DeadStoreEliminationMethodTransformer : MethodTransformer() {
+    override fun transform(internalClassName: String, methodNode: MethodNode) {
+        val instructions = methodNode.instructions
+        if (instructions.toArray().any { it.opcode == Opcodes.JSR || it.opcode == Opcodes.RET }) return
+
+        while (removeDeadStores(methodNode)) {
+            // Removing a store may make the load which produced the stored value (and hence an earlier store) dead
+        }
+
+        compactLocalVariables(methodNode)
+    }
+
+    private fun removeDeadStores(methodNode: MethodNode): Boolean {
+        val instructions = methodNode.instructions
+        val insns = instructions.toArray()
+        val liveOut = computeLiveOut(methodNode, insns)
+        // Indices are taken before any instruction is removed, so that they stay consistent with liveOut
+        val labelIndices = hashMapOf<AbstractInsnNode, Int>()
+        for ((index, insn) in insns.withIndex()) {
+            if (insn is LabelNode) labelIndices[insn] = index
+        }
+
+        var changed = false
+        for ((index, insn) in insns.withIndex()) {
+            if (!isStore(insn.opcode)) continue
+            val store = insn as VarInsnNode
+            if (liveOut[index].get(store.`var`) || isVisibleInDebugger(methodNode, insns, labelIndices, index, store.`var`)) continue
+
+            val previous = store.previous
+            if (previous != null && isPurePush(previous, isWide(store.opcode))) {
+                instructions.remove(previous)
+            }
+            else {
+                instructions.insertBefore(store, InsnNode(if (isWide(store.opcode)) Opcodes.POP2 else Opcodes.POP))
+            }
+            instructions.remove(store)
+            changed = true
+        }
+
+        return changed
+    }
+
+    private fun computeLiveOut(methodNode: MethodNode, insns: Array<AbstractInsnNode>): Array<BitSet> {
+        val instructions = methodNode.instructions
+        val successors = Array(insns.size) { index -> getSuccessors(instructions, insns, index) }
+
+        for (tryCatchBlock in methodNode.tryCatchBlocks) {
+            val handler = instructions.indexOf(tryCatchBlock.handler)
+            for (index in instructions.indexOf(tryCatchBlock.start)..instructions.indexOf(tryCatchBlock.end) - 1) {
+                successors[index].add(handler)
+            }
+        }
+
+        val liveIn = Array(insns.size) { BitSet() }
+        val liveOut = Array(insns.size) { BitSet() }
+
+        var changed = true
+        while (changed) {
+            changed = false
+            for (index in insns.indices.reversed()) {
+                val out = liveOut[index]
+                for (successor in successors[index]) {
+                    out.or(liveIn[successor])
+                }
+
+                val newIn = out.clone() as BitSet
+                val insn = insns[index]
+                when {
+                    isStore(insn.opcode) -> {
+                        val slot = (insn as VarInsnNode).`var`
+                        newIn.clear(slot, slot + if (isWide(insn.opcode)) 2 else 1)
+                    }
+                    isLoad(insn.opcode) -> {
+                        val slot = (insn as VarInsnNode).`var`
+                        newIn.set(slot, slot + if (isWide(insn.opcode)) 2 else 1)
+                    }
+                    insn is IincInsnNode -> newIn.set(insn.`var`)
+                }
+
+                if (newIn != liveIn[index]) {
+                    liveIn[index] = newIn
+                    changed = true
+                }
+            }
+        }
+
+        return liveOut
+    }
+
+    private fun getSuccessors(instructions: InsnList, insns: Array<AbstractInsnNode>, index: Int): MutableList<Int> {
+        val insn = insns[index]
+        val result = arrayListOf<Int>()
+        when (insn) {
+            is JumpInsnNode -> {
+                result.add(instructions.indexOf(insn.label))
+                if (insn.opcode != Opcodes.GOTO && index + 1 < insns.size) result.add(index + 1)
+            }
+            is TableSwitchInsnNode -> {
+                result.add(instructions.indexOf(insn.dflt))
+                insn.labels.mapTo(result) { instructions.indexOf(it) }
+            }
+            is LookupSwitchInsnNode -> {
+                result.add(instructions.indexOf(insn.dflt))
+                insn.labels.mapTo(result) { instructions.indexOf(it) }
+            }
+            else -> {
+                val opcode = insn.opcode
+                if (opcode != Opcodes.ATHROW && (opcode < Opcodes.IRETURN || opcode > Opcodes.RETURN) && index + 1 < insns.size) {
+                    result.add(index + 1)
+                }
+            }
+        }
+        return result
+    }
+
+    private fun isVisibleInDebugger(
+            methodNode: MethodNode,
+            insns: Array<AbstractInsnNode>,
+            labelIndices: Map<AbstractInsnNode, Int>,
+            storeIndex: Int,
+            slot: Int
+    ): Boolean {
+        // A variable's range usually starts right after the store which initializes it
+        var rangeEnd = storeIndex + 1
+        while (rangeEnd < insns.size && !insns[rangeEnd].isMeaningful) rangeEnd++
+
+        return methodNode.localVariables.any {
+            it.index == slot &&
+            !InlineCodegenUtil.isFakeLocalVariableForInline(it.name) &&
+            labelIndices[it.start]!! <= rangeEnd &&
+            labelIndices[it.end]!! > storeIndex
+        }
+    }
+
+    private fun compactLocalVariables(methodNode: MethodNode) {
+        val instructions = methodNode.instructions
+        if (instructions.toArray().any { it is FrameNode }) return
+
+        val isStatic = methodNode.access and Opcodes.ACC_STATIC != 0
+        val parametersSize = (Type.getArgumentsAndReturnSizes(methodNode.desc) shr 2) - if (isStatic) 1 else 0
+
+        val used = BitSet()
+        used.set(0, parametersSize)
+        for (insn in instructions.toArray()) {
+            when (insn) {
+                is VarInsnNode -> used.set(insn.`var`, insn.`var` + if (isWide(insn.opcode)) 2 else 1)
+                is IincInsnNode -> used.set(insn.`var`)
+            }
+        }
+        for (localVariable in methodNode.localVariables) {
+            used.set(localVariable.index, localVariable.index + Type.getType(localVariable.desc).size)
+        }
+
+        val newIndex = IntArray(used.length())
+        var next = 0
+        for (slot in 0..used.length() - 1) {
+            if (used.get(slot)) newIndex[slot] = next++
+        }
+        methodNode.maxLocals = next
+        if (next == used.length()) return
+
+        for (insn in instructions.toArray()) {
+            when (insn) {
+                is VarInsnNode -> insn.`var` = newIndex[insn.`var`]
+                is IincInsnNode -> insn.`var` = newIndex[insn.`var`]
+            }
+        }
+        for (localVariable in methodNode.localVariables) {
+            localVariable.index = newIndex[localVariable.index]
+        }
+    }
+
+    private fun isStore(opcode: Int) = opcode >= Opcodes.ISTORE && opcode <= Opcodes.ASTORE
+
+    private fun isLoad(opcode: Int) = opcode >= Opcodes.ILOAD && opcode <= Opcodes.ALOAD
+
+    private fun isWide(opcode: Int) =
+            opcode == Opcodes.LSTORE || opcode == Opcodes.DSTORE || opcode == Opcodes.LLOAD || opcode == Opcodes.DLOAD
+
+    private fun isPurePush(insn: AbstractInsnNode, wide: Boolean) =
+            when (insn.opcode) {
+                Opcodes.LDC -> (insn as LdcInsnNode).cst.let { it is Long || it is Double } == wide
+                Opcodes.LCONST_0, Opcodes.LCONST_1, Opcodes.DCONST_0, Opcodes.DCONST_1, Opcodes.LLOAD, Opcodes.DLOAD -> wide
+                Opcodes.ACONST_NULL, Opcodes.ICONST_M1, Opcodes.ICONST_0, Opcodes.ICONST_1, Opcodes.ICONST_2, Opcodes.ICONST_3,
+                Opcodes.ICONST_4, Opcodes.ICONST_5, Opcodes.FCONST_0, Opcodes.FCONST_1, Opcodes.FCONST_2,
+                Opcodes.BIPUSH, Opcodes.SIPUSH,
+                Opcodes.ILOAD, Opcodes.FLOAD, Opcodes.ALOAD, Opcodes.DUP -> !wide
+                else -> false
+            }
+}
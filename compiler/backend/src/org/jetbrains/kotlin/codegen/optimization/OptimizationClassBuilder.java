@@ -21,15 +21,18 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.codegen.ClassBuilder;
 import org.jetbrains.kotlin.codegen.DelegatingClassBuilder;
 import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
+import org.jetbrains.kotlin.util.PhaseMetrics;
 import org.jetbrains.org.objectweb.asm.MethodVisitor;
 
 public class OptimizationClassBuilder extends DelegatingClassBuilder {
     private final ClassBuilder delegate;
     private final boolean disableOptimization;
+    private final PhaseMetrics phaseMetrics;
 
-    public OptimizationClassBuilder(@NotNull ClassBuilder delegate, boolean disableOptimization) {
+    public OptimizationClassBuilder(@NotNull ClassBuilder delegate, boolean disableOptimization, @NotNull PhaseMetrics phaseMetrics) {
         this.delegate = delegate;
         this.disableOptimization = disableOptimization;
+        this.phaseMetrics = phaseMetrics;
     }
 
     @NotNull
@@ -51,6 +54,7 @@ public class OptimizationClassBuilder extends DelegatingClassBuilder {
         return new OptimizationMethodVisitor(
                 super.newMethod(origin, access, name, desc, signature, exceptions),
                 disableOptimization,
+                phaseMetrics,
                 access, name, desc, signature, exceptions
         );
     }
@@ -23,6 +23,7 @@ import org.jetbrains.kotlin.codegen.optimization.boxing.RedundantBoxingMethodTra
 import org.jetbrains.kotlin.codegen.optimization.boxing.RedundantNullCheckMethodTransformer;
 import org.jetbrains.kotlin.codegen.optimization.common.UtilKt;
 import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer;
+import org.jetbrains.kotlin.util.PhaseMetrics;
 import org.jetbrains.org.objectweb.asm.MethodVisitor;
 import org.jetbrains.org.objectweb.asm.Opcodes;
 import org.jetbrains.org.objectweb.asm.tree.LocalVariableNode;
@@ -40,18 +41,24 @@ public class OptimizationMethodVisitor extends MethodVisitor {
 
     private static final MethodTransformer[] OPTIMIZATION_TRANSFORMERS = new MethodTransformer[] {
             new RedundantNullCheckMethodTransformer(),
-            new RedundantBoxingMethodTransformer(),
             new DeadCodeEliminationMethodTransformer(),
+            // Refs replaced with locals expose the boxed values stored in them to the boxing optimization
+            new CapturedVarsOptimizationMethodTransformer(),
+            new RedundantBoxingMethodTransformer(),
+            // Goes after the boxing optimization, which leaves behind stores of values that are no longer read
+            new DeadStoreEliminationMethodTransformer(),
             new RedundantGotoMethodTransformer()
     };
 
     private final MethodNode methodNode;
     private final MethodVisitor delegate;
     private final boolean disableOptimization;
+    private final PhaseMetrics phaseMetrics;
 
     public OptimizationMethodVisitor(
             @NotNull MethodVisitor delegate,
             boolean disableOptimization,
+            @NotNull PhaseMetrics phaseMetrics,
             int access,
             @NotNull String name,
             @NotNull String desc,
@@ -64,6 +71,7 @@ public class OptimizationMethodVisitor extends MethodVisitor {
         this.methodNode.localVariables = new ArrayList<LocalVariableNode>(5);
         this.mv = InlineCodegenUtil.wrapWithMaxLocalCalc(methodNode);
         this.disableOptimization = disableOptimization;
+        this.phaseMetrics = phaseMetrics;
     }
 
     @Override
@@ -76,13 +84,19 @@ public class OptimizationMethodVisitor extends MethodVisitor {
         super.visitEnd();
 
         if (shouldBeTransformed(methodNode)) {
-            MANDATORY_METHOD_TRANSFORMER.transform("fake", methodNode);
-            if (canBeOptimized(methodNode) && !disableOptimization) {
-                for (MethodTransformer transformer : OPTIMIZATION_TRANSFORMERS) {
-                    transformer.transform("fake", methodNode);
+            PhaseMetrics.Snapshot metrics = phaseMetrics.start(PhaseMetrics.OPTIMIZATION);
+            try {
+                MANDATORY_METHOD_TRANSFORMER.transform("fake", methodNode);
+                if (canBeOptimized(methodNode) && !disableOptimization) {
+                    for (MethodTransformer transformer : OPTIMIZATION_TRANSFORMERS) {
+                        transformer.transform("fake", methodNode);
+                    }
                 }
+                UtilKt.prepareForEmitting(methodNode);
+            }
+            finally {
+                phaseMetrics.finish(metrics);
             }
-            UtilKt.prepareForEmitting(methodNode);
         }
 
         methodNode.accept(new EndIgnoringMethodVisitorDecorator(Opcodes.ASM5, delegate));
@@ -21,6 +21,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.codegen.AsmUtil;
 import org.jetbrains.kotlin.codegen.RangeCodegenUtil;
+import org.jetbrains.kotlin.codegen.intrinsics.IntrinsicMethods;
 import org.jetbrains.kotlin.codegen.optimization.common.OptimizationBasicInterpreter;
 import org.jetbrains.kotlin.resolve.jvm.JvmPrimitiveType;
 import org.jetbrains.kotlin.name.FqName;
@@ -39,6 +40,7 @@ import java.util.Map;
 
 public class BoxingInterpreter extends OptimizationBasicInterpreter {
     private static final ImmutableSet<String> UNBOXING_METHOD_NAMES;
+    private static final String COMPARABLE_INTERNAL_NAME = Type.getInternalName(Comparable.class);
 
     static {
         UNBOXING_METHOD_NAMES = ImmutableSet.of(
@@ -90,6 +92,9 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
                     getValuesTypeOfProgressionClass(firstArg.getType().getInternalName())
             );
         }
+        else if (isComparisonOfBoxedValues(insn, values)) {
+            onBoxedValuesComparison(insn, (BoxedBasicValue) values.get(0), (BoxedBasicValue) values.get(1));
+        }
         else if (isNextMethodCallOfProgressionIterator(insn, values)) {
             assert firstArg instanceof ProgressionIteratorBasicValue : "firstArg should be progression iterator";
 
@@ -153,6 +158,37 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
                ).equals(node.desc);
     }
 
+    private static boolean isComparisonOfBoxedValues(@NotNull AbstractInsnNode insn, @NotNull List<? extends BasicValue> values) {
+        if (values.size() != 2) return false;
+
+        BasicValue first = values.get(0);
+        return first instanceof BoxedBasicValue && ((BoxedBasicValue) first).typeEquals(values.get(1)) &&
+               (isCompareToCall(insn) || isAreEqualCall(insn));
+    }
+
+    /**
+     * Comparable.compareTo or e.g. Integer.compareTo(Integer), which is emitted for comparisons of generic values after inlining
+     */
+    public static boolean isCompareToCall(@NotNull AbstractInsnNode insn) {
+        if (insn.getOpcode() != Opcodes.INVOKEINTERFACE && insn.getOpcode() != Opcodes.INVOKEVIRTUAL) return false;
+
+        MethodInsnNode methodInsn = (MethodInsnNode) insn;
+        if (!"compareTo".equals(methodInsn.name)) return false;
+
+        if (insn.getOpcode() == Opcodes.INVOKEINTERFACE) {
+            return methodInsn.owner.equals(COMPARABLE_INTERNAL_NAME) && methodInsn.desc.equals("(Ljava/lang/Object;)I");
+        }
+        return isWrapperClassName(methodInsn.owner) && methodInsn.desc.equals("(L" + methodInsn.owner + ";)I");
+    }
+
+    public static boolean isAreEqualCall(@NotNull AbstractInsnNode insn) {
+        if (insn.getOpcode() != Opcodes.INVOKESTATIC) return false;
+
+        MethodInsnNode methodInsn = (MethodInsnNode) insn;
+        return methodInsn.owner.equals(IntrinsicMethods.INTRINSICS_CLASS_NAME) && "areEqual".equals(methodInsn.name) &&
+               methodInsn.desc.equals("(Ljava/lang/Object;Ljava/lang/Object;)Z");
+    }
+
     private static boolean isNextMethodCallOfProgressionIterator(
             @NotNull AbstractInsnNode insn, @NotNull List<? extends BasicValue> values
     ) {
@@ -238,6 +274,13 @@ public class BoxingInterpreter extends OptimizationBasicInterpreter {
 
     }
 
+    protected void onBoxedValuesComparison(
+            @NotNull AbstractInsnNode insn, @NotNull BoxedBasicValue first, @NotNull BoxedBasicValue second
+    ) {
+        onMethodCallWithBoxedValue(first);
+        onMethodCallWithBoxedValue(second);
+    }
+
     protected void onMergeFail(@NotNull BoxedBasicValue value) {
 
     }
@@ -37,6 +37,11 @@ class RedundantBoxingInterpreter extends BoxingInterpreter {
             Type.BYTE, Type.SHORT, Type.INT, Type.FLOAT, Type.LONG, Type.DOUBLE
     );
 
+    // Implemented by all primitive wrappers, generic values bounded by them are cast to these types after inlining
+    private static final ImmutableSet<String> WRAPPER_SUPERTYPES = ImmutableSet.of(
+            Type.getInternalName(Object.class), Type.getInternalName(Comparable.class), Type.getInternalName(java.io.Serializable.class)
+    );
+
     private final RedundantBoxedValuesCollection values = new RedundantBoxedValuesCollection();
 
     public RedundantBoxingInterpreter(InsnList insnList) {
@@ -89,7 +94,7 @@ class RedundantBoxingInterpreter extends BoxingInterpreter {
     }
 
     private static boolean isSafeCast(@NotNull BoxedBasicValue value, @NotNull String targetInternalName) {
-        if (targetInternalName.equals(Type.getInternalName(Object.class))) return true;
+        if (WRAPPER_SUPERTYPES.contains(targetInternalName)) return true;
 
         if (targetInternalName.equals(Type.getInternalName(Number.class))) {
             return PRIMITIVE_TYPES_SORTS_WITH_WRAPPER_EXTENDS_NUMBER.contains(
@@ -138,6 +143,16 @@ class RedundantBoxingInterpreter extends BoxingInterpreter {
         markValueAsDirty(value);
     }
 
+    @Override
+    protected void onBoxedValuesComparison(
+            @NotNull AbstractInsnNode insn, @NotNull BoxedBasicValue first, @NotNull BoxedBasicValue second
+    ) {
+        // Both operands have to be unboxed to replace the call with a primitive comparison
+        values.merge(first, second);
+        addAssociatedInsn(first, insn);
+        addAssociatedInsn(second, insn);
+    }
+
     @Override
     protected void onMergeFail(@NotNull BoxedBasicValue v) {
         markValueAsDirty(v);
@@ -20,7 +20,9 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.Collections2;
 import com.intellij.openapi.util.Pair;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.codegen.intrinsics.IntrinsicMethods;
 import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer;
+import org.jetbrains.org.objectweb.asm.Label;
 import org.jetbrains.org.objectweb.asm.Opcodes;
 import org.jetbrains.org.objectweb.asm.Type;
 import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
@@ -229,12 +231,18 @@ public class RedundantBoxingMethodTransformer extends MethodTransformer {
             @NotNull MethodNode node,
             @NotNull RedundantBoxedValuesCollection values
     ) {
+        // a comparison is associated with both of its operands, but should be replaced only once
+        Set<AbstractInsnNode> adaptedComparisons = new HashSet<AbstractInsnNode>();
         for (BoxedBasicValue value : values) {
-            adaptInstructionsForBoxedValue(node, value);
+            adaptInstructionsForBoxedValue(node, value, adaptedComparisons);
         }
     }
 
-    private static void adaptInstructionsForBoxedValue(@NotNull MethodNode node, @NotNull BoxedBasicValue value) {
+    private static void adaptInstructionsForBoxedValue(
+            @NotNull MethodNode node,
+            @NotNull BoxedBasicValue value,
+            @NotNull Set<AbstractInsnNode> adaptedComparisons
+    ) {
         adaptBoxingInstruction(node, value);
 
         for (Pair<AbstractInsnNode, Type> cast : value.getUnboxingWithCastInsns()) {
@@ -242,8 +250,57 @@ public class RedundantBoxingMethodTransformer extends MethodTransformer {
         }
 
         for (AbstractInsnNode insn : value.getAssociatedInsns()) {
-            adaptInstruction(node, insn, value);
+            if (BoxingInterpreter.isCompareToCall(insn) || BoxingInterpreter.isAreEqualCall(insn)) {
+                if (adaptedComparisons.add(insn)) {
+                    adaptComparisonInstruction(node, (MethodInsnNode) insn, value);
+                }
+            }
+            else {
+                adaptInstruction(node, insn, value);
+            }
+        }
+    }
+
+    private static void adaptComparisonInstruction(
+            @NotNull MethodNode node,
+            @NotNull MethodInsnNode insn,
+            @NotNull BoxedBasicValue value
+    ) {
+        MethodNode comparisonInsnsListener = new MethodNode(Opcodes.ASM5);
+        InstructionAdapter iv = new InstructionAdapter(comparisonInsnsListener);
+
+        // Same results as compareTo and equals of the wrapper classes, in particular for NaN and -0.0
+        Type type = value.getPrimitiveType();
+        switch (type.getSort()) {
+            case Type.LONG:
+                iv.lcmp();
+                break;
+            case Type.FLOAT:
+                iv.invokestatic("java/lang/Float", "compare", "(FF)I", false);
+                break;
+            case Type.DOUBLE:
+                iv.invokestatic("java/lang/Double", "compare", "(DD)I", false);
+                break;
+            default:
+                iv.invokestatic(IntrinsicMethods.INTRINSICS_CLASS_NAME, "compare", "(II)I", false);
         }
+
+        if (BoxingInterpreter.isAreEqualCall(insn)) {
+            Label notEqual = new Label();
+            Label end = new Label();
+            iv.ifne(notEqual);
+            iv.iconst(1);
+            iv.goTo(end);
+            iv.mark(notEqual);
+            iv.iconst(0);
+            iv.mark(end);
+        }
+
+        for (AbstractInsnNode comparisonInsn : comparisonInsnsListener.instructions.toArray()) {
+            node.instructions.insertBefore(insn, comparisonInsn);
+        }
+
+        node.instructions.remove(insn);
     }
 
     private static void adaptBoxingInstruction(@NotNull MethodNode node, @NotNull BoxedBasicValue value) {
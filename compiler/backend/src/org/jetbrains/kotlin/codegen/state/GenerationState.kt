@@ -22,10 +22,12 @@ import com.intellij.psi.PsiElement
 import org.jetbrains.kotlin.builtins.ReflectionTypes
 import org.jetbrains.kotlin.codegen.*
 import org.jetbrains.kotlin.codegen.`when`.MappingsClassesForWhenByEnum
+import org.jetbrains.kotlin.codegen.`when`.MappingsClassesForWhenBySealedClass
 import org.jetbrains.kotlin.codegen.binding.CodegenBinding
 import org.jetbrains.kotlin.codegen.context.CodegenContext
 import org.jetbrains.kotlin.codegen.context.RootContext
 import org.jetbrains.kotlin.codegen.extensions.ClassBuilderInterceptorExtension
+import org.jetbrains.kotlin.codegen.inline.InlineMethodNodeCache
 import org.jetbrains.kotlin.codegen.intrinsics.IntrinsicMethods
 import org.jetbrains.kotlin.codegen.optimization.OptimizationClassBuilderFactory
 import org.jetbrains.kotlin.descriptors.ModuleDescriptor
@@ -42,6 +44,12 @@ import org.jetbrains.kotlin.resolve.BindingContext
 import org.jetbrains.kotlin.resolve.BindingTrace
 import org.jetbrains.kotlin.resolve.DelegatingBindingTrace
 import org.jetbrains.kotlin.resolve.diagnostics.Diagnostics
+import org.jetbrains.kotlin.storage.LockBasedLazyResolveStorageManager
+import org.jetbrains.kotlin.storage.LockBasedStorageManager
+import org.jetbrains.kotlin.storage.StorageManager
+import org.jetbrains.kotlin.util.PhaseMetrics
+import org.jetbrains.kotlin.util.slicedMap.SlicedMapImpl
+import org.jetbrains.kotlin.util.slicedMap.SynchronizedSlicedMap
 import java.io.File
 
 class GenerationState @JvmOverloads constructor(
@@ -67,7 +75,20 @@ class GenerationState @JvmOverloads constructor(
         val outDirectory: File? = null,
         val incrementalCompilationComponents: IncrementalCompilationComponents? = null,
         val generateOpenMultifileClasses: Boolean = false,
-        val progress: Progress = Progress.DEAF
+        val progress: Progress = Progress.DEAF,
+        // number of threads generating package parts and multifile classes, see KotlinCodegenFacade
+        val codegenThreads: Int = 1,
+        // see FusedCollectionChainCodegen
+        fuseCollectionChains: Boolean = false,
+        // see JetTypeMapper.isPrivateCompanionMemberWithDirectAccess
+        directCompanionAccess: Boolean = false,
+        // see InvokeDynamicLambdaCodegen
+        invokedynamicLambdas: Boolean = false,
+        // see SealedClassSwitchCodegen
+        sealedClassSwitch: Boolean = false,
+        // called for each file once its classes are generated, see KotlinCodegenFacade
+        val releaseFileBindings: ((KtFile) -> Unit)? = null,
+        val phaseMetrics: PhaseMetrics = PhaseMetrics.DISABLED
 ) {
     abstract class GenerateClassFilter {
         abstract fun shouldAnnotateClass(processingClassOrObject: KtClassOrObject): Boolean
@@ -95,7 +116,14 @@ class GenerationState @JvmOverloads constructor(
                 incrementalCompilationComponents.getIncrementalCache(targetId)
             else null
 
-    val extraJvmDiagnosticsTrace: BindingTrace = DelegatingBindingTrace(bindingContext, false, "For extra diagnostics in ${this.javaClass}")
+    // Incremental caches are not thread-safe, so parallel generation is only used for non-incremental compilation
+    val isParallelCodegenEnabled: Boolean = codegenThreads > 1 && incrementalCompilationComponents == null
+        @JvmName("isParallelCodegenEnabled") get
+
+    private val parallelCodegenLock: StorageManager? = if (isParallelCodegenEnabled) LockBasedStorageManager() else null
+
+    val extraJvmDiagnosticsTrace: BindingTrace =
+            DelegatingBindingTrace(bindingContext, false, "For extra diagnostics in ${this.javaClass}").guardedForParallelCodegen()
     private val interceptedBuilderFactory: ClassBuilderFactory
     private var used = false
 
@@ -107,16 +135,23 @@ class GenerationState @JvmOverloads constructor(
 
     val moduleName: String = moduleName ?: JvmCodegenUtil.getModuleName(module)
     val classBuilderMode: ClassBuilderMode = builderFactory.classBuilderMode
-    val bindingTrace: BindingTrace = DelegatingBindingTrace(bindingContext, "trace in GenerationState")
+    // The analysis results are not modified during code generation, so only the data recorded by codegen itself is synchronized
+    val bindingTrace: BindingTrace =
+            if (isParallelCodegenEnabled)
+                DelegatingBindingTrace(bindingContext, true, "trace in GenerationState", SynchronizedSlicedMap(SlicedMapImpl.create()))
+            else
+                DelegatingBindingTrace(bindingContext, "trace in GenerationState")
     val bindingContext: BindingContext = bindingTrace.bindingContext
     val typeMapper: JetTypeMapper = JetTypeMapper(
             this.bindingContext, classBuilderMode, fileClassesProvider, getIncrementalCacheForThisTarget(),
-            IncompatibleClassTrackerImpl(extraJvmDiagnosticsTrace), this.moduleName
+            IncompatibleClassTrackerImpl(extraJvmDiagnosticsTrace), this.moduleName, directCompanionAccess
     )
     val intrinsics: IntrinsicMethods = IntrinsicMethods()
     val samWrapperClasses: SamWrapperClasses = SamWrapperClasses(this)
     val inlineCycleReporter: InlineCycleReporter = InlineCycleReporter(diagnostics)
+    val inlineMethodNodeCache: InlineMethodNodeCache = InlineMethodNodeCache()
     val mappingsClassesForWhenByEnum: MappingsClassesForWhenByEnum = MappingsClassesForWhenByEnum(this)
+    val mappingsClassesForWhenBySealedClass: MappingsClassesForWhenBySealedClass = MappingsClassesForWhenBySealedClass(this)
     val reflectionTypes: ReflectionTypes = ReflectionTypes(module)
     val jvmRuntimeTypes: JvmRuntimeTypes = JvmRuntimeTypes()
     val factory: ClassFileFactory
@@ -141,11 +176,23 @@ class GenerationState @JvmOverloads constructor(
     val isInlineEnabled: Boolean = !disableInline
         @JvmName("isInlineEnabled") get
 
+    val isCollectionChainFusionEnabled: Boolean = fuseCollectionChains && !disableInline
+        @JvmName("isCollectionChainFusionEnabled") get
+
+    val isDirectCompanionAccessEnabled: Boolean = directCompanionAccess
+        @JvmName("isDirectCompanionAccessEnabled") get
+
+    val isInvokeDynamicLambdasEnabled: Boolean = invokedynamicLambdas
+        @JvmName("isInvokeDynamicLambdasEnabled") get
+
+    val isSealedClassSwitchEnabled: Boolean = sealedClassSwitch
+        @JvmName("isSealedClassSwitchEnabled") get
+
 
     val rootContext: CodegenContext<*> = RootContext(this)
 
     init {
-        val optimizationClassBuilderFactory = OptimizationClassBuilderFactory(builderFactory, disableOptimization)
+        val optimizationClassBuilderFactory = OptimizationClassBuilderFactory(builderFactory, disableOptimization, phaseMetrics)
         duplicateSignatureFactory = BuilderFactoryForDuplicateSignatureDiagnostics(
                 optimizationClassBuilderFactory, this.bindingContext, diagnostics, fileClassesProvider,
                 getIncrementalCacheForThisTarget(),
@@ -164,6 +211,9 @@ class GenerationState @JvmOverloads constructor(
         this.factory = ClassFileFactory(this, interceptedBuilderFactory)
     }
 
+    private fun BindingTrace.guardedForParallelCodegen(): BindingTrace =
+            if (parallelCodegenLock != null) LockBasedLazyResolveStorageManager(parallelCodegenLock).createSafeTrace(this) else this
+
     fun beforeCompile() {
         markUsed()
 
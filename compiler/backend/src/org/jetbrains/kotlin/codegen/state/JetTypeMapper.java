@@ -35,6 +35,7 @@ import org.jetbrains.kotlin.descriptors.*;
 import org.jetbrains.kotlin.fileClasses.FileClasses;
 import org.jetbrains.kotlin.fileClasses.JvmFileClassUtil;
 import org.jetbrains.kotlin.fileClasses.JvmFileClassesProvider;
+import org.jetbrains.kotlin.incremental.components.NoLookupLocation;
 import org.jetbrains.kotlin.load.java.BuiltinMethodsWithSpecialGenericSignature;
 import org.jetbrains.kotlin.load.java.BuiltinMethodsWithSpecialGenericSignature.SpecialSignatureInfo;
 import org.jetbrains.kotlin.load.java.JvmAbi;
@@ -99,6 +100,7 @@ public class JetTypeMapper {
     private final IncrementalCache incrementalCache;
     private final IncompatibleClassTracker incompatibleClassTracker;
     private final String moduleName;
+    private final boolean directCompanionAccess;
 
     public JetTypeMapper(
             @NotNull BindingContext bindingContext,
@@ -107,6 +109,18 @@ public class JetTypeMapper {
             @Nullable IncrementalCache incrementalCache,
             @NotNull IncompatibleClassTracker incompatibleClassTracker,
             @NotNull String moduleName
+    ) {
+        this(bindingContext, classBuilderMode, fileClassesProvider, incrementalCache, incompatibleClassTracker, moduleName, false);
+    }
+
+    public JetTypeMapper(
+            @NotNull BindingContext bindingContext,
+            @NotNull ClassBuilderMode classBuilderMode,
+            @NotNull JvmFileClassesProvider fileClassesProvider,
+            @Nullable IncrementalCache incrementalCache,
+            @NotNull IncompatibleClassTracker incompatibleClassTracker,
+            @NotNull String moduleName,
+            boolean directCompanionAccess
     ) {
         this.bindingContext = bindingContext;
         this.classBuilderMode = classBuilderMode;
@@ -114,6 +128,7 @@ public class JetTypeMapper {
         this.incrementalCache = incrementalCache;
         this.incompatibleClassTracker = incompatibleClassTracker;
         this.moduleName = moduleName;
+        this.directCompanionAccess = directCompanionAccess;
     }
 
     @NotNull
@@ -791,7 +806,8 @@ public class JetTypeMapper {
                     invokeOpcode = INVOKEINTERFACE;
                 }
                 else {
-                    boolean isPrivateFunInvocation = Visibilities.isPrivate(functionDescriptor.getVisibility());
+                    boolean isPrivateFunInvocation = Visibilities.isPrivate(functionDescriptor.getVisibility()) &&
+                                                     !isPrivateCompanionMemberWithDirectAccess(functionDescriptor);
                     invokeOpcode = superCall || isPrivateFunInvocation ? INVOKESPECIAL : INVOKEVIRTUAL;
                 }
 
@@ -847,6 +863,39 @@ public class JetTypeMapper {
                 thisClass, receiverParameterType, calleeType);
     }
 
+    /**
+     * With -Xdirect-companion-access, private functions and property accessors of companion objects are generated package-private
+     * and synthetic instead of private. The containing class and its lambdas then call them directly, without the access$ methods.
+     * Companion objects are final, so such a method can't be overridden itself, but it could override a package-private method
+     * of a Java superclass of the companion, so members which have a non-private namesake in a superclass keep their accessors.
+     */
+    public boolean isPrivateCompanionMemberWithDirectAccess(@NotNull CallableMemberDescriptor descriptor) {
+        if (!directCompanionAccess || !(descriptor instanceof FunctionDescriptor) || descriptor instanceof ConstructorDescriptor) {
+            return false;
+        }
+
+        FunctionDescriptor function = (FunctionDescriptor) descriptor.getOriginal();
+        return Visibilities.isPrivate(function.getVisibility()) &&
+               function.getKind() == CallableMemberDescriptor.Kind.DECLARATION &&
+               !function.isInline() &&
+               !isAccessor(function) &&
+               isCompanionObject(function.getContainingDeclaration()) &&
+               !hasNonPrivateMethodWithSameNameInSuperClass(function, (ClassDescriptor) function.getContainingDeclaration());
+    }
+
+    private boolean hasNonPrivateMethodWithSameNameInSuperClass(@NotNull FunctionDescriptor function, @NotNull ClassDescriptor companion) {
+        ClassDescriptor superClass = DescriptorUtilsKt.getSuperClassNotAny(companion);
+        if (superClass == null) return false;
+
+        // Names of Java methods are their JVM names. Members with the same name but another signature are also skipped, to be safe.
+        // The member scope also contains the methods inherited by the superclass
+        Name jvmName = Name.identifier(mapFunctionName(function));
+        for (FunctionDescriptor candidate : superClass.getUnsubstitutedMemberScope().getContributedFunctions(jvmName, NoLookupLocation.FROM_BACKEND)) {
+            if (!Visibilities.isPrivate(candidate.getVisibility())) return true;
+        }
+        return false;
+    }
+
     public static boolean isAccessor(@NotNull CallableMemberDescriptor descriptor) {
         return descriptor instanceof AccessorForCallableDescriptor<?>;
     }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.when;
+
+import com.intellij.util.ArrayUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.codegen.ClassBuilder;
+import org.jetbrains.kotlin.codegen.WriteAnnotationUtilKt;
+import org.jetbrains.kotlin.codegen.binding.CodegenBinding;
+import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.state.JetTypeMapper;
+import org.jetbrains.kotlin.descriptors.ClassDescriptor;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.psi.KtWhenExpression;
+import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
+import org.jetbrains.org.objectweb.asm.MethodVisitor;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.jetbrains.kotlin.codegen.AsmUtil.writeKotlinSyntheticClassAnnotation;
+import static org.jetbrains.kotlin.resolve.jvm.AsmTypes.OBJECT_TYPE;
+import static org.jetbrains.org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates the classes with mappings for `when` by sealed classes, see {@link SealedClassSwitchCodegen}.
+ *
+ * Mapping arrays are indexed by the subclass ordinal plus one, so that subclasses without an ordinal (-1) map to the default branch.
+ */
+public class MappingsClassesForWhenBySealedClass {
+    public static final String MAPPINGS_FIELD_DESCRIPTOR = Type.getDescriptor(int[].class);
+
+    private final GenerationState state;
+    private final Set<String> generatedMappingClasses = new HashSet<String>();
+
+    public MappingsClassesForWhenBySealedClass(@NotNull GenerationState state) {
+        this.state = state;
+    }
+
+    public synchronized void generateMappingsClassForExpression(@NotNull KtWhenExpression expression) {
+        WhenBySealedClassMapping mapping = state.getBindingContext().get(CodegenBinding.MAPPING_FOR_WHEN_BY_SEALED_CLASS, expression);
+
+        assert mapping != null : "mapping class should not be requested for when not by sealed class";
+
+        if (!generatedMappingClasses.contains(mapping.getMappingsClassInternalName())) {
+            List<WhenBySealedClassMapping> mappings = state.getBindingContext().get(
+                    CodegenBinding.MAPPINGS_FOR_WHENS_BY_SEALED_CLASS_IN_CLASS_FILE,
+                    mapping.getOuterClassInternalNameForExpression()
+            );
+
+            assert mappings != null : "guaranteed by usage contract of SealedClassSwitchCodegen";
+
+            generate(mappings, Type.getObjectType(mapping.getMappingsClassInternalName()), expression.getContainingKtFile());
+            generatedMappingClasses.add(mapping.getMappingsClassInternalName());
+        }
+    }
+
+    private void generate(@NotNull List<WhenBySealedClassMapping> mappings, @NotNull Type mappingsClass, @NotNull KtFile srcFile) {
+        ClassBuilder cb = state.getFactory().newVisitor(JvmDeclarationOrigin.NO_ORIGIN, mappingsClass, srcFile);
+        cb.defineClass(
+                srcFile,
+                V1_6,
+                ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC,
+                mappingsClass.getInternalName(),
+                null,
+                OBJECT_TYPE.getInternalName(),
+                ArrayUtil.EMPTY_STRING_ARRAY
+        );
+
+        for (WhenBySealedClassMapping mapping : mappings) {
+            cb.newField(
+                    JvmDeclarationOrigin.NO_ORIGIN,
+                    ACC_STATIC | ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC,
+                    mapping.getFieldName(),
+                    MAPPINGS_FIELD_DESCRIPTOR,
+                    null, null
+            );
+        }
+
+        MethodVisitor mv = cb.newMethod(
+                JvmDeclarationOrigin.NO_ORIGIN,
+                ACC_STATIC | ACC_SYNTHETIC, "<clinit>", "()V", null, ArrayUtil.EMPTY_STRING_ARRAY
+        );
+        mv.visitCode();
+        InstructionAdapter v = new InstructionAdapter(mv);
+        for (WhenBySealedClassMapping mapping : mappings) {
+            generateInitializationForMapping(cb, v, mapping);
+        }
+        v.areturn(Type.VOID_TYPE);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+
+        writeKotlinSyntheticClassAnnotation(cb, state);
+
+        WriteAnnotationUtilKt.writeSyntheticClassMetadata(cb);
+
+        cb.done();
+    }
+
+    private void generateInitializationForMapping(
+            @NotNull ClassBuilder cb,
+            @NotNull InstructionAdapter v,
+            @NotNull WhenBySealedClassMapping mapping
+    ) {
+        JetTypeMapper typeMapper = state.getTypeMapper();
+        ClassDescriptor sealedClass = mapping.getSealedClassDescriptor();
+        String ordinalMethodName = SealedClassSwitchCodegen.getSubclassOrdinalMethodName(sealedClass, typeMapper);
+
+        v.invokestatic(
+                typeMapper.mapClass(sealedClass).getInternalName(),
+                SealedClassSwitchCodegen.getSubclassCountMethodName(sealedClass, typeMapper), "()I", false
+        );
+        v.iconst(1);
+        v.add(Type.INT_TYPE);
+        v.newarray(Type.INT_TYPE);
+        v.putstatic(cb.getThisName(), mapping.getFieldName(), MAPPINGS_FIELD_DESCRIPTOR);
+
+        for (Map.Entry<ClassDescriptor, Integer> item : mapping.subclassesToIntMapping()) {
+            v.getstatic(cb.getThisName(), mapping.getFieldName(), MAPPINGS_FIELD_DESCRIPTOR);
+            v.invokestatic(typeMapper.mapClass(item.getKey()).getInternalName(), ordinalMethodName, "()I", false);
+            v.iconst(1);
+            v.add(Type.INT_TYPE);
+            v.iconst(item.getValue());
+            v.astore(Type.INT_TYPE);
+        }
+    }
+}
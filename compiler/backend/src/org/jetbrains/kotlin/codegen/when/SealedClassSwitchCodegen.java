@@ -0,0 +1,264 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.when;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.ExpressionCodegen;
+import org.jetbrains.kotlin.codegen.binding.CodegenBinding;
+import org.jetbrains.kotlin.codegen.state.JetTypeMapper;
+import org.jetbrains.kotlin.descriptors.ClassDescriptor;
+import org.jetbrains.kotlin.descriptors.DeclarationDescriptor;
+import org.jetbrains.kotlin.descriptors.Modality;
+import org.jetbrains.kotlin.psi.*;
+import org.jetbrains.kotlin.resolve.BindingContext;
+import org.jetbrains.kotlin.resolve.DescriptorToSourceUtils;
+import org.jetbrains.kotlin.resolve.DescriptorUtils;
+import org.jetbrains.kotlin.resolve.constants.ConstantValue;
+import org.jetbrains.kotlin.resolve.constants.NullValue;
+import org.jetbrains.kotlin.types.KotlinType;
+import org.jetbrains.kotlin.types.TypeUtils;
+import org.jetbrains.org.objectweb.asm.Label;
+import org.jetbrains.org.objectweb.asm.Type;
+
+import java.util.*;
+
+/**
+ * Generates `when` by subclasses of a sealed class as a switch on the subclass ordinal, if enabled by
+ * {@link org.jetbrains.kotlin.codegen.state.GenerationState#isSealedClassSwitchEnabled()}.
+ *
+ * Every sealed class compiled in this mode gets a synthetic method (see {@link #getOrdinalMethodName}) returning -1, and every
+ * subclass which directly extends it overrides this method returning its index among all subclasses of the sealed class.
+ * Classes further down the hierarchy inherit the ordinal of their direct subclass of the sealed class, so `is` checks for
+ * direct subclasses are equivalent to comparisons of the ordinal.
+ *
+ * The ordinals change when subclasses are added or removed, so they are never compiled into the `when`. As for `when` by enums,
+ * the switch goes through a mapping array (see {@link WhenBySealedClassMapping}) filled when the mappings class is initialized
+ * from the static synthetic methods returning the ordinal of each subclass ({@link #getSubclassOrdinalMethodName})
+ * and the number of subclasses ({@link #getSubclassCountMethodName}).
+ *
+ * Sealed classes from other modules may be compiled without the ordinal methods, so `when` by them is generated as instanceof checks.
+ */
+public class SealedClassSwitchCodegen extends SwitchCodegen {
+    // For fewer cases a chain of instanceof checks is not slower than the virtual call
+    private static final int MIN_SUBCLASS_CASES = 3;
+
+    private static final String ORDINAL_METHOD_PREFIX = "$sealedOrdinal$";
+    private static final String SUBCLASS_ORDINAL_METHOD_PREFIX = "$sealedSubclassOrdinal$";
+    private static final String SUBCLASS_COUNT_METHOD_PREFIX = "$sealedSubclassCount$";
+
+    private final WhenBySealedClassMapping mapping;
+
+    private SealedClassSwitchCodegen(
+            @NotNull KtWhenExpression expression,
+            boolean isStatement,
+            boolean isExhaustive,
+            @NotNull ExpressionCodegen codegen,
+            @NotNull WhenBySealedClassMapping mapping
+    ) {
+        super(expression, isStatement, isExhaustive, codegen);
+        this.mapping = mapping;
+    }
+
+    @Nullable
+    public static SealedClassSwitchCodegen createIfApplicable(
+            @NotNull KtWhenExpression expression,
+            boolean isStatement,
+            boolean isExhaustive,
+            @NotNull ExpressionCodegen codegen
+    ) {
+        WhenBySealedClassMapping mapping = codegen.getBindingContext().get(CodegenBinding.MAPPING_FOR_WHEN_BY_SEALED_CLASS, expression);
+        if (mapping == null) return null;
+
+        return new SealedClassSwitchCodegen(expression, isStatement, isExhaustive, codegen, mapping);
+    }
+
+    /**
+     * @return the sealed class if the `when` can be generated as a switch by its subclasses
+     */
+    @Nullable
+    public static ClassDescriptor getSealedClassIfApplicable(@NotNull KtWhenExpression expression, @NotNull BindingContext bindingContext) {
+        KtExpression subject = expression.getSubjectExpression();
+        if (subject == null) return null;
+
+        KotlinType subjectType = bindingContext.getType(subject);
+        if (subjectType == null) return null;
+
+        ClassDescriptor sealedClass = TypeUtils.getClassDescriptor(subjectType);
+        if (sealedClass == null || sealedClass.getModality() != Modality.SEALED) return null;
+        if (DescriptorToSourceUtils.descriptorToDeclaration(sealedClass) == null) return null;
+
+        List<ClassDescriptor> subclasses = getSealedSubclasses(sealedClass);
+        Set<ClassDescriptor> checkedSubclasses = new HashSet<ClassDescriptor>();
+
+        for (KtWhenEntry entry : expression.getEntries()) {
+            for (KtWhenCondition condition : entry.getConditions()) {
+                if (condition instanceof KtWhenConditionIsPattern) {
+                    ClassDescriptor checkedClass = getCheckedSubclass((KtWhenConditionIsPattern) condition, bindingContext);
+                    if (checkedClass == null || !subclasses.contains(checkedClass)) return null;
+                    checkedSubclasses.add(checkedClass);
+                }
+                else if (!isNullCondition(condition, bindingContext)) {
+                    return null;
+                }
+            }
+        }
+
+        if (checkedSubclasses.size() < MIN_SUBCLASS_CASES) return null;
+
+        return sealedClass;
+    }
+
+    /**
+     * @return the subclasses checked in a `when` for which {@link #getSealedClassIfApplicable} is not null, in the order of the checks
+     */
+    @NotNull
+    public static List<ClassDescriptor> getCheckedSubclasses(@NotNull KtWhenExpression expression, @NotNull BindingContext bindingContext) {
+        List<ClassDescriptor> result = new ArrayList<ClassDescriptor>();
+        for (KtWhenEntry entry : expression.getEntries()) {
+            for (KtWhenCondition condition : entry.getConditions()) {
+                if (!(condition instanceof KtWhenConditionIsPattern)) continue;
+
+                ClassDescriptor checkedClass = getCheckedSubclass((KtWhenConditionIsPattern) condition, bindingContext);
+                assert checkedClass != null : "guaranteed by getSealedClassIfApplicable";
+                result.add(checkedClass);
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private static ClassDescriptor getCheckedSubclass(@NotNull KtWhenConditionIsPattern condition, @NotNull BindingContext bindingContext) {
+        if (condition.isNegated() || condition.getTypeReference() == null) return null;
+
+        KotlinType type = bindingContext.get(BindingContext.TYPE, condition.getTypeReference());
+        if (type == null || TypeUtils.isNullableType(type)) return null;
+
+        return TypeUtils.getClassDescriptor(type);
+    }
+
+    private static boolean isNullCondition(@NotNull KtWhenCondition condition, @NotNull BindingContext bindingContext) {
+        if (!(condition instanceof KtWhenConditionWithExpression)) return false;
+
+        KtExpression patternExpression = ((KtWhenConditionWithExpression) condition).getExpression();
+        return patternExpression != null &&
+               ExpressionCodegen.getCompileTimeConstant(patternExpression, bindingContext) instanceof NullValue;
+    }
+
+    /**
+     * @return the subclasses which directly extend the given sealed class, in the order of their ordinals
+     */
+    @NotNull
+    public static List<ClassDescriptor> getSealedSubclasses(@NotNull ClassDescriptor sealedClass) {
+        List<ClassDescriptor> result = new ArrayList<ClassDescriptor>();
+        collectNestedSubclasses(sealedClass, sealedClass, result);
+
+        Collections.sort(result, new Comparator<ClassDescriptor>() {
+            @Override
+            public int compare(ClassDescriptor o1, ClassDescriptor o2) {
+                return DescriptorUtils.getFqName(o1).asString().compareTo(DescriptorUtils.getFqName(o2).asString());
+            }
+        });
+        return result;
+    }
+
+    private static void collectNestedSubclasses(
+            @NotNull ClassDescriptor sealedClass,
+            @NotNull ClassDescriptor currentClass,
+            @NotNull List<ClassDescriptor> result
+    ) {
+        for (DeclarationDescriptor descriptor : DescriptorUtils.getAllDescriptors(currentClass.getUnsubstitutedInnerClassesScope())) {
+            if (descriptor instanceof ClassDescriptor) {
+                ClassDescriptor classDescriptor = (ClassDescriptor) descriptor;
+                if (DescriptorUtils.isDirectSubclass(classDescriptor, sealedClass)) {
+                    result.add(classDescriptor);
+                }
+                collectNestedSubclasses(sealedClass, classDescriptor, result);
+            }
+        }
+    }
+
+    /**
+     * Name of the instance method returning the ordinal of the direct subclass of the sealed class which the receiver extends
+     */
+    @NotNull
+    public static String getOrdinalMethodName(@NotNull ClassDescriptor sealedClass, @NotNull JetTypeMapper typeMapper) {
+        return ORDINAL_METHOD_PREFIX + getSimpleInternalName(sealedClass, typeMapper);
+    }
+
+    /**
+     * Name of the static method of a direct subclass returning its ordinal
+     */
+    @NotNull
+    public static String getSubclassOrdinalMethodName(@NotNull ClassDescriptor sealedClass, @NotNull JetTypeMapper typeMapper) {
+        return SUBCLASS_ORDINAL_METHOD_PREFIX + getSimpleInternalName(sealedClass, typeMapper);
+    }
+
+    /**
+     * Name of the static method of a sealed class returning the number of its direct subclasses
+     */
+    @NotNull
+    public static String getSubclassCountMethodName(@NotNull ClassDescriptor sealedClass, @NotNull JetTypeMapper typeMapper) {
+        return SUBCLASS_COUNT_METHOD_PREFIX + getSimpleInternalName(sealedClass, typeMapper);
+    }
+
+    @NotNull
+    private static String getSimpleInternalName(@NotNull ClassDescriptor sealedClass, @NotNull JetTypeMapper typeMapper) {
+        String internalName = typeMapper.mapClass(sealedClass).getInternalName();
+        return internalName.substring(internalName.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    protected void generateSubject() {
+        codegen.getState().getMappingsClassesForWhenBySealedClass().generateMappingsClassForExpression(expression);
+
+        super.generateSubject();
+        generateNullCheckIfNeeded();
+
+        v.getstatic(
+                mapping.getMappingsClassInternalName(),
+                mapping.getFieldName(),
+                MappingsClassesForWhenBySealedClass.MAPPINGS_FIELD_DESCRIPTOR
+        );
+
+        v.swap();
+
+        JetTypeMapper typeMapper = codegen.getState().getTypeMapper();
+        ClassDescriptor sealedClass = mapping.getSealedClassDescriptor();
+        Type sealedType = typeMapper.mapClass(sealedClass);
+        v.invokevirtual(sealedType.getInternalName(), getOrdinalMethodName(sealedClass, typeMapper), "()I", false);
+        v.iconst(1);
+        v.add(Type.INT_TYPE);
+        v.aload(Type.INT_TYPE);
+    }
+
+    @Override
+    protected void processEntry(@NotNull KtWhenEntry entry, @NotNull Label entryLabel) {
+        for (KtWhenCondition condition : entry.getConditions()) {
+            if (!(condition instanceof KtWhenConditionIsPattern)) continue;
+
+            ClassDescriptor checkedClass = getCheckedSubclass((KtWhenConditionIsPattern) condition, bindingContext);
+            assert checkedClass != null : "guaranteed by getSealedClassIfApplicable";
+            putTransitionOnce(mapping.getIndexBySubclass(checkedClass), entryLabel);
+        }
+    }
+
+    @Override
+    protected void processConstant(@NotNull ConstantValue<?> constant, @NotNull Label entryLabel) {
+        throw new IllegalStateException("When by sealed class subclasses has no constant conditions except null: " + constant);
+    }
+}
@@ -106,6 +106,13 @@ public class SwitchCodegenUtil {
             @NotNull ExpressionCodegen codegen
     ) {
         BindingContext bindingContext = codegen.getBindingContext();
+
+        SealedClassSwitchCodegen sealedClassSwitch =
+                SealedClassSwitchCodegen.createIfApplicable(expression, isStatement, isExhaustive, codegen);
+        if (sealedClassSwitch != null) {
+            return sealedClassSwitch;
+        }
+
         if (!isThereConstantEntriesButNulls(expression, bindingContext)) {
             return null;
         }
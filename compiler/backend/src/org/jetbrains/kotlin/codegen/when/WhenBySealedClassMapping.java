@@ -0,0 +1,91 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.when;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.descriptors.ClassDescriptor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maps subclasses checked in a `when` by a sealed class to the indices of its switch. The ordinals of the subclasses
+ * are read at run time, when the mappings class is initialized, so the `when` doesn't depend on the ordinals of the subclasses
+ * at the time it was compiled.
+ */
+public class WhenBySealedClassMapping {
+    private static final String MAPPING_ARRAY_FIELD_PREFIX = "$SealedSwitchMapping$";
+    private static final String MAPPINGS_CLASS_NAME_POSTFIX = "$WhenSealedMappings";
+
+    private final Map<ClassDescriptor, Integer> map = new LinkedHashMap<ClassDescriptor, Integer>();
+    private final ClassDescriptor sealedClassDescriptor;
+    private final String outerClassInternalNameForExpression;
+    private final String mappingsClassInternalName;
+    private final int fieldNumber;
+
+    public WhenBySealedClassMapping(
+            @NotNull ClassDescriptor sealedClassDescriptor,
+            @NotNull String outerClassInternalNameForExpression,
+            int fieldNumber
+    ) {
+        this.sealedClassDescriptor = sealedClassDescriptor;
+        this.outerClassInternalNameForExpression = outerClassInternalNameForExpression;
+        this.mappingsClassInternalName = outerClassInternalNameForExpression + MAPPINGS_CLASS_NAME_POSTFIX;
+        this.fieldNumber = fieldNumber;
+    }
+
+    public int getIndexBySubclass(@NotNull ClassDescriptor subclass) {
+        Integer result = map.get(subclass);
+        assert result != null : "subclass " + subclass + " has no mapping";
+        return result;
+    }
+
+    public void putFirstTime(@NotNull ClassDescriptor subclass, int index) {
+        if (!map.containsKey(subclass)) {
+            map.put(subclass, index);
+        }
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    @NotNull
+    public String getFieldName() {
+        return MAPPING_ARRAY_FIELD_PREFIX + fieldNumber;
+    }
+
+    @NotNull
+    public ClassDescriptor getSealedClassDescriptor() {
+        return sealedClassDescriptor;
+    }
+
+    @NotNull
+    public String getOuterClassInternalNameForExpression() {
+        return outerClassInternalNameForExpression;
+    }
+
+    @NotNull
+    public String getMappingsClassInternalName() {
+        return mappingsClassInternalName;
+    }
+
+    @NotNull
+    public Iterable<Map.Entry<ClassDescriptor, Integer>> subclassesToIntMapping() {
+        return map.entrySet();
+    }
+}
@@ -64,6 +64,10 @@ public class K2JVMCompilerArguments extends CommonCompilerArguments {
     @Argument(value = "Xreport-perf", description = "Report detailed performance statistics")
     public boolean reportPerf;
 
+    @Argument(value = "Xreport-perf-json", description = "Write per-phase performance metrics to the given file in JSON format")
+    @ValueDescription("<path>")
+    public String reportPerfJson;
+
     @Argument(value = "Xmultifile-facades-open", description = "Compile multifile facade classes as open")
     public boolean multifileFacadesOpen;
 
@@ -73,6 +77,41 @@ public class K2JVMCompilerArguments extends CommonCompilerArguments {
     @Argument(value = "Xskip-metadata-version-check", description = "Try loading binary incompatible classes, may cause crashes")
     public boolean skipMetadataVersionCheck;
 
+    @Argument(value = "Xcodegen-threads", description = "Generate bytecode for different packages in parallel using the given number of threads")
+    @ValueDescription("<count>")
+    public String codegenThreads;
+
+    @Argument(value = "Xbody-resolve-threads", description = "Resolve bodies of functions in parallel using the given number of threads")
+    @ValueDescription("<count>")
+    public String bodyResolveThreads;
+
+    @Argument(value = "Xcache-subtype-checks", description = "Cache results of subtype checks while bodies of functions are resolved")
+    public boolean cacheSubtypeChecks;
+
+    @Argument(value = "Xintern-types", description = "Share a single instance between equal class types created during analysis")
+    public boolean internTypes;
+
+    @Argument(value = "Xfail-fast-inference", description = "Stop type inference for an inapplicable call candidate at the first contradiction")
+    public boolean failFastInference;
+
+    @Argument(value = "Xfuse-collection-chains", description = "Compile chains of inline collection operations like filter/map/sumBy to a single loop")
+    public boolean fuseCollectionChains;
+
+    @Argument(value = "Xdirect-companion-access", description = "Call private members of companion objects without synthetic accessors")
+    public boolean directCompanionAccess;
+
+    @Argument(value = "Xinvokedynamic-lambdas", description = "Generate capture-less lambdas with invokedynamic (requires Java 8)")
+    public boolean invokedynamicLambdas;
+
+    @Argument(value = "Xsealed-class-switch", description = "Generate when by subclasses of a sealed class as a switch on the subclass ordinal")
+    public boolean sealedClassSwitch;
+
+    @Argument(value = "Xrelease-bindings", description = "Release resolution results of function bodies once their code is generated")
+    public boolean releaseBindings;
+
+    @Argument(value = "Xpartitioned-binding-context", description = "Keep resolution results of each kind in a separate map to save memory")
+    public boolean partitionedBindingContext;
+
     // Paths to output directories for friend modules.
     public String[] friendPaths;
 
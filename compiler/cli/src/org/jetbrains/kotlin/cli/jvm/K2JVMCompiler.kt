@@ -39,10 +39,12 @@ import org.jetbrains.kotlin.load.kotlin.JvmMetadataVersion
 import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompilationComponents
 import org.jetbrains.kotlin.script.StandardScriptDefinition
 import org.jetbrains.kotlin.util.PerformanceCounter
+import org.jetbrains.kotlin.util.PhaseMetrics
 import org.jetbrains.kotlin.utils.KotlinPaths
 import org.jetbrains.kotlin.utils.KotlinPathsFromHomeDir
 import org.jetbrains.kotlin.utils.PathUtil
 import java.io.File
+import java.io.IOException
 import java.lang.management.ManagementFactory
 import java.util.concurrent.TimeUnit
 
@@ -61,6 +63,12 @@ open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
         val configuration = CompilerConfiguration()
         configuration.put(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, messageSeverityCollector)
 
+        // metrics belong to this compilation only, so that concurrent compilations in the daemon don't mix them
+        val phaseMetrics = if (arguments.reportPerfJson != null) PhaseMetrics() else null
+        if (phaseMetrics != null) {
+            configuration.put(CommonConfigurationKeys.PHASE_METRICS, phaseMetrics)
+        }
+
         if (IncrementalCompilation.isEnabled()) {
             val incrementalCompilationComponents = services.get(IncrementalCompilationComponents::class.java)
             configuration.put(JVMConfigurationKeys.INCREMENTAL_COMPILATION_COMPONENTS, incrementalCompilationComponents)
@@ -133,7 +141,7 @@ open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
             JvmMetadataVersion.skipCheck = true
         }
 
-        putAdvancedOptions(configuration, arguments)
+        if (!putAdvancedOptions(configuration, arguments, messageSeverityCollector)) return COMPILATION_ERROR
 
         messageSeverityCollector.report(CompilerMessageSeverity.LOGGING, "Configuring the compilation environment", CompilerMessageLocation.NO_LOCATION)
         try {
@@ -202,6 +210,9 @@ open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
                 reportCompilationTime(environment.configuration)
                 PerformanceCounter.report { s -> reportPerf(environment.configuration, s) }
             }
+            if (phaseMetrics != null) {
+                writePhaseMetrics(phaseMetrics, File(arguments.reportPerfJson), messageSeverityCollector)
+            }
             return OK
         }
         catch (e: CompilationException) {
@@ -211,6 +222,16 @@ open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
 
     }
 
+    private fun writePhaseMetrics(phaseMetrics: PhaseMetrics, file: File, messageCollector: MessageCollector) {
+        try {
+            file.writeText(phaseMetrics.toJson())
+        }
+        catch (e: IOException) {
+            messageCollector.report(CompilerMessageSeverity.WARNING, "Could not write performance metrics to $file: ${e.message}",
+                                    CompilerMessageLocation.NO_LOCATION)
+        }
+    }
+
     private fun createCoreEnvironment(rootDisposable: Disposable, configuration: CompilerConfiguration): KotlinCoreEnvironment {
         val result = KotlinCoreEnvironment.createForProduction(rootDisposable, configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES)
 
@@ -274,13 +295,50 @@ open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
             elapsedJITTime = currentTime
         }
 
-        private fun putAdvancedOptions(configuration: CompilerConfiguration, arguments: K2JVMCompilerArguments) {
+        private fun putAdvancedOptions(
+                configuration: CompilerConfiguration,
+                arguments: K2JVMCompilerArguments,
+                messageCollector: MessageCollector
+        ): Boolean {
             configuration.put(JVMConfigurationKeys.DISABLE_CALL_ASSERTIONS, arguments.noCallAssertions)
             configuration.put(JVMConfigurationKeys.DISABLE_PARAM_ASSERTIONS, arguments.noParamAssertions)
             configuration.put(JVMConfigurationKeys.DISABLE_INLINE, arguments.noInline)
             configuration.put(JVMConfigurationKeys.DISABLE_OPTIMIZATION, arguments.noOptimize)
             configuration.put(JVMConfigurationKeys.MULTIFILE_FACADES_OPEN, arguments.multifileFacadesOpen);
             configuration.put(CLIConfigurationKeys.ALLOW_KOTLIN_PACKAGE, arguments.allowKotlinPackage);
+            configuration.put(JVMConfigurationKeys.FUSE_COLLECTION_CHAINS, arguments.fuseCollectionChains)
+            configuration.put(JVMConfigurationKeys.DIRECT_COMPANION_ACCESS, arguments.directCompanionAccess)
+            configuration.put(JVMConfigurationKeys.INVOKEDYNAMIC_LAMBDAS, arguments.invokedynamicLambdas)
+            configuration.put(JVMConfigurationKeys.SEALED_CLASS_SWITCH, arguments.sealedClassSwitch)
+            configuration.put(JVMConfigurationKeys.RELEASE_BINDINGS, arguments.releaseBindings)
+            configuration.put(CommonConfigurationKeys.CACHE_SUBTYPE_CHECKS, arguments.cacheSubtypeChecks)
+            configuration.put(CommonConfigurationKeys.INTERN_TYPES, arguments.internTypes)
+            configuration.put(CommonConfigurationKeys.FAIL_FAST_INFERENCE, arguments.failFastInference)
+            configuration.put(JVMConfigurationKeys.PARTITIONED_BINDING_CONTEXT, arguments.partitionedBindingContext)
+            if (arguments.codegenThreads != null) {
+                val threads = parseThreadCount(arguments.codegenThreads, "Xcodegen-threads", messageCollector) ?: return false
+                configuration.put(JVMConfigurationKeys.CODEGEN_THREADS, threads)
+            }
+            if (arguments.bodyResolveThreads != null) {
+                val threads = parseThreadCount(arguments.bodyResolveThreads, "Xbody-resolve-threads", messageCollector) ?: return false
+                configuration.put(CommonConfigurationKeys.BODY_RESOLVE_THREADS, threads)
+            }
+            return true
+        }
+
+        private fun parseThreadCount(value: String, option: String, messageCollector: MessageCollector): Int? {
+            val threads = try {
+                value.toInt()
+            }
+            catch (e: NumberFormatException) {
+                null
+            }
+            if (threads == null || threads < 1) {
+                messageCollector.report(CompilerMessageSeverity.ERROR, "Invalid value of -$option: '$value', a positive number is expected",
+                                        CompilerMessageLocation.NO_LOCATION)
+                return null
+            }
+            return threads
         }
 
         private fun getClasspath(paths: KotlinPaths, arguments: K2JVMCompilerArguments): List<File> {
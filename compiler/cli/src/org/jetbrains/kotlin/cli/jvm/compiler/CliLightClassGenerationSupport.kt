@@ -169,7 +169,7 @@ class CliLightClassGenerationSupport(project: Project) : LightClassGenerationSup
         return NoScopeRecordCliBindingTrace()
     }
 
-    class NoScopeRecordCliBindingTrace : CliBindingTrace() {
+    class NoScopeRecordCliBindingTrace @JvmOverloads constructor(partitionSlices: Boolean = false) : CliBindingTrace(partitionSlices) {
         override fun <K, V> record(slice: WritableSlice<K, V>, key: K, value: V) {
             if (slice === BindingContext.LEXICAL_SCOPE) {
                 // In the compiler there's no need to keep scopes
@@ -183,7 +183,7 @@ class CliLightClassGenerationSupport(project: Project) : LightClassGenerationSup
         }
     }
 
-    open class CliBindingTrace @TestOnly constructor() : BindingTraceContext() {
+    open class CliBindingTrace @TestOnly @JvmOverloads constructor(partitionSlices: Boolean = false) : BindingTraceContext(partitionSlices) {
         private var kotlinCodeAnalyzer: KotlinCodeAnalyzer? = null
 
         override fun toString(): String {
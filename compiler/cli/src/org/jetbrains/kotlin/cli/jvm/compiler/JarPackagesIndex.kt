@@ -0,0 +1,87 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.cli.jvm.compiler
+
+import com.intellij.openapi.vfs.StandardFileSystems
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.containers.ContainerUtil
+import com.intellij.util.io.URLUtil
+import org.jetbrains.kotlin.util.PerformanceCounter
+import java.io.File
+import java.io.IOException
+import java.util.*
+import java.util.zip.ZipFile
+
+// Set of packages (as '/'-separated paths, "" for the default package) contained in a jar.
+// Read once per jar contents from the names of the jar entries, without creating virtual files, and shared by all compilations
+// in this process, so that JvmDependenciesIndex can tell whether a jar contains a package without walking its directory tree
+internal class JarPackagesIndex private constructor(private val packages: Set<String>) {
+    operator fun contains(packagePath: String): Boolean = packagePath in packages
+
+    private data class JarKey(val path: String, val lastModified: Long, val length: Long)
+
+    companion object {
+        private val perfCounter = PerformanceCounter.create("Read packages of a jar")
+
+        private val cache = ContainerUtil.createConcurrentSoftValueMap<JarKey, JarPackagesIndex>()
+
+        // returns null for roots that are not jars
+        fun forRoot(root: VirtualFile): JarPackagesIndex? {
+            if (root.fileSystem.protocol != StandardFileSystems.JAR_PROTOCOL) return null
+            // the set describes the whole jar, not a directory inside it
+            if (root.path.substringAfter(URLUtil.JAR_SEPARATOR, "").isNotEmpty()) return null
+
+            val jarFile = File(root.path.substringBefore(URLUtil.JAR_SEPARATOR))
+            if (!jarFile.isFile) return null
+
+            val key = JarKey(jarFile.absolutePath, jarFile.lastModified(), jarFile.length())
+            cache[key]?.let { return it }
+
+            val packages = perfCounter.time { collectPackages(jarFile) } ?: return null
+            val index = JarPackagesIndex(packages)
+            return cache.putIfAbsent(key, index) ?: index
+        }
+
+        // Only the central directory of the jar is read. Jars do not always have entries for directories,
+        // so every parent path of an entry is a package
+        private fun collectPackages(jarFile: File): Set<String>? {
+            val result = HashSet<String>()
+            result.add("")
+
+            val zip = try {
+                ZipFile(jarFile)
+            }
+            catch (e: IOException) {
+                return null
+            }
+            try {
+                for (entry in Collections.list(zip.entries())) {
+                    val name = entry.name.removeSuffix("/")
+                    var path = if (entry.isDirectory) name else name.substringBeforeLast('/', "")
+                    while (path.isNotEmpty() && result.add(path)) {
+                        path = path.substringBeforeLast('/', "")
+                    }
+                }
+            }
+            finally {
+                zip.close()
+            }
+            return result
+        }
+    }
+}
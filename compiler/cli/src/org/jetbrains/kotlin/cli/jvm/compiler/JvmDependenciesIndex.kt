@@ -39,7 +39,8 @@ data class JavaRoot(val file: VirtualFile, val type: JavaRoot.RootType, val pref
 // speeds up finding files/classes in classpath/java source roots
 // NOT THREADSAFE, needs to be adapted/removed if we want compiler to be multithreaded
 // the main idea of this class is for each package to store roots which contains it to avoid excessive file system traversal
-class JvmDependenciesIndex(_roots: List<JavaRoot>) {
+// jar roots are consulted through JarPackagesIndex which knows all packages of a jar, so their directory trees are not walked
+class JvmDependenciesIndex(_roots: List<JavaRoot>, private val useJarPackagesIndex: Boolean = true) {
 
     //these fields are computed based on _roots passed to constructor which are filled in later
     private val roots: List<JavaRoot> by lazy { _roots.toList() }
@@ -47,6 +48,9 @@ class JvmDependenciesIndex(_roots: List<JavaRoot>) {
     private val maxIndex: Int
         get() = roots.size
 
+    private val jarPackagesIndices: Array<JarPackagesIndex?> by lazy { arrayOfNulls<JarPackagesIndex>(maxIndex) }
+    private val jarPackagesIndicesComputed: BooleanArray by lazy { BooleanArray(maxIndex) }
+
     // each "Cache" object corresponds to a package
     private class Cache {
         private val innerPackageCaches = HashMap<String, Cache>()
@@ -171,6 +175,8 @@ class JvmDependenciesIndex(_roots: List<JavaRoot>) {
         val packagesPath = request.packageFqName.pathSegments().map { it.identifier }
         // a list of caches corresponding to packages, [default, "org", "org.jb", "org.jb.kotlin"]
         val caches = cachesPath(packagesPath)
+        // a list of relative package paths, ["org", "org/jb", "org/jb/kotlin"]
+        val packageRelativePaths = relativePaths(packagesPath)
 
         var processedRootsUpTo = -1
         // traverse caches starting from last, which contains most specific information
@@ -184,7 +190,7 @@ class JvmDependenciesIndex(_roots: List<JavaRoot>) {
                 val rootIndex = cache.rootIndices[i]
                 if (rootIndex <= processedRootsUpTo) continue // roots with those indices have been processed by now
 
-                val directoryInRoot = travelPath(rootIndex, packagesPath, reverseCacheIndex, caches) ?: continue
+                val directoryInRoot = travelPath(rootIndex, packagesPath, packageRelativePaths, reverseCacheIndex, caches) ?: continue
                 val root = roots[rootIndex]
                 val result = handle(root, directoryInRoot)
                 if (result != null) {
@@ -199,7 +205,13 @@ class JvmDependenciesIndex(_roots: List<JavaRoot>) {
 
     // try to find a target directory corresponding to package represented by packagesPath in a given root reprenting by index
     // possibly filling "Cache" objects with new information
-    private fun travelPath(rootIndex: Int, packagesPath: List<String>, fillCachesAfter: Int, cachesPath: List<Cache>): VirtualFile? {
+    private fun travelPath(
+            rootIndex: Int,
+            packagesPath: List<String>,
+            packageRelativePaths: List<String>,
+            fillCachesAfter: Int,
+            cachesPath: List<Cache>
+    ): VirtualFile? {
         if (rootIndex >= maxIndex) {
             for (i in (fillCachesAfter + 1)..(cachesPath.size - 1)) {
                 // we all know roots that contain this package by now
@@ -212,6 +224,19 @@ class JvmDependenciesIndex(_roots: List<JavaRoot>) {
         val pathRoot = roots[rootIndex]
         val prefixPathSegments = pathRoot.prefixFqName?.pathSegments()
 
+        val jarPackages = if (prefixPathSegments == null) getJarPackagesIndex(rootIndex) else null
+        if (jarPackages != null) {
+            for (pathIndex in packagesPath.indices) {
+                if (packageRelativePaths[pathIndex] !in jarPackages) return null
+
+                val correspondingCacheIndex = pathIndex + 1
+                if (correspondingCacheIndex > fillCachesAfter) {
+                    cachesPath[correspondingCacheIndex].rootIndices.add(rootIndex)
+                }
+            }
+            return if (packagesPath.isEmpty()) pathRoot.file else pathRoot.file.findFileByRelativePath(packageRelativePaths.last())
+        }
+
         var currentFile = pathRoot.file
 
         for (pathIndex in packagesPath.indices) {
@@ -236,6 +261,24 @@ class JvmDependenciesIndex(_roots: List<JavaRoot>) {
         return currentFile
     }
 
+    private fun getJarPackagesIndex(rootIndex: Int): JarPackagesIndex? {
+        if (!useJarPackagesIndex) return null
+
+        if (!jarPackagesIndicesComputed[rootIndex]) {
+            jarPackagesIndices[rootIndex] = JarPackagesIndex.forRoot(roots[rootIndex].file)
+            jarPackagesIndicesComputed[rootIndex] = true
+        }
+        return jarPackagesIndices[rootIndex]
+    }
+
+    private fun relativePaths(path: List<String>): List<String> {
+        val result = ArrayList<String>(path.size)
+        for (subPackageName in path) {
+            result.add(if (result.isEmpty()) subPackageName else result.last() + "/" + subPackageName)
+        }
+        return result
+    }
+
     private fun cachesPath(path: List<String>): List<Cache> {
         val caches = ArrayList<Cache>()
         caches.add(rootCache)
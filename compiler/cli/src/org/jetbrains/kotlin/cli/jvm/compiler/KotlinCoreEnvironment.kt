@@ -90,6 +90,7 @@ import org.jetbrains.kotlin.resolve.jvm.extensions.PackageFragmentProviderExtens
 import org.jetbrains.kotlin.resolve.lazy.declarations.CliDeclarationProviderFactoryService
 import org.jetbrains.kotlin.resolve.lazy.declarations.DeclarationProviderFactoryService
 import org.jetbrains.kotlin.script.KotlinScriptDefinitionProvider
+import org.jetbrains.kotlin.util.PhaseMetrics
 import org.jetbrains.kotlin.utils.PathUtil
 import java.io.File
 import java.util.*
@@ -130,10 +131,19 @@ class KotlinCoreEnvironment private constructor(
         val index = JvmDependenciesIndex(javaRoots)
         (fileManager as KotlinCliJavaFileManagerImpl).initIndex(index)
 
-        sourceFiles.addAll(CompileEnvironmentUtil.getKtFiles(project, getSourceRootsCheckingForDuplicates(), {
-            message ->
-            report(ERROR, message)
-        }))
+        val phaseMetrics = configuration.get(CommonConfigurationKeys.PHASE_METRICS, PhaseMetrics.DISABLED)
+        sourceFiles.addAll(phaseMetrics.measure(PhaseMetrics.PARSE) {
+            CompileEnvironmentUtil.getKtFiles(project, getSourceRootsCheckingForDuplicates(), {
+                message ->
+                report(ERROR, message)
+            })
+        })
+        if (phaseMetrics.isEnabled) {
+            // PSI trees are built lazily, force them here to attribute parsing time to the file
+            for (file in sourceFiles) {
+                phaseMetrics.measure(PhaseMetrics.PARSE, file.virtualFile?.path) { file.node }
+            }
+        }
         sourceFiles.sortedWith(object : Comparator<KtFile> {
             override fun compare(o1: KtFile, o2: KtFile): Int {
                 return o1.virtualFile.path.compareTo(o2.virtualFile.path, ignoreCase = true)
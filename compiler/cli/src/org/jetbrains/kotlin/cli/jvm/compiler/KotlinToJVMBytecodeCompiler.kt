@@ -28,7 +28,9 @@ import org.jetbrains.kotlin.cli.jvm.K2JVMCompiler
 import org.jetbrains.kotlin.cli.jvm.config.*
 import org.jetbrains.kotlin.codegen.*
 import org.jetbrains.kotlin.codegen.state.GenerationState
+import org.jetbrains.kotlin.config.CommonConfigurationKeys
 import org.jetbrains.kotlin.config.CompilerConfiguration
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings
 import org.jetbrains.kotlin.config.addKotlinSourceRoots
 import org.jetbrains.kotlin.fileClasses.JvmFileClassUtil
 import org.jetbrains.kotlin.idea.MainFunctionDetector
@@ -40,9 +42,12 @@ import org.jetbrains.kotlin.name.Name
 import org.jetbrains.kotlin.name.isSubpackageOf
 import org.jetbrains.kotlin.progress.ProgressIndicatorAndCompilationCanceledStatus
 import org.jetbrains.kotlin.psi.KtFile
+import org.jetbrains.kotlin.resolve.BindingTraceContext
+import org.jetbrains.kotlin.resolve.bindingContextUtil.releaseBodyBindings
 import org.jetbrains.kotlin.resolve.jvm.JvmClassName
 import org.jetbrains.kotlin.resolve.jvm.TopDownAnalyzerFacadeForJVM
 import org.jetbrains.kotlin.util.PerformanceCounter
+import org.jetbrains.kotlin.util.PhaseMetrics
 import org.jetbrains.kotlin.utils.KotlinPaths
 import org.jetbrains.kotlin.utils.PathUtil
 import java.io.File
@@ -72,12 +77,14 @@ object KotlinToJVMBytecodeCompiler {
             jarPath: File?,
             jarRuntime: Boolean,
             mainClass: FqName?) {
-        if (jarPath != null) {
-            CompileEnvironmentUtil.writeToJar(jarPath, jarRuntime, mainClass, outputFiles)
-        }
-        else {
-            val messageCollector = configuration.get(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, MessageCollector.NONE)
-            outputFiles.writeAll(outputDir ?: File("."), messageCollector)
+        configuration.get(CommonConfigurationKeys.PHASE_METRICS, PhaseMetrics.DISABLED).measure(PhaseMetrics.WRITE_OUTPUT) {
+            if (jarPath != null) {
+                CompileEnvironmentUtil.writeToJar(jarPath, jarRuntime, mainClass, outputFiles)
+            }
+            else {
+                val messageCollector = configuration.get(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, MessageCollector.NONE)
+                outputFiles.writeAll(outputDir ?: File("."), messageCollector)
+            }
         }
     }
 
@@ -104,7 +111,10 @@ object KotlinToJVMBytecodeCompiler {
         }
 
         val targetDescription = "in targets [" + chunk.joinToString { input -> input.getModuleName() + "-" + input.getModuleType() } + "]"
-        val result = analyze(environment, targetDescription) ?: return false
+        val sharedTrace = CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace(
+                environment.configuration.get(JVMConfigurationKeys.PARTITIONED_BINDING_CONTEXT, false)
+        )
+        val result = analyze(environment, targetDescription, sharedTrace) ?: return false
 
         ProgressIndicatorAndCompilationCanceledStatus.checkCanceled()
 
@@ -118,7 +128,7 @@ object KotlinToJVMBytecodeCompiler {
                     environment.project, getAbsolutePaths(directory, module)) { s -> throw IllegalStateException("Should have been checked before: " + s) }
             if (!checkKotlinPackageUsage(environment, ktFiles)) return false
             val moduleOutputDirectory = File(module.getOutputDirectory())
-            val generationState = generate(environment, result, ktFiles, module, moduleOutputDirectory,
+            val generationState = generate(environment, result, sharedTrace, ktFiles, module, moduleOutputDirectory,
                                            module.getModuleName())
             outputFiles.put(module, generationState.factory)
             generationStates.add(generationState);
@@ -266,16 +276,23 @@ object KotlinToJVMBytecodeCompiler {
     }
 
     fun analyzeAndGenerate(environment: KotlinCoreEnvironment): GenerationState? {
-        val result = analyze(environment, null) ?: return null
+        val sharedTrace = CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace(
+                environment.configuration.get(JVMConfigurationKeys.PARTITIONED_BINDING_CONTEXT, false)
+        )
+        val result = analyze(environment, null, sharedTrace) ?: return null
 
         if (!result.shouldGenerateCode) return null
 
         result.throwIfError()
 
-        return generate(environment, result, environment.getSourceFiles(), null, null, null)
+        return generate(environment, result, sharedTrace, environment.getSourceFiles(), null, null, null)
     }
 
-    private fun analyze(environment: KotlinCoreEnvironment, targetDescription: String?): AnalysisResult? {
+    private fun analyze(
+            environment: KotlinCoreEnvironment,
+            targetDescription: String?,
+            sharedTrace: CliLightClassGenerationSupport.CliBindingTrace
+    ): AnalysisResult? {
         val collector = environment.messageCollector()
 
         val analysisStart = PerformanceCounter.currentTime()
@@ -283,7 +300,6 @@ object KotlinToJVMBytecodeCompiler {
         analyzerWithCompilerReport.analyzeAndReport(
                 environment.getSourceFiles(), object : AnalyzerWithCompilerReport.Analyzer {
             override fun analyze(): AnalysisResult {
-                val sharedTrace = CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace()
                 val moduleContext = TopDownAnalyzerFacadeForJVM.createContextWithSealedModule(environment.project,
                                                                                               environment.getModuleName())
 
@@ -293,7 +309,8 @@ object KotlinToJVMBytecodeCompiler {
                         sharedTrace,
                         environment.configuration.get(JVMConfigurationKeys.MODULES),
                         environment.configuration.get(JVMConfigurationKeys.INCREMENTAL_COMPILATION_COMPONENTS),
-                        JvmPackagePartProvider(environment))
+                        JvmPackagePartProvider(environment),
+                        FrontendPerformanceSettings.fromConfiguration(environment.configuration))
             }
 
             override fun reportEnvironmentErrors() {
@@ -327,6 +344,7 @@ object KotlinToJVMBytecodeCompiler {
     private fun generate(
             environment: KotlinCoreEnvironment,
             result: AnalysisResult,
+            sharedTrace: BindingTraceContext,
             sourceFiles: List<KtFile>,
             module: Module?,
             outputDirectory: File?,
@@ -350,6 +368,11 @@ object KotlinToJVMBytecodeCompiler {
                 obsoleteMultifileClasses.add(JvmClassName.byInternalName(obsoleteFacadeInternalName).fqNameForClassNameWithoutDollars)
             }
         }
+        val releaseFileBindings: ((KtFile) -> Unit)? =
+                if (configuration.get(JVMConfigurationKeys.RELEASE_BINDINGS, false))
+                    ({ file: KtFile -> sharedTrace.releaseBodyBindings(file) })
+                else null
+
         val generationState = GenerationState(
                 environment.project,
                 ClassBuilderFactories.BINARIES,
@@ -368,7 +391,14 @@ object KotlinToJVMBytecodeCompiler {
                 moduleName,
                 outputDirectory,
                 incrementalCompilationComponents,
-                configuration.get(JVMConfigurationKeys.MULTIFILE_FACADES_OPEN, false))
+                configuration.get(JVMConfigurationKeys.MULTIFILE_FACADES_OPEN, false),
+                codegenThreads = configuration.get(JVMConfigurationKeys.CODEGEN_THREADS, 1),
+                fuseCollectionChains = configuration.get(JVMConfigurationKeys.FUSE_COLLECTION_CHAINS, false),
+                directCompanionAccess = configuration.get(JVMConfigurationKeys.DIRECT_COMPANION_ACCESS, false),
+                invokedynamicLambdas = configuration.get(JVMConfigurationKeys.INVOKEDYNAMIC_LAMBDAS, false),
+                sealedClassSwitch = configuration.get(JVMConfigurationKeys.SEALED_CLASS_SWITCH, false),
+                releaseFileBindings = releaseFileBindings,
+                phaseMetrics = configuration.get(CommonConfigurationKeys.PHASE_METRICS, PhaseMetrics.DISABLED))
         ProgressIndicatorAndCompilationCanceledStatus.checkCanceled()
 
         val generationStart = PerformanceCounter.currentTime()
@@ -37,6 +37,20 @@ public class JVMConfigurationKeys {
             CompilerConfigurationKey.create("disable optimization");
     public static final CompilerConfigurationKey<Boolean> MULTIFILE_FACADES_OPEN =
             CompilerConfigurationKey.create("compile multifile facade classes as open");
+    public static final CompilerConfigurationKey<Integer> CODEGEN_THREADS =
+            CompilerConfigurationKey.create("number of threads for parallel code generation");
+    public static final CompilerConfigurationKey<Boolean> FUSE_COLLECTION_CHAINS =
+            CompilerConfigurationKey.create("fuse chains of inline collection operations");
+    public static final CompilerConfigurationKey<Boolean> DIRECT_COMPANION_ACCESS =
+            CompilerConfigurationKey.create("access private members of companion objects without synthetic accessors");
+    public static final CompilerConfigurationKey<Boolean> INVOKEDYNAMIC_LAMBDAS =
+            CompilerConfigurationKey.create("generate capture-less lambdas with invokedynamic");
+    public static final CompilerConfigurationKey<Boolean> SEALED_CLASS_SWITCH =
+            CompilerConfigurationKey.create("generate when by sealed class subclasses as a switch");
+    public static final CompilerConfigurationKey<Boolean> RELEASE_BINDINGS =
+            CompilerConfigurationKey.create("release bindings of function bodies after code generation");
+    public static final CompilerConfigurationKey<Boolean> PARTITIONED_BINDING_CONTEXT =
+            CompilerConfigurationKey.create("keep bindings of each slice in a separate map");
 
     public static final CompilerConfigurationKey<IncrementalCompilationComponents> INCREMENTAL_COMPILATION_COMPONENTS =
             CompilerConfigurationKey.create("incremental cache provider");
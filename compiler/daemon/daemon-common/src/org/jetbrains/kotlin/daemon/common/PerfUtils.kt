@@ -75,6 +75,12 @@ inline fun ThreadMXBean.threadCpuTime() = if (isCurrentThreadCpuTimeSupported) c
 @Suppress("NOTHING_TO_INLINE")
 inline fun ThreadMXBean.threadUserTime() = if (isCurrentThreadCpuTimeSupported) currentThreadUserTime else 0L
 
+// bytes allocated by the current thread so far, unlike usedMemory it is not affected by other threads, e.g. parallel compilations
+fun ThreadMXBean.threadAllocatedBytes(): Long {
+    val bean = this as? com.sun.management.ThreadMXBean ?: return 0L
+    return if (bean.isThreadAllocatedMemorySupported && bean.isThreadAllocatedMemoryEnabled) bean.getThreadAllocatedBytes(Thread.currentThread().id) else 0L
+}
+
 @Suppress("NOTHING_TO_INLINE")
 inline fun usedMemory(withGC: Boolean): Long {
     if (withGC) {
@@ -130,6 +136,24 @@ inline fun<R> withMeasureWallAndThreadTimesAndMemory(perfCounters: PerfCounters,
         withMeasureWallAndThreadTimesAndMemory(perfCounters, withGC, ManagementFactory.getThreadMXBean(), body)
 
 
+// measures memory as the number of bytes allocated by the current thread
+inline fun<R> withMeasureWallAndThreadTimesAndAllocation(perfCounters: PerfCounters, threadMXBean: ThreadMXBean, body: () -> R): R {
+    val startAllocated = threadMXBean.threadAllocatedBytes()
+    val startTime = System.nanoTime()
+    val startThreadTime = threadMXBean.threadCpuTime()
+    val startThreadUserTime = threadMXBean.threadUserTime()
+
+    val res = body()
+
+    // TODO: add support for time wrapping
+    perfCounters.addMeasurement(time = System.nanoTime() - startTime,
+                                thread = threadMXBean.threadCpuTime() - startThreadTime,
+                                threadUser = threadMXBean.threadUserTime() - startThreadUserTime,
+                                memory = threadMXBean.threadAllocatedBytes() - startAllocated)
+    return res
+}
+
+
 class DummyProfiler : Profiler {
     override fun getCounters(): Map<Any?, PerfCounters> = mapOf(null to SimplePerfCounters())
     override fun getTotalCounters(): PerfCounters = SimplePerfCounters()
@@ -163,6 +187,11 @@ class WallAndThreadAndMemoryTotalProfiler(val withGC: Boolean) : TotalProfiler()
 }
 
 
+class WallAndThreadAndAllocationTotalProfiler : TotalProfiler() {
+    override final inline fun <R> withMeasure(obj: Any?, body: () -> R): R = withMeasureWallAndThreadTimesAndAllocation(total, threadMXBean, body)
+}
+
+
 class WallAndThreadByClassProfiler() : TotalProfiler() {
 
     val counters = hashMapOf<Any?, SimplePerfCountersWithTotal>()
@@ -24,15 +24,20 @@ import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
 import org.jetbrains.kotlin.config.Services
 import org.jetbrains.kotlin.daemon.common.*
 import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompilationComponents
+import org.jetbrains.kotlin.platform.JvmBuiltIns
 import org.jetbrains.kotlin.progress.CompilationCanceledStatus
+import org.jetbrains.kotlin.resolve.lazy.ForceResolveUtil
 import org.jetbrains.kotlin.utils.addToStdlib.check
 import java.io.BufferedOutputStream
 import java.io.File
 import java.io.PrintStream
+import java.lang.management.ManagementFactory
 import java.rmi.NoSuchObjectException
 import java.rmi.registry.Registry
 import java.rmi.server.UnicastRemoteObject
 import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Semaphore
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicInteger
@@ -116,6 +121,19 @@ class CompileServiceImpl(
 
     private val rwlock = ReentrantReadWriteLock()
 
+    // compilations run on RMI threads; the number of simultaneously running ones is bounded to avoid thrashing and OOMs
+    private val compilationSlots = Semaphore(daemonOptions.maxParallelCompilationsOrDefault, true)
+
+    // jar cache is shared by all compilations, so it is cleared only when none of them is running (see requestJarCacheClear);
+    // the lock is fair, so that new compilations are not admitted while a clear waits for the running ones
+    private val jarCacheLock = ReentrantReadWriteLock(true)
+    private val jarCacheClearPending = AtomicBoolean(false)
+
+    private val sessionsPerfCounters = ConcurrentHashMap<Int, PerfCounters>()
+
+    // cost of deserializing the built-ins, which is paid once per daemon instead of once per compilation
+    private val builtInsPreloadCounters = SimplePerfCounters()
+
     private var runFile: File
 
     init {
@@ -176,7 +194,8 @@ class CompileServiceImpl(
         synchronized(state.sessions) {
             state.sessions.remove(sessionId)
             log.info("cleaning after session $sessionId")
-            clearJarCache()
+            reportSessionPerf(sessionId)
+            requestJarCacheClear()
             if (state.sessions.isEmpty()) {
                 // TODO: and some goes here
             }
@@ -277,6 +296,9 @@ class CompileServiceImpl(
         timer.schedule(0) {
             initiateElections()
         }
+        timer.schedule(0) {
+            preloadBuiltIns()
+        }
         timer.schedule(delay = DAEMON_PERIODIC_CHECK_INTERVAL_MS, period = DAEMON_PERIODIC_CHECK_INTERVAL_MS) {
             try {
                 periodicAndAfterSessionCheck()
@@ -332,6 +354,26 @@ class CompileServiceImpl(
     }
 
 
+    // Built-ins are a process-wide singleton backed by a thread-safe storage manager; deserializing all of them in advance
+    // means that all compilations find them ready and share the same descriptors
+    private fun preloadBuiltIns() {
+        try {
+            withMeasureWallAndThreadTimesAndAllocation(builtInsPreloadCounters, ManagementFactory.getThreadMXBean()) {
+                for (packageFragment in JvmBuiltIns.Instance.builtinsPackageFragments) {
+                    ForceResolveUtil.forceResolveAllContents(packageFragment.getMemberScope())
+                }
+            }
+            // logged once here: a compilation started before the preload has finished pays part of this cost itself,
+            // so it can't be reported as saved by every compilation
+            log.info("built-ins preloaded in ${TimeUnit.NANOSECONDS.toMillis(builtInsPreloadCounters.time)} ms, " +
+                     "thread ${TimeUnit.NANOSECONDS.toMillis(builtInsPreloadCounters.threadTime)} ms, " +
+                     "allocated ${builtInsPreloadCounters.memory / 1024} kb")
+        }
+        catch (e: Exception) {
+            log.log(Level.SEVERE, "Exception while preloading built-ins", e)
+        }
+    }
+
     private fun initiateElections() {
 
         ifAlive_Nothing {
@@ -415,10 +457,12 @@ class CompileServiceImpl(
                 val compilerMessagesStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(compilerMessagesStreamProxy, rpcProfiler), 4096))
                 val serviceOutputStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(serviceOutputStreamProxy, rpcProfiler), 4096))
                 try {
-                    checkedCompile(args, serviceOutputStream, rpcProfiler) {
-                        val res = body(compilerMessagesStream, eventManger, rpcProfiler).code
-                        _lastUsedSeconds = nowSeconds()
-                        res
+                    withCompilationSlot {
+                        checkedCompile(sessionId, args, serviceOutputStream, rpcProfiler) {
+                            val res = body(compilerMessagesStream, eventManger, rpcProfiler).code
+                            _lastUsedSeconds = nowSeconds()
+                            res
+                        }
                     }
                 }
                 finally {
@@ -441,13 +485,26 @@ class CompileServiceImpl(
     }
 
 
-    private fun<R> checkedCompile(args: Array<out String>, serviceOut: PrintStream, rpcProfiler: Profiler, body: () -> R): R {
+    private inline fun<R> withCompilationSlot(body: () -> R): R {
+        compilationSlots.acquire()
+        try {
+            clearJarCacheIfPending(wait = true)
+            return jarCacheLock.read(body)
+        }
+        finally {
+            compilationSlots.release()
+            clearJarCacheIfPending(wait = false)
+        }
+    }
+
+    private fun<R> checkedCompile(sessionId: Int, args: Array<out String>, serviceOut: PrintStream, rpcProfiler: Profiler, body: () -> R): R {
         try {
             if (args.none())
                 throw IllegalArgumentException("Error: empty arguments list.")
             log.info("Starting compilation with args: " + args.joinToString(" "))
 
-            val profiler = if (daemonOptions.reportPerf) WallAndThreadAndMemoryTotalProfiler(withGC = false) else DummyProfiler()
+            // memory is measured as allocations of the compiling thread, since other sessions may be compiling at the same time
+            val profiler = if (daemonOptions.reportPerf) WallAndThreadAndAllocationTotalProfiler() else DummyProfiler()
 
             val res = profiler.withMeasure(null, body)
 
@@ -461,7 +518,14 @@ class CompileServiceImpl(
                 val pc = profiler.getTotalCounters()
                 val rpc = rpcProfiler.getTotalCounters()
 
-                "PERF: Compile on daemon: ${pc.time.ms()} ms; thread: user ${pc.threadUserTime.ms()} ms, sys ${(pc.threadTime - pc.threadUserTime).ms()} ms; rpc: ${rpc.count} calls, ${rpc.time.ms()} ms, thread ${rpc.threadTime.ms()} ms; memory: ${endMem.kb()} kb (${"%+d".format(pc.memory.kb())} kb)".let {
+                if (sessionId != CompileService.NO_SESSION) {
+                    val sessionCounters = sessionsPerfCounters[sessionId]
+                                          ?: sessionsPerfCounters.putIfAbsent(sessionId, SimplePerfCounters())
+                                          ?: sessionsPerfCounters[sessionId]!!
+                    sessionCounters.addMeasurement(pc.time, pc.threadTime, pc.threadUserTime, pc.memory)
+                }
+
+                "PERF: Compile on daemon: ${pc.time.ms()} ms; thread: user ${pc.threadUserTime.ms()} ms, sys ${(pc.threadTime - pc.threadUserTime).ms()} ms; rpc: ${rpc.count} calls, ${rpc.time.ms()} ms, thread ${rpc.threadTime.ms()} ms; memory: ${endMem.kb()} kb, allocated ${pc.memory.kb()} kb".let {
                     serviceOut.println(it)
                     log.info(it)
                 }
@@ -483,6 +547,37 @@ class CompileServiceImpl(
         }
     }
 
+    private fun reportSessionPerf(sessionId: Int) {
+        val counters = sessionsPerfCounters.remove(sessionId) ?: return
+        fun Long.ms() = TimeUnit.NANOSECONDS.toMillis(this)
+        log.info("PERF: Session $sessionId: ${counters.count} compilations, ${counters.time.ms()} ms, thread ${counters.threadTime.ms()} ms, allocated ${counters.memory / 1024} kb")
+    }
+
+    private fun requestJarCacheClear() {
+        jarCacheClearPending.set(true)
+        clearJarCacheIfPending(wait = false)
+    }
+
+    // if some compilations are running, either the last of them to finish or the next one to start clears the cache;
+    // the latter waits for the running ones, so a pending clear is not deferred forever by overlapping compilations
+    private fun clearJarCacheIfPending(wait: Boolean) {
+        if (!jarCacheClearPending.get()) return
+        if (wait) {
+            jarCacheLock.writeLock().lock()
+        }
+        else if (!jarCacheLock.writeLock().tryLock()) {
+            return
+        }
+        try {
+            if (jarCacheClearPending.compareAndSet(true, false)) {
+                clearJarCache()
+            }
+        }
+        finally {
+            jarCacheLock.writeLock().unlock()
+        }
+    }
+
     private fun clearJarCache() {
         ZipHandler.clearFileAccessorCache()
         val classloader = javaClass.classLoader
@@ -105,6 +105,8 @@ public class DefaultErrorMessagesJvm implements DefaultErrorMessages.Extension {
         MAP.put(ErrorsJvm.JVM_SYNTHETIC_ON_DELEGATE, "''@JvmSynthetic'' annotation cannot be used on delegated properties");
 
         MAP.put(ErrorsJvm.SUPER_CALL_WITH_DEFAULT_PARAMETERS, "Super-calls with default arguments are not allowed. Please specify all arguments of ''super.{0}'' explicitly", Renderers.TO_STRING);
+
+        MAP.put(ErrorsJvm.COLLECTION_OPERATIONS_FUSED, "Collection operations ''{0}'' are compiled to a single loop without intermediate collections", Renderers.TO_STRING);
     }
 
     @NotNull
@@ -31,6 +31,7 @@ import org.jetbrains.kotlin.types.KotlinType;
 
 import static org.jetbrains.kotlin.diagnostics.PositioningStrategies.*;
 import static org.jetbrains.kotlin.diagnostics.Severity.ERROR;
+import static org.jetbrains.kotlin.diagnostics.Severity.INFO;
 import static org.jetbrains.kotlin.diagnostics.Severity.WARNING;
 
 public interface ErrorsJvm {
@@ -106,6 +107,8 @@ public interface ErrorsJvm {
 
     DiagnosticFactory0<KtExpression> WHEN_ENUM_CAN_BE_NULL_IN_JAVA = DiagnosticFactory0.create(WARNING);
 
+    DiagnosticFactory1<KtExpression, String> COLLECTION_OPERATIONS_FUSED = DiagnosticFactory1.create(INFO);
+
     @SuppressWarnings("UnusedDeclaration")
     Object _initializer = new Object() {
         {
@@ -17,6 +17,7 @@
 package org.jetbrains.kotlin.config;
 
 import org.jetbrains.kotlin.script.KotlinScriptDefinition;
+import org.jetbrains.kotlin.util.PhaseMetrics;
 
 import java.util.List;
 
@@ -28,4 +29,19 @@ public class CommonConfigurationKeys {
     public static final CompilerConfigurationKey<List<ContentRoot>> CONTENT_ROOTS = CompilerConfigurationKey.create("content roots");
 
     public static final CompilerConfigurationKey<List<KotlinScriptDefinition>> SCRIPT_DEFINITIONS_KEY = CompilerConfigurationKey.create("script definitions");
+
+    public static final CompilerConfigurationKey<Integer> BODY_RESOLVE_THREADS =
+            CompilerConfigurationKey.create("number of threads for parallel resolve of function bodies");
+
+    public static final CompilerConfigurationKey<PhaseMetrics> PHASE_METRICS =
+            CompilerConfigurationKey.create("metrics of compiler phases collected for this compilation");
+
+    public static final CompilerConfigurationKey<Boolean> CACHE_SUBTYPE_CHECKS =
+            CompilerConfigurationKey.create("memoize results of subtype checks while bodies are resolved");
+
+    public static final CompilerConfigurationKey<Boolean> INTERN_TYPES =
+            CompilerConfigurationKey.create("canonicalize class types created during analysis");
+
+    public static final CompilerConfigurationKey<Boolean> FAIL_FAST_INFERENCE =
+            CompilerConfigurationKey.create("stop inference for a call candidate at the first contradiction");
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.config
+
+import org.jetbrains.kotlin.util.PhaseMetrics
+
+/**
+ * Options of the analysis that affect only its performance, the resulting binding context is the same for any of them.
+ */
+class FrontendPerformanceSettings @JvmOverloads constructor(
+        /**
+         * Number of threads used to resolve function bodies, values less than 2 mean sequential resolve.
+         */
+        val functionBodiesResolveParallelism: Int = 1,
+        /**
+         * Metrics of this compilation, collected only for the top-level (not local) analysis.
+         */
+        val phaseMetrics: PhaseMetrics = PhaseMetrics.DISABLED,
+        /**
+         * If set, results of the default type checker are memoized per thread while bodies are resolved, see SubtypeCache.
+         */
+        val cacheSubtypeChecks: Boolean = false,
+        /**
+         * If set, class types created during the analysis are canonicalized, see TypeInterner.
+         */
+        val internTypes: Boolean = false,
+        /**
+         * If set, inference for a call candidate stops processing constraints as soon as it finds a contradiction,
+         * see GenericCandidateResolver.
+         */
+        val failFastInference: Boolean = false
+) {
+    companion object {
+        @JvmField
+        val DEFAULT = FrontendPerformanceSettings()
+
+        @JvmStatic
+        fun fromConfiguration(configuration: CompilerConfiguration): FrontendPerformanceSettings =
+                FrontendPerformanceSettings(
+                        functionBodiesResolveParallelism = configuration.get(CommonConfigurationKeys.BODY_RESOLVE_THREADS, 1),
+                        phaseMetrics = configuration.get(CommonConfigurationKeys.PHASE_METRICS, PhaseMetrics.DISABLED),
+                        cacheSubtypeChecks = configuration.get(CommonConfigurationKeys.CACHE_SUBTYPE_CHECKS, false),
+                        internTypes = configuration.get(CommonConfigurationKeys.INTERN_TYPES, false),
+                        failFastInference = configuration.get(CommonConfigurationKeys.FAIL_FAST_INFERENCE, false)
+                )
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.jetbrains.kotlin.frontend.di
 
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings
 import org.jetbrains.kotlin.container.*
 import org.jetbrains.kotlin.context.LazyResolveToken
 import org.jetbrains.kotlin.context.ModuleContext
@@ -29,7 +30,8 @@ import org.jetbrains.kotlin.types.expressions.LocalClassDescriptorHolder
 import org.jetbrains.kotlin.types.expressions.LocalLazyDeclarationResolver
 
 fun StorageComponentContainer.configureModule(
-        moduleContext: ModuleContext, platform: TargetPlatform
+        moduleContext: ModuleContext, platform: TargetPlatform,
+        performanceSettings: FrontendPerformanceSettings = FrontendPerformanceSettings.DEFAULT
 ) {
     useInstance(moduleContext)
     useInstance(moduleContext.module)
@@ -39,6 +41,7 @@ fun StorageComponentContainer.configureModule(
     useInstance(moduleContext.platformToKotlinClassMap)
 
     useInstance(platform)
+    useInstance(performanceSettings)
 
     platform.platformConfigurator.configure(this)
 
@@ -54,9 +57,10 @@ private fun StorageComponentContainer.configurePlatformIndependentComponents() {
 }
 
 fun StorageComponentContainer.configureModule(
-        moduleContext: ModuleContext, platform: TargetPlatform, trace: BindingTrace
+        moduleContext: ModuleContext, platform: TargetPlatform, trace: BindingTrace,
+        performanceSettings: FrontendPerformanceSettings = FrontendPerformanceSettings.DEFAULT
 ) {
-    configureModule(moduleContext, platform)
+    configureModule(moduleContext, platform, performanceSettings)
     useInstance(trace)
 }
 
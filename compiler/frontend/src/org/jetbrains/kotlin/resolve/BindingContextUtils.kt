@@ -20,12 +20,14 @@ import com.intellij.psi.PsiElement
 import org.jetbrains.kotlin.descriptors.DeclarationDescriptor
 import org.jetbrains.kotlin.descriptors.FunctionDescriptor
 import org.jetbrains.kotlin.descriptors.impl.AnonymousFunctionDescriptor
+import org.jetbrains.kotlin.lexer.KtTokens
 import org.jetbrains.kotlin.psi.*
 import org.jetbrains.kotlin.psi.psiUtil.getNonStrictParentOfType
 import org.jetbrains.kotlin.psi.psiUtil.parentsWithSelf
 import org.jetbrains.kotlin.resolve.BindingContext
 import org.jetbrains.kotlin.resolve.BindingContext.*
 import org.jetbrains.kotlin.resolve.BindingTrace
+import org.jetbrains.kotlin.resolve.BindingTraceContext
 import org.jetbrains.kotlin.resolve.DescriptorToSourceUtils
 import org.jetbrains.kotlin.resolve.DescriptorUtils
 import org.jetbrains.kotlin.resolve.calls.context.ResolutionContext
@@ -94,4 +96,48 @@ fun KtExpression.isUnreachableCode(context: BindingContext): Boolean = context[B
 fun KtExpression.getReferenceTargets(context: BindingContext): Collection<DeclarationDescriptor> {
     val targetDescriptor = if (this is KtReferenceExpression) context[BindingContext.REFERENCE_TARGET, this] else null
     return targetDescriptor?.let { listOf(it) } ?: context[BindingContext.AMBIGUOUS_REFERENCE_TARGET, this].orEmpty()
-}
\ No newline at end of file
+}
+
+/**
+ * Removes the bindings of elements inside the bodies of the file's functions, property accessors and initializers.
+ * Those are only needed to generate code of the bodies themselves, so they can be released once the file's classes are generated.
+ * Bodies of inline functions are kept because they are compiled again at each call site. Bindings of local declarations
+ * and annotations are kept too: they are used to check diagnostic suppression when JVM diagnostics are reported after codegen.
+ */
+fun BindingTraceContext.releaseBodyBindings(file: KtFile) {
+    releaseBodyBindings(file.declarations)
+}
+
+private fun BindingTraceContext.releaseBodyBindings(declarations: List<KtDeclaration>) {
+    for (declaration in declarations) {
+        if (declaration.hasModifier(KtTokens.INLINE_KEYWORD)) continue
+
+        when (declaration) {
+            is KtClassOrObject -> releaseBodyBindings(declaration.declarations)
+            is KtDeclarationWithBody -> releaseElementBindings(declaration.bodyExpression)
+            is KtAnonymousInitializer -> releaseElementBindings(declaration.body)
+            is KtProperty -> {
+                for (accessor in declaration.accessors) {
+                    if (!accessor.hasModifier(KtTokens.INLINE_KEYWORD)) {
+                        releaseElementBindings(accessor.bodyExpression)
+                    }
+                }
+            }
+        }
+    }
+}
+
+private fun BindingTraceContext.releaseElementBindings(body: KtExpression?) {
+    body?.accept(object : KtTreeVisitorVoid() {
+        override fun visitKtElement(element: KtElement) {
+            super.visitKtElement(element)
+            if (element is KtDeclaration) return
+
+            get(CALL, element)?.let { removeBindings(it) }
+            removeBindings(element)
+        }
+
+        override fun visitAnnotationEntry(annotationEntry: KtAnnotationEntry) {
+        }
+    })
+}
@@ -78,8 +78,19 @@ public class BindingTraceContext implements BindingTrace {
     };
 
     public BindingTraceContext() {
+        this(false);
+    }
+
+    // partitionSlices: keep bindings of each slice in a separate map, see SlicePartitionedSlicedMap
+    public BindingTraceContext(boolean partitionSlices) {
+        this(createSlicedMap(partitionSlices));
+    }
+
+    @NotNull
+    /* package */ static MutableSlicedMap createSlicedMap(boolean partitionSlices) {
         //noinspection ConstantConditions
-        this(TRACK_REWRITES ? new TrackingSlicedMap(TRACK_WITH_STACK_TRACES) : SlicedMapImpl.create());
+        if (TRACK_REWRITES) return new TrackingSlicedMap(TRACK_WITH_STACK_TRACES);
+        return partitionSlices ? SlicePartitionedSlicedMap.create() : SlicedMapImpl.create();
     }
 
 
@@ -102,6 +113,10 @@ public class BindingTraceContext implements BindingTrace {
         mutableDiagnostics.clear();
     }
 
+    public void removeBindings(@NotNull Object key) {
+        map.remove(key);
+    }
+
     @NotNull
     @Override
     public BindingContext getBindingContext() {
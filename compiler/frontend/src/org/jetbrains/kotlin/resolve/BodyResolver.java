@@ -21,10 +21,12 @@ import com.google.common.collect.Sets;
 import com.intellij.psi.PsiElement;
 import com.intellij.util.containers.Queue;
 import kotlin.Unit;
+import kotlin.jvm.functions.Function0;
 import kotlin.jvm.functions.Function1;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.builtins.KotlinBuiltIns;
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings;
 import org.jetbrains.kotlin.descriptors.*;
 import org.jetbrains.kotlin.descriptors.impl.SyntheticFieldDescriptor;
 import org.jetbrains.kotlin.diagnostics.Errors;
@@ -40,22 +42,32 @@ import org.jetbrains.kotlin.resolve.calls.util.CallMaker;
 import org.jetbrains.kotlin.resolve.lazy.ForceResolveUtil;
 import org.jetbrains.kotlin.resolve.scopes.*;
 import org.jetbrains.kotlin.resolve.scopes.receivers.ReceiverValue;
+import org.jetbrains.kotlin.storage.LockBasedLazyResolveStorageManager;
+import org.jetbrains.kotlin.storage.StorageManager;
 import org.jetbrains.kotlin.types.*;
+import org.jetbrains.kotlin.types.checker.SubtypeCache;
 import org.jetbrains.kotlin.types.expressions.ExpressionTypingServices;
 import org.jetbrains.kotlin.types.expressions.PreliminaryDeclarationVisitor;
 import org.jetbrains.kotlin.types.expressions.ValueParameterResolver;
 import org.jetbrains.kotlin.types.expressions.typeInfoFactory.TypeInfoFactoryKt;
 import org.jetbrains.kotlin.util.Box;
+import org.jetbrains.kotlin.util.PerformanceCounter;
+import org.jetbrains.kotlin.util.PhaseMetrics;
 import org.jetbrains.kotlin.util.ReenteringLazyValueComputationException;
 import org.jetbrains.kotlin.util.slicedMap.WritableSlice;
+import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.jetbrains.kotlin.diagnostics.Errors.*;
 import static org.jetbrains.kotlin.resolve.BindingContext.*;
 import static org.jetbrains.kotlin.types.TypeUtils.NO_EXPECTED_TYPE;
 
 public class BodyResolver {
+    private static final PerformanceCounter subtypeCacheHits = PerformanceCounter.Companion.create("Subtype cache hits");
+    private static final PerformanceCounter subtypeCacheMisses = PerformanceCounter.Companion.create("Subtype cache misses");
+
     @NotNull private final AnnotationChecker annotationChecker;
     @NotNull private final ExpressionTypingServices expressionTypingServices;
     @NotNull private final CallResolver callResolver;
@@ -68,6 +80,8 @@ public class BodyResolver {
     @NotNull private final ValueParameterResolver valueParameterResolver;
     @NotNull private final BodyResolveCache bodyResolveCache;
     @NotNull private final KotlinBuiltIns builtIns;
+    @NotNull private final StorageManager storageManager;
+    @NotNull private final FrontendPerformanceSettings performanceSettings;
 
     public BodyResolver(
             @NotNull AnnotationResolver annotationResolver,
@@ -81,7 +95,9 @@ public class BodyResolver {
             @NotNull BindingTrace trace,
             @NotNull ValueParameterResolver valueParameterResolver,
             @NotNull AnnotationChecker annotationChecker,
-            @NotNull KotlinBuiltIns builtIns
+            @NotNull KotlinBuiltIns builtIns,
+            @NotNull StorageManager storageManager,
+            @NotNull FrontendPerformanceSettings performanceSettings
     ) {
         this.annotationResolver = annotationResolver;
         this.bodyResolveCache = bodyResolveCache;
@@ -95,6 +111,8 @@ public class BodyResolver {
         this.trace = new ObservableBindingTrace(trace);
         this.valueParameterResolver = valueParameterResolver;
         this.builtIns = builtIns;
+        this.storageManager = storageManager;
+        this.performanceSettings = performanceSettings;
     }
 
     private void resolveBehaviorDeclarationBodies(@NotNull BodiesResolveContext c) {
@@ -227,9 +245,48 @@ public class BodyResolver {
         return call == null || !call.getStatus().isSuccess() ? null : call.getResultingDescriptor().getOriginal();
     }
 
-    public void resolveBodies(@NotNull BodiesResolveContext c) {
-        resolveBehaviorDeclarationBodies(c);
-        controlFlowAnalyzer.process(c);
+    public void resolveBodies(@NotNull final BodiesResolveContext c) {
+        resolveWithSubtypeCache(new Function0<Unit>() {
+            @Override
+            public Unit invoke() {
+                doResolveBodies(c);
+                return Unit.INSTANCE;
+            }
+        });
+    }
+
+    private void resolveWithSubtypeCache(@NotNull Function0<Unit> resolve) {
+        if (!performanceSettings.getCacheSubtypeChecks()) {
+            resolve.invoke();
+            return;
+        }
+
+        SubtypeCache cache = new SubtypeCache();
+        SubtypeCache.withCache(cache, resolve);
+        subtypeCacheHits.increment((int) cache.getHits());
+        subtypeCacheMisses.increment((int) cache.getMisses());
+    }
+
+    private void doResolveBodies(@NotNull BodiesResolveContext c) {
+        // Local declarations are resolved as a part of the enclosing body, don't report them separately
+        boolean measure = !c.getTopDownAnalysisMode().isLocalDeclarations();
+        PhaseMetrics phaseMetrics = performanceSettings.getPhaseMetrics();
+
+        PhaseMetrics.Snapshot bodyResolve = measure ? phaseMetrics.start(PhaseMetrics.BODY_RESOLVE) : null;
+        try {
+            resolveBehaviorDeclarationBodies(c);
+        }
+        finally {
+            phaseMetrics.finish(bodyResolve);
+        }
+
+        PhaseMetrics.Snapshot controlFlowAnalysis = measure ? phaseMetrics.start(PhaseMetrics.CONTROL_FLOW_ANALYSIS) : null;
+        try {
+            controlFlowAnalyzer.process(c);
+        }
+        finally {
+            phaseMetrics.finish(controlFlowAnalysis);
+        }
         declarationsChecker.process(c);
         functionAnalyzerExtension.process(c);
     }
@@ -753,6 +810,13 @@ public class BodyResolver {
     }
 
     private void resolveFunctionBodies(@NotNull BodiesResolveContext c) {
+        int parallelism = Math.min(performanceSettings.getFunctionBodiesResolveParallelism(), c.getFunctions().size());
+        if (parallelism > 1 && !c.getTopDownAnalysisMode().isLocalDeclarations() &&
+            bodyResolveCache instanceof BodyResolveCache.ThrowException) {
+            resolveFunctionBodiesInParallel(c, parallelism);
+            return;
+        }
+
         for (Map.Entry<KtNamedFunction, SimpleFunctionDescriptor> entry : c.getFunctions().entrySet()) {
             KtNamedFunction declaration = entry.getKey();
 
@@ -769,6 +833,80 @@ public class BodyResolver {
         }
     }
 
+    /**
+     * Bodies are resolved into separate traces which are merged into the main one in declaration order.
+     * Lazy resolution which a body can trigger, e.g. inference of return types from other bodies, writes to the main trace directly,
+     * so it's forced in declaration order before the workers are started. This way the binding context and the order of diagnostics
+     * don't depend on scheduling of the workers.
+     */
+    private void resolveFunctionBodiesInParallel(@NotNull final BodiesResolveContext c, int parallelism) {
+        for (SimpleFunctionDescriptor descriptor : c.getFunctions().values()) {
+            ForceResolveUtil.forceResolveAllContents(descriptor);
+        }
+
+        // Lazy resolution performed by the workers writes to the main trace under the storage manager lock,
+        // so reads from the main trace have to go through the same lock
+        final BindingContext parentContext =
+                new LockBasedLazyResolveStorageManager(storageManager).createSafeTrace(trace).getBindingContext();
+        final TypeInterner typeInterner = TypeInterner.getCurrent();
+
+        List<Callable<DelegatingBindingTrace>> tasks = new ArrayList<Callable<DelegatingBindingTrace>>(c.getFunctions().size());
+        for (final Map.Entry<KtNamedFunction, SimpleFunctionDescriptor> entry : c.getFunctions().entrySet()) {
+            final KtNamedFunction declaration = entry.getKey();
+
+            final LexicalScope scope = c.getDeclaringScope(declaration);
+            assert scope != null : "Scope is null: " + PsiUtilsKt.getElementTextWithContext(declaration);
+
+            tasks.add(new Callable<DelegatingBindingTrace>() {
+                @Override
+                public DelegatingBindingTrace call() {
+                    final DelegatingBindingTrace functionTrace = new DelegatingBindingTrace(parentContext, false, "Body of " + entry.getValue());
+                    final Function0<Unit> resolve = new Function0<Unit>() {
+                        @Override
+                        public Unit invoke() {
+                            resolveFunctionBody(c.getOuterDataFlowInfo(), functionTrace, declaration, entry.getValue(), scope);
+                            return Unit.INSTANCE;
+                        }
+                    };
+                    // The cache is thread-local, so each worker needs its own one
+                    Function0<Unit> resolveWithCache = new Function0<Unit>() {
+                        @Override
+                        public Unit invoke() {
+                            resolveWithSubtypeCache(resolve);
+                            return Unit.INSTANCE;
+                        }
+                    };
+                    // The interner is thread-safe and shared with the workers, so that they create the same types as sequential resolve
+                    if (typeInterner != null) {
+                        TypeInterner.withInterner(typeInterner, resolveWithCache);
+                    }
+                    else {
+                        resolveWithCache.invoke();
+                    }
+                    return functionTrace;
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            // Futures are returned in the order of tasks, which keeps the merged trace independent of scheduling
+            for (Future<DelegatingBindingTrace> future : executor.invokeAll(tasks)) {
+                future.get().addOwnDataTo(trace, null, true);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while resolving function bodies", e);
+        }
+        catch (ExecutionException e) {
+            throw ExceptionUtilsKt.rethrow(e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     public void resolveFunctionBody(
             @NotNull DataFlowInfo outerDataFlowInfo,
             @NotNull BindingTrace trace,
@@ -19,6 +19,7 @@ package org.jetbrains.kotlin.resolve
 import com.google.common.collect.HashMultimap
 import com.google.common.collect.Multimap
 import com.intellij.psi.PsiElement
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings
 import org.jetbrains.kotlin.descriptors.*
 import org.jetbrains.kotlin.diagnostics.Errors.*
 import org.jetbrains.kotlin.incremental.KotlinLookupLocation
@@ -30,6 +31,8 @@ import org.jetbrains.kotlin.resolve.lazy.*
 import org.jetbrains.kotlin.resolve.lazy.descriptors.LazyClassDescriptor
 import org.jetbrains.kotlin.resolve.lazy.descriptors.LazyScriptDescriptor
 import org.jetbrains.kotlin.resolve.varianceChecker.VarianceChecker
+import org.jetbrains.kotlin.types.TypeInterner
+import org.jetbrains.kotlin.util.PhaseMetrics
 import java.util.*
 
 class LazyTopDownAnalyzer(
@@ -45,10 +48,21 @@ class LazyTopDownAnalyzer(
         private val fileScopeProvider: FileScopeProvider,
         private val declarationScopeProvider: DeclarationScopeProvider,
         private val qualifiedExpressionResolver: QualifiedExpressionResolver,
-        private val identifierChecker: IdentifierChecker
+        private val identifierChecker: IdentifierChecker,
+        private val performanceSettings: FrontendPerformanceSettings
 ) {
     fun analyzeDeclarations(topDownAnalysisMode: TopDownAnalysisMode, declarations: Collection<PsiElement>, outerDataFlowInfo: DataFlowInfo): TopDownAnalysisContext {
+        if (!performanceSettings.internTypes) return doAnalyzeDeclarations(topDownAnalysisMode, declarations, outerDataFlowInfo)
 
+        // Local declarations are analyzed with the interner of the enclosing analysis, which is already installed
+        return TypeInterner.withInterner(TypeInterner()) { doAnalyzeDeclarations(topDownAnalysisMode, declarations, outerDataFlowInfo) }
+    }
+
+    private fun doAnalyzeDeclarations(
+            topDownAnalysisMode: TopDownAnalysisMode,
+            declarations: Collection<PsiElement>,
+            outerDataFlowInfo: DataFlowInfo
+    ): TopDownAnalysisContext {
         val c = TopDownAnalysisContext(topDownAnalysisMode, outerDataFlowInfo, declarationScopeProvider)
 
         val topLevelFqNames = HashMultimap.create<FqName, KtElement>()
@@ -172,22 +186,30 @@ class LazyTopDownAnalyzer(
             })
         }
 
-        createFunctionDescriptors(c, functions)
+        // time spent on local declarations is accounted to the body containing them
+        val phaseMetrics = performanceSettings.phaseMetrics
+        val lazyResolve = if (!topDownAnalysisMode.isLocalDeclarations) phaseMetrics.start(PhaseMetrics.LAZY_RESOLVE) else null
+        try {
+            createFunctionDescriptors(c, functions)
 
-        createPropertyDescriptors(c, topLevelFqNames, properties)
+            createPropertyDescriptors(c, topLevelFqNames, properties)
 
-        resolveAllHeadersInClasses(c)
+            resolveAllHeadersInClasses(c)
 
-        declarationResolver.checkRedeclarationsInPackages(topLevelDescriptorProvider, topLevelFqNames)
-        declarationResolver.checkRedeclarations(c)
+            declarationResolver.checkRedeclarationsInPackages(topLevelDescriptorProvider, topLevelFqNames)
+            declarationResolver.checkRedeclarations(c)
 
-        overrideResolver.check(c)
+            overrideResolver.check(c)
 
-        varianceChecker.check(c)
+            varianceChecker.check(c)
 
-        declarationResolver.resolveAnnotationsOnFiles(c, fileScopeProvider)
+            declarationResolver.resolveAnnotationsOnFiles(c, fileScopeProvider)
 
-        overloadResolver.process(c)
+            overloadResolver.process(c)
+        }
+        finally {
+            phaseMetrics.finish(lazyResolve)
+        }
 
         bodyResolver.resolveBodies(c)
 
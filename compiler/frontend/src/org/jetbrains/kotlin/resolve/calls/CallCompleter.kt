@@ -53,6 +53,7 @@ import java.util.*
 class CallCompleter(
         private val argumentTypeResolver: ArgumentTypeResolver,
         private val candidateResolver: CandidateResolver,
+        private val genericCandidateResolver: GenericCandidateResolver,
         private val symbolUsageValidator: SymbolUsageValidator,
         private val dataFlowAnalyzer: DataFlowAnalyzer,
         private val callCheckers: Iterable<CallChecker>,
@@ -129,6 +130,9 @@ class CallCompleter(
             return
         }
 
+        genericCandidateResolver.completeFailFastConstraintSystem(
+                CallCandidateResolutionContext.createForCallBeingAnalyzed(resolvedCall, context, tracing)
+        )
         resolvedCall.completeConstraintSystem(context.expectedType, context.trace)
 
         completeArguments(context, results)
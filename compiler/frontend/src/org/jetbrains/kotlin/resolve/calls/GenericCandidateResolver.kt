@@ -18,6 +18,7 @@ package org.jetbrains.kotlin.resolve.calls
 
 import org.jetbrains.kotlin.builtins.KotlinBuiltIns
 import org.jetbrains.kotlin.builtins.ReflectionTypes
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings
 import org.jetbrains.kotlin.descriptors.CallableDescriptor
 import org.jetbrains.kotlin.descriptors.TypeParameterDescriptor
 import org.jetbrains.kotlin.descriptors.ValueParameterDescriptor
@@ -46,22 +47,50 @@ import org.jetbrains.kotlin.types.*
 import org.jetbrains.kotlin.types.TypeUtils.DONT_CARE
 import org.jetbrains.kotlin.types.checker.KotlinTypeChecker
 import org.jetbrains.kotlin.types.expressions.ExpressionTypingUtils
+import org.jetbrains.kotlin.util.PerformanceCounter
+
+class GenericCandidateResolver(
+        private val argumentTypeResolver: ArgumentTypeResolver,
+        private val performanceSettings: FrontendPerformanceSettings
+) {
+    companion object {
+        // Divided by each other, these give the average cost of inference per call candidate
+        private val inferenceCounter = PerformanceCounter.create("Type argument inference for call candidates", reenterable = true)
+        private val incorporationStepsCounter = PerformanceCounter.create("Constraint system incorporation steps")
+    }
+
+    fun <D : CallableDescriptor> inferTypeArguments(context: CallCandidateResolutionContext<D>): ResolutionStatus =
+            inferenceCounter.time { doInferTypeArguments(context, performanceSettings.failFastInference) }
+
+    /**
+     * A fail-fast system only tells that the candidate is inapplicable. Once the candidate is kept as a result of the call,
+     * the complete system is built to be used for completion and diagnostics.
+     */
+    fun <D : CallableDescriptor> completeFailFastConstraintSystem(context: CallCandidateResolutionContext<D>) {
+        if (context.candidateCall.constraintSystem !is FailFastConstraintSystem) return
+        inferenceCounter.time { doInferTypeArguments(context, failFast = false) }
+    }
 
-class GenericCandidateResolver(private val argumentTypeResolver: ArgumentTypeResolver) {
-    fun <D : CallableDescriptor> inferTypeArguments(context: CallCandidateResolutionContext<D>): ResolutionStatus {
+    private fun <D : CallableDescriptor> doInferTypeArguments(
+            context: CallCandidateResolutionContext<D>,
+            failFast: Boolean
+    ): ResolutionStatus {
         val candidateCall = context.candidateCall
         val candidate = candidateCall.candidateDescriptor
 
-        val builder = ConstraintSystemBuilderImpl()
+        val builder = ConstraintSystemBuilderImpl(failFast)
         builder.registerTypeVariables(candidateCall.call.toHandle(), candidate.typeParameters)
 
         val substituteDontCare = makeConstantSubstitutor(candidate.typeParameters, DONT_CARE)
 
         // Value parameters
-        for ((candidateParameter, resolvedValueArgument) in candidateCall.valueArguments) {
+        arguments@ for ((candidateParameter, resolvedValueArgument) in candidateCall.valueArguments) {
             val valueParameterDescriptor = candidate.valueParameters[candidateParameter.index]
 
             for (valueArgument in resolvedValueArgument.arguments) {
+                // The candidate is inapplicable whatever the types of the remaining arguments are
+                if (failFast && builder.hasContradiction) break@arguments
+
                 // TODO : more attempts, with different expected types
 
                 // Here we type check expecting an error type (DONT_CARE, substitution with substituteDontCare)
@@ -94,16 +123,22 @@ class GenericCandidateResolver(private val argumentTypeResolver: ArgumentTypeRes
         }
 
         val constraintSystem = builder.build()
-        candidateCall.setConstraintSystem(constraintSystem)
+        incorporationStepsCounter.increment(builder.incorporationSteps)
 
         // Solution
         val hasContradiction = constraintSystem.status.hasContradiction()
         if (!hasContradiction) {
+            // Nothing is skipped until there is a contradiction, so the system is complete
+            candidateCall.setConstraintSystem(constraintSystem)
             return INCOMPLETE_TYPE_INFERENCE
         }
+        candidateCall.setConstraintSystem(if (failFast) FailFastConstraintSystem(constraintSystem) else constraintSystem)
         return OTHER_ERROR
     }
 
+    // Marks a system which misses the constraints and bounds skipped after a contradiction, see [completeFailFastConstraintSystem]
+    private class FailFastConstraintSystem(system: ConstraintSystem) : ConstraintSystem by system
+
     // Creates a substitutor which maps types to their representation in the constraint system.
     // In case when some type parameter descriptor is represented by more than one variable in the system, the behavior is undefined.
     private fun ConstraintSystem.Builder.compositeSubstitutor(): TypeSubstitutor {
@@ -201,6 +236,8 @@ class GenericCandidateResolver(private val argumentTypeResolver: ArgumentTypeRes
     }
 
     fun <D : CallableDescriptor> completeTypeInferenceDependentOnFunctionArgumentsForCall(context: CallCandidateResolutionContext<D>) {
+        completeFailFastConstraintSystem(context)
+
         val resolvedCall = context.candidateCall
         val constraintSystem = resolvedCall.constraintSystem?.toBuilder() ?: return
 
@@ -37,7 +37,12 @@ import org.jetbrains.kotlin.types.typeUtil.defaultProjections
 import org.jetbrains.kotlin.types.typeUtil.isDefaultBound
 import java.util.*
 
-class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
+/**
+ * @param failFast if set, constraints and bounds are no longer processed once the system has a contradiction,
+ * which can't be resolved by any further constraint. The status of such a system still reports the contradiction,
+ * but its bounds are incomplete, so it should only be used to find out whether a call candidate is applicable.
+ */
+class ConstraintSystemBuilderImpl(private val failFast: Boolean = false) : ConstraintSystem.Builder {
     internal data class Constraint(
             val kind: ConstraintKind, val subtype: KotlinType, val superType: KotlinType, val position: ConstraintPosition
     )
@@ -52,6 +57,18 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
     internal val errors = ArrayList<ConstraintError>()
     internal val initialConstraints = ArrayList<Constraint>()
 
+    /**
+     * Whether the system has a contradiction which can't be resolved by any further constraint
+     */
+    var hasContradiction = false
+        private set
+
+    /**
+     * The number of constraints and bounds processed by this builder, i.e. the cost of the inference
+     */
+    var incorporationSteps: Int = 0
+        private set
+
     override val typeVariableSubstitutors = LinkedHashMap<CallHandle, TypeSubstitutor>()
 
     private fun storeSubstitutor(call: CallHandle, substitutor: TypeSubstitutor): TypeSubstitutor {
@@ -117,6 +134,8 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
             superType: KotlinType?,
             constraintContext: ConstraintContext
     ) {
+        if (failFast && hasContradiction) return
+
         val constraintPosition = constraintContext.position
 
         // when processing nested constraints, `derivedFrom` information should be reset
@@ -149,7 +168,7 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
 
                 if (myTypeVariable != null && constraintPosition.isParameter()) {
                     if (depth > 0) {
-                        errors.add(CannotCapture(constraintPosition, myTypeVariable))
+                        addError(CannotCapture(constraintPosition, myTypeVariable))
                     }
                     generateTypeParameterCaptureConstraint(myTypeVariable, typeProjection, newConstraintContext, type.isMarkedNullable)
                     return true
@@ -158,7 +177,7 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
             }
 
             override fun noCorrespondingSupertype(subtype: KotlinType, supertype: KotlinType): Boolean {
-                errors.add(newTypeInferenceOrParameterConstraintError(constraintPosition))
+                addError(newTypeInferenceOrParameterConstraintError(constraintPosition))
                 return true
             }
         })
@@ -184,6 +203,7 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
             constraintContext: ConstraintContext,
             typeCheckingProcedure: TypeCheckingProcedure
     ) {
+        incorporationSteps++
         val constraintPosition = constraintContext.position
         if (isErrorOrSpecialType(subType, constraintPosition) || isErrorOrSpecialType(superType, constraintPosition)) return
         if (subType == null || superType == null) return
@@ -227,7 +247,7 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
             else {
                 typeCheckingProcedure.isSubtypeOf(subTypeNotNullable, superType)
             }
-            if (!result) errors.add(newTypeInferenceOrParameterConstraintError(constraintPosition))
+            if (!result) addError(newTypeInferenceOrParameterConstraintError(constraintPosition))
         }
         if (constraintContext.initial) {
             storeInitialConstraint(constraintKind, subType, superType, constraintPosition)
@@ -243,6 +263,9 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
             kind: TypeBounds.BoundKind,
             constraintContext: ConstraintContext
     ) {
+        if (failFast && hasContradiction) return
+
+        incorporationSteps++
         val bound = Bound(typeVariable, constrainingType, kind, constraintContext.position,
                           constrainingType.isProper(), constraintContext.derivedFrom ?: emptySet())
         val typeBounds = getTypeBounds(typeVariable)
@@ -312,7 +335,7 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
     ) {
         if (!typeVariable.originalTypeParameter.upperBounds.let { it.size == 1 && it.single().isDefaultBound() } &&
             constrainingTypeProjection.projectionKind == Variance.IN_VARIANCE) {
-            errors.add(CannotCapture(constraintContext.position, typeVariable))
+            addError(CannotCapture(constraintContext.position, typeVariable))
         }
         val typeProjection = if (isTypeMarkedNullable) {
             TypeProjectionImpl(constrainingTypeProjection.projectionKind, TypeUtils.makeNotNullable(constrainingTypeProjection.type))
@@ -324,6 +347,17 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
         addBound(typeVariable, capturedType, EXACT_BOUND, constraintContext)
     }
 
+    private fun addError(error: ConstraintError) {
+        errors.add(error)
+        if (error.isContradiction()) {
+            hasContradiction = true
+        }
+    }
+
+    // Errors which make ConstraintSystemStatus.hasContradiction() true no matter what constraints are added later
+    private fun ConstraintError.isContradiction() =
+            this is ParameterConstraintError || this is TypeInferenceError || this is CannotCapture
+
     internal fun getTypeBounds(variable: TypeVariable): TypeBoundsImpl {
         return allTypeParameterBounds[variable] ?:
                throw IllegalArgumentException("TypeParameterDescriptor is not a type variable for constraint system: $variable")
@@ -378,7 +412,8 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
 
         allTypeParameterBounds.putAll(other.allTypeParameterBounds)
         usedInBounds.putAll(other.usedInBounds)
-        errors.addAll(other.errors)
+        other.errors.forEach { addError(it) }
+        incorporationSteps += other.incorporationSteps
         initialConstraints.addAll(other.initialConstraints)
         typeVariableSubstitutors.putAll(other.typeVariableSubstitutors)
     }
@@ -83,8 +83,9 @@ abstract class PerformanceCounter protected constructor(val name: String) {
         }
     }
 
-    final fun increment() {
-        count++
+    @JvmOverloads
+    final fun increment(times: Int = 1) {
+        count += times
     }
 
     final fun <T> time(block: () -> T): T {
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.util
+
+import java.lang.management.ManagementFactory
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Collects wall time, thread CPU time and allocated bytes per compiler phase, optionally broken down by file.
+ *
+ * An instance is created for a single compilation (see [org.jetbrains.kotlin.config.CommonConfigurationKeys.PHASE_METRICS]) and passed to the instrumented
+ * code, so concurrent compilations in the same process never mix their metrics. [DISABLED] collects nothing: its [start]
+ * returns null and the instrumented code pays only a field read.
+ * Re-entering a phase which is already being measured on the same thread (e.g. inlining from an inlined lambda)
+ * is not measured again, so totals are never counted twice. Different phases may still be nested into each other,
+ * e.g. "inline" and "optimization" time is also a part of "codegen".
+ */
+class PhaseMetrics private constructor(val isEnabled: Boolean) {
+    constructor() : this(true)
+
+    companion object {
+        const val PARSE = "parse"
+        const val LAZY_RESOLVE = "lazy resolve"
+        const val BODY_RESOLVE = "body resolve"
+        const val CONTROL_FLOW_ANALYSIS = "control flow analysis"
+        const val CODEGEN = "codegen"
+        const val INLINE = "inline"
+        const val OPTIMIZATION = "optimization"
+        const val WRITE_OUTPUT = "write output"
+
+        @JvmField
+        val DISABLED = PhaseMetrics(false)
+
+        private val threadBean = ManagementFactory.getThreadMXBean()
+        private val allocationBean = (threadBean as? com.sun.management.ThreadMXBean)?.let {
+            if (it.isThreadAllocatedMemorySupported && it.isThreadAllocatedMemoryEnabled) it else null
+        }
+
+        private fun isCpuTimeSupported() = threadBean.isCurrentThreadCpuTimeSupported
+
+        private fun threadCpuTime(): Long = if (isCpuTimeSupported()) threadBean.currentThreadCpuTime else 0L
+
+        private fun threadAllocatedBytes(): Long = allocationBean?.getThreadAllocatedBytes(Thread.currentThread().id) ?: 0L
+    }
+
+    private val metrics = ConcurrentHashMap<Key, Metric>()
+    private val activePhases = object : ThreadLocal<MutableSet<String>>() {
+        override fun initialValue(): MutableSet<String> = HashSet()
+    }
+
+    class Snapshot internal constructor(
+            internal val phase: String,
+            internal val wallNanos: Long,
+            internal val cpuNanos: Long,
+            internal val allocatedBytes: Long
+    )
+
+    private data class Key(val phase: String, val file: String?)
+
+    private class Metric {
+        val count = AtomicLong()
+        val wallNanos = AtomicLong()
+        val cpuNanos = AtomicLong()
+        val allocatedBytes = AtomicLong()
+    }
+
+    /**
+     * Returns null if this instance is [DISABLED] or [phase] is already being measured on the current thread.
+     * Every non-null result must be passed to [finish].
+     */
+    fun start(phase: String): Snapshot? {
+        if (!isEnabled || !activePhases.get().add(phase)) return null
+        return Snapshot(phase, System.nanoTime(), threadCpuTime(), threadAllocatedBytes())
+    }
+
+    @JvmOverloads
+    fun finish(snapshot: Snapshot?, file: String? = null) {
+        if (snapshot == null) return
+        activePhases.get().remove(snapshot.phase)
+
+        val key = Key(snapshot.phase, file)
+        var metric = metrics[key]
+        if (metric == null) {
+            val newMetric = Metric()
+            metric = metrics.putIfAbsent(key, newMetric) ?: newMetric
+        }
+        metric.count.incrementAndGet()
+        metric.wallNanos.addAndGet(System.nanoTime() - snapshot.wallNanos)
+        metric.cpuNanos.addAndGet(threadCpuTime() - snapshot.cpuNanos)
+        metric.allocatedBytes.addAndGet(threadAllocatedBytes() - snapshot.allocatedBytes)
+    }
+
+    inline fun <T> measure(phase: String, file: String? = null, block: () -> T): T {
+        val snapshot = start(phase)
+        try {
+            return block()
+        }
+        finally {
+            finish(snapshot, file)
+        }
+    }
+
+    /**
+     * Renders collected metrics as a JSON object with per-phase totals and per-file entries (when a phase was measured per file).
+     * Times are in nanoseconds; -1 means the JVM doesn't support the corresponding measurement.
+     */
+    fun toJson(): String {
+        val snapshot = metrics.entries.map { it.key to it.value }.sortedWith(compareBy({ it.first.phase }, { it.first.file ?: "" }))
+        val byPhase = LinkedHashMap<String, MutableList<Pair<Key, Metric>>>()
+        for (entry in snapshot) {
+            byPhase.getOrPut(entry.first.phase) { ArrayList() }.add(entry)
+        }
+
+        val sb = StringBuilder()
+        sb.append("{\n  \"phases\": [")
+        var firstPhase = true
+        for ((phase, entries) in byPhase) {
+            if (!firstPhase) sb.append(",")
+            firstPhase = false
+
+            var count = 0L
+            var wall = 0L
+            var cpu = 0L
+            var allocated = 0L
+            for ((key, metric) in entries) {
+                count += metric.count.get()
+                wall += metric.wallNanos.get()
+                cpu += metric.cpuNanos.get()
+                allocated += metric.allocatedBytes.get()
+            }
+
+            sb.append("\n    {\"name\": ").appendJsonString(phase)
+            sb.appendValues(count, wall, if (isCpuTimeSupported()) cpu else -1, if (allocationBean != null) allocated else -1)
+
+            val files = entries.filter { it.first.file != null }
+            if (files.isNotEmpty()) {
+                sb.append(", \"files\": [")
+                files.forEachIndexed { i, entry ->
+                    if (i > 0) sb.append(",")
+                    val metric = entry.second
+                    sb.append("\n      {\"file\": ").appendJsonString(entry.first.file!!)
+                    sb.appendValues(metric.count.get(), metric.wallNanos.get(),
+                                    if (isCpuTimeSupported()) metric.cpuNanos.get() else -1,
+                                    if (allocationBean != null) metric.allocatedBytes.get() else -1)
+                    sb.append("}")
+                }
+                sb.append("\n    ]")
+            }
+            sb.append("}")
+        }
+        sb.append("\n  ]\n}\n")
+        return sb.toString()
+    }
+
+    private fun StringBuilder.appendValues(count: Long, wallNanos: Long, cpuNanos: Long, allocatedBytes: Long) {
+        append(", \"count\": ").append(count)
+        append(", \"wallNanos\": ").append(wallNanos)
+        append(", \"cpuNanos\": ").append(cpuNanos)
+        append(", \"allocatedBytes\": ").append(allocatedBytes)
+    }
+
+    private fun StringBuilder.appendJsonString(s: String): StringBuilder {
+        append('"')
+        for (c in s) {
+            when (c) {
+                '"' -> append("\\\"")
+                '\\' -> append("\\\\")
+                '\n' -> append("\\n")
+                '\r' -> append("\\r")
+                '\t' -> append("\\t")
+                else -> if (c < ' ') append(String.format("\\u%04x", c.toInt())) else append(c)
+            }
+        }
+        return append('"')
+    }
+}
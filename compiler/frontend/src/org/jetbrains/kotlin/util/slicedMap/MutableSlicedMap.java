@@ -26,6 +26,9 @@ public interface MutableSlicedMap extends SlicedMap {
 
     void clear();
 
+    // Removes the values of all non-collective slices recorded for the key
+    void remove(@NotNull Object key);
+
     @NotNull
     @TestOnly
     <K, V> ImmutableMap<K, V> getSliceContents(@NotNull ReadOnlySlice<K, V> slice);
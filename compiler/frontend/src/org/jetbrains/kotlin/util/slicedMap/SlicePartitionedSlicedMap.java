@@ -0,0 +1,146 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.util.slicedMap;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multimap;
+import com.intellij.openapi.util.Key;
+import gnu.trove.THashMap;
+import kotlin.jvm.functions.Function3;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An alternative to {@link SlicedMapImpl} which keeps a separate open addressing map for each slice
+ * instead of a {@link UserDataHolderImpl} for each key.
+ *
+ * This saves a holder object and its key-value array per key, and makes {@link #getSliceContents} proportional
+ * to the size of the requested slice rather than to the size of the whole map.
+ * Most keys are PSI elements and descriptors which don't override equals(), so lookups in the per-slice maps
+ * are effectively identity lookups.
+ */
+public class SlicePartitionedSlicedMap implements MutableSlicedMap {
+
+    public static SlicePartitionedSlicedMap create() {
+        return new SlicePartitionedSlicedMap();
+    }
+
+    private final Map<Key<?>, Map<Object, Object>> slices = new THashMap<Key<?>, Map<Object, Object>>(0);
+    private Multimap<WritableSlice<?, ?>, Object> collectiveSliceKeys = null;
+
+    @Override
+    public <K, V> void put(WritableSlice<K, V> slice, K key, V value) {
+        if (!slice.check(key, value)) {
+            return;
+        }
+
+        Key<V> sliceKey = slice.getKey();
+        Map<Object, Object> sliceMap = slices.get(sliceKey);
+
+        RewritePolicy rewritePolicy = slice.getRewritePolicy();
+        if (sliceMap != null && rewritePolicy.rewriteProcessingNeeded(key)) {
+            //noinspection unchecked
+            V oldValue = (V) sliceMap.get(key);
+            if (oldValue != null) {
+                if (!rewritePolicy.processRewrite(slice, key, oldValue, value)) {
+                    return;
+                }
+            }
+        }
+
+        if (slice.isCollective()) {
+            if (collectiveSliceKeys == null) {
+                collectiveSliceKeys = ArrayListMultimap.create();
+            }
+
+            collectiveSliceKeys.put(slice, key);
+        }
+
+        if (value == null) {
+            if (sliceMap != null) {
+                sliceMap.remove(key);
+            }
+        }
+        else {
+            if (sliceMap == null) {
+                sliceMap = new THashMap<Object, Object>(0);
+                slices.put(sliceKey, sliceMap);
+            }
+            sliceMap.put(key, value);
+        }
+        slice.afterPut(this, key, value);
+    }
+
+    @Override
+    public void clear() {
+        slices.clear();
+        collectiveSliceKeys = null;
+    }
+
+    @Override
+    public void remove(@NotNull Object key) {
+        for (Map.Entry<Key<?>, Map<Object, Object>> sliceEntry : slices.entrySet()) {
+            if (!((AbstractWritableSlice) sliceEntry.getKey()).getSlice().isCollective()) {
+                sliceEntry.getValue().remove(key);
+            }
+        }
+    }
+
+    @Override
+    public <K, V> V get(ReadOnlySlice<K, V> slice, K key) {
+        Map<Object, Object> sliceMap = slices.get(slice.getKey());
+
+        //noinspection unchecked
+        V value = sliceMap == null ? null : (V) sliceMap.get(key);
+
+        return slice.computeValue(this, key, value, value == null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Collection<K> getKeys(WritableSlice<K, V> slice) {
+        assert slice.isCollective() : "Keys are not collected for slice " + slice;
+
+        if (collectiveSliceKeys == null) return Collections.emptyList();
+        return (Collection<K>) collectiveSliceKeys.get(slice);
+    }
+
+    @Override
+    public void forEach(@NotNull Function3<WritableSlice, Object, Object, Void> f) {
+        for (Map.Entry<Key<?>, Map<Object, Object>> sliceEntry : slices.entrySet()) {
+            WritableSlice slice = ((AbstractWritableSlice) sliceEntry.getKey()).getSlice();
+
+            for (Map.Entry<Object, Object> entry : sliceEntry.getValue().entrySet()) {
+                f.invoke(slice, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @NotNull
+    @Override
+    public <K, V> ImmutableMap<K, V> getSliceContents(@NotNull ReadOnlySlice<K, V> slice) {
+        Map<Object, Object> sliceMap = slices.get(slice.getKey());
+        if (sliceMap == null) return ImmutableMap.of();
+
+        //noinspection unchecked
+        return ImmutableMap.copyOf((Map<K, V>) sliceMap);
+    }
+}
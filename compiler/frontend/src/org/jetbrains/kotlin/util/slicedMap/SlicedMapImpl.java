@@ -81,6 +81,27 @@ public class SlicedMapImpl implements MutableSlicedMap {
         collectiveSliceKeys = null;
     }
 
+    @Override
+    public void remove(@NotNull Object key) {
+        UserDataHolderImpl holder = map.get(key);
+        if (holder == null) return;
+
+        boolean hasCollectiveSlices = false;
+        for (Key<?> sliceKey : holder.getKeys()) {
+            if (((AbstractWritableSlice) sliceKey).getSlice().isCollective()) {
+                hasCollectiveSlices = true;
+            }
+            else {
+                //noinspection unchecked
+                holder.putUserData((Key) sliceKey, null);
+            }
+        }
+
+        if (!hasCollectiveSlices) {
+            map.remove(key);
+        }
+    }
+
     @Override
     public <K, V> V get(ReadOnlySlice<K, V> slice, K key) {
         UserDataHolderImpl holder = map.get(key);
@@ -77,6 +77,18 @@ public class BlackBoxWithJava8CodegenTestGenerated extends AbstractBlackBoxCodeg
         doTestWithJava(fileName);
     }
 
+    @TestMetadata("invokedynamicLambdasWithBranchMerge")
+    public void testInvokedynamicLambdasWithBranchMerge() throws Exception {
+        String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/java8/boxWithJava/invokedynamicLambdasWithBranchMerge/");
+        doTestWithJava(fileName);
+    }
+
+    @TestMetadata("invokedynamicLambdasWithInlineFunctions")
+    public void testInvokedynamicLambdasWithInlineFunctions() throws Exception {
+        String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/java8/boxWithJava/invokedynamicLambdasWithInlineFunctions/");
+        doTestWithJava(fileName);
+    }
+
     @TestMetadata("longChainOfKotlinExtendsFromJavaWithDefault")
     public void testLongChainOfKotlinExtendsFromJavaWithDefault() throws Exception {
         String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/java8/boxWithJava/longChainOfKotlinExtendsFromJavaWithDefault/");
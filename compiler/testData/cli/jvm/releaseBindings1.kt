@@ -0,0 +1,20 @@
+package a
+
+inline fun <T> withPrefix(prefix: String, f: (String) -> T): T {
+    val local = { s: String -> prefix + s }
+    return f(local("-"))
+}
+
+fun twice(s: String): String {
+    fun local(x: String) = x + x
+    return withPrefix(s) { local(it) }
+}
+
+class Holder(val value: String) {
+    init {
+        require(value.isNotEmpty())
+    }
+
+    val doubled: String
+        get() = twice(value)
+}
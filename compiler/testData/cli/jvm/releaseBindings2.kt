@@ -0,0 +1,5 @@
+package b
+
+import a.*
+
+fun test(): String = withPrefix("O") { Holder(it).doubled } + twice("K")
@@ -0,0 +1,31 @@
+inline fun go(block: () -> Unit) {
+    block()
+}
+
+inline fun repeatGo(times: Int, block: (Int) -> Unit) {
+    for (i in 0..times - 1) {
+        block(i)
+    }
+}
+
+fun box(): String {
+    var sum = 0
+    var product = 1L
+    var text: String? = null
+    repeatGo(4) {
+        sum += it
+        product *= it + 1
+        go { text = (text ?: "") + it }
+    }
+    if (sum != 6) return "fail sum: $sum"
+    if (product != 24L) return "fail product: $product"
+    if (text != "0123") return "fail text: $text"
+
+    var escaping = 0
+    val increment = { escaping++ }
+    go { increment() }
+    go { escaping += 10 }
+    if (escaping != 11) return "fail escaping: $escaping"
+
+    return "OK"
+}
@@ -0,0 +1,31 @@
+// DIRECT_COMPANION_ACCESS
+
+class Outer {
+    fun run(): String {
+        counter = 0
+        val lambda = { next() + next() }
+        if (lambda() != 3) return "Fail lambda: $counter"
+        if (next() != 3 || counter != 3) return "Fail direct: $counter"
+
+        val reference = { greeting }
+        if (reference() != "O") return "Fail getter"
+
+        var result = ""
+        Runnable { result = suffix() }.run()
+        return reference() + result
+    }
+
+    companion object {
+        private var counter = 0
+
+        private val greeting: String
+            get() = "O"
+
+        private fun next(): Int = ++counter
+
+        @JvmStatic
+        private fun suffix() = "K"
+    }
+}
+
+fun box(): String = Outer().run()
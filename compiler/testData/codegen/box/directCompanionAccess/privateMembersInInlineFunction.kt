@@ -0,0 +1,12 @@
+// DIRECT_COMPANION_ACCESS
+
+class Outer {
+    // code of inline functions may be inlined into other packages, so it keeps using the accessors
+    internal inline fun run(block: (String) -> String): String = block(prefix())
+
+    companion object {
+        private fun prefix() = "O"
+    }
+}
+
+fun box(): String = Outer().run { it + "K" }
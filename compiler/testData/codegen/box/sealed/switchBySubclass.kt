@@ -0,0 +1,55 @@
+// SEALED_CLASS_SWITCH
+
+sealed class Expr {
+    class Num(val value: Int) : Expr()
+    open class Neg(val arg: Expr) : Expr()
+    class DoubleNeg(arg: Expr) : Neg(Neg(arg))
+    object Zero : Expr()
+
+    sealed class Binary(val left: Expr, val right: Expr) : Expr() {
+        class Plus(left: Expr, right: Expr) : Binary(left, right)
+        class Times(left: Expr, right: Expr) : Binary(left, right)
+        class Minus(left: Expr, right: Expr) : Binary(left, right)
+    }
+}
+
+fun eval(e: Expr): Int = when (e) {
+    is Expr.Num -> e.value
+    is Expr.Neg -> -eval(e.arg)
+    is Expr.Zero -> 0
+    is Expr.Binary -> evalBinary(e)
+}
+
+fun evalBinary(e: Expr.Binary): Int = when (e) {
+    is Expr.Binary.Plus -> eval(e.left) + eval(e.right)
+    is Expr.Binary.Times -> eval(e.left) * eval(e.right)
+    is Expr.Binary.Minus -> eval(e.left) - eval(e.right)
+}
+
+fun describe(e: Expr?): String = when (e) {
+    is Expr.Num, is Expr.Zero -> "constant"
+    is Expr.Neg -> "negation"
+    null -> "null"
+    else -> "other"
+}
+
+fun describeWithoutNull(e: Expr?): String = when (e) {
+    is Expr.Num -> "num"
+    is Expr.Neg -> "neg"
+    is Expr.Zero -> "zero"
+    else -> "else"
+}
+
+fun box(): String {
+    val e = Expr.Binary.Plus(Expr.Num(2), Expr.Binary.Times(Expr.DoubleNeg(Expr.Num(3)), Expr.Binary.Minus(Expr.Num(5), Expr.Zero)))
+    if (eval(e) != 17) return "Fail 1: ${eval(e)}"
+
+    if (describe(Expr.Zero) != "constant") return "Fail 2"
+    if (describe(Expr.DoubleNeg(Expr.Zero)) != "negation") return "Fail 3"
+    if (describe(null) != "null") return "Fail 4"
+    if (describe(e) != "other") return "Fail 5"
+    if (describeWithoutNull(null) != "else") return "Fail 6"
+    if (describeWithoutNull(e) != "else") return "Fail 7"
+
+    return "OK"
+}
@@ -0,0 +1,20 @@
+class A {
+    override fun toString() = "A"
+}
+
+fun concat(i: Int, c: Char, s: String?, d: Double, f: Float, a: A): String =
+        "[" + i + c + "${s}|${"$d|" + f}" + (a + "") + ("" + true) + 2L + ']'
+
+operator fun A.plus(other: String) = "plus" + other
+
+fun box(): String {
+    val result = concat(1, 'x', null, 1.5, 2.5f, A())
+    if (result != "[1xnull|1.5|2.5plustrue2]") return "Fail 1: $result"
+
+    val s: String? = null
+    if ("" + s != "null") return "Fail 2"
+    if (s + "" != "null") return "Fail 3"
+    if ("${"${"O"}"}" + "K" != "OK") return "Fail 4"
+
+    return "OK"
+}
@@ -0,0 +1,11 @@
+package test;
+
+public class Base {
+    String getGreeting() {
+        return "Base";
+    }
+
+    public String greetingFromJava() {
+        return getGreeting();
+    }
+}
@@ -0,0 +1,22 @@
+// DIRECT_COMPANION_ACCESS
+package test
+
+import other.Middle
+
+class Outer {
+    fun greeting(): String = greeting
+
+    // Base.getGreeting is package-private and is not visible through Middle from another package,
+    // but a package-private getter of the companion would override it at runtime
+    companion object : Middle() {
+        private val greeting: String
+            get() = "Kotlin"
+    }
+}
+
+fun box(): String {
+    if (Outer().greeting() != "Kotlin") return "Fail Kotlin"
+    val fromJava = Outer.greetingFromJava()
+    if (fromJava != "Base") return "Fail: companion getter overrides the Java method: $fromJava"
+    return "OK"
+}
@@ -0,0 +1,20 @@
+inline fun <R : Comparable<R>> maxOf(a: R, b: R): R = if (a >= b) a else b
+
+inline fun <T> same(a: T, b: T): Boolean = a == b
+
+fun box(): String {
+    if (maxOf(1, 2) != 2) return "Fail 1"
+    if (maxOf(-1L, Long.MIN_VALUE) != -1L) return "Fail 2"
+    if (maxOf('a', 'z') != 'z') return "Fail 3"
+    if (!maxOf(Double.NaN, 1.0).isNaN()) return "Fail 4"
+    if (maxOf(-0.0f, 0.0f).toString() != "0.0") return "Fail 5"
+
+    if (!same(42, 42) || same(1, 2)) return "Fail 6"
+    if (same(0.0, -0.0)) return "Fail 7"
+    if (!same(Double.NaN, Double.NaN)) return "Fail 8"
+    if (!same(true, true) || same(true, false)) return "Fail 9"
+
+    if (listOf(3, 1, 2).maxBy { -it } != 1) return "Fail 10"
+
+    return "OK"
+}
@@ -0,0 +1,15 @@
+// FUSE_COLLECTION_CHAINS
+
+fun box(): String {
+    var log = ""
+    listOf(1, 2, 3).filter { log += "f$it;"; it != 2 }.map { log += "m$it;"; it * 10 }.forEach { log += "e$it;" }
+    // every element goes through all the operations before the next one is taken
+    if (log != "f1;m1;e10;f2;f3;m3;e30;") return "Fail forEach: $log"
+
+    log = ""
+    val result = arrayOf("a", "b").map { log += "m$it;"; it + it }.filterNot { log += "n$it;"; false }
+    if (log != "ma;naa;mb;nbb;") return "Fail filterNot: $log"
+    if (result != listOf("aa", "bb")) return "Fail result: $result"
+
+    return "OK"
+}
@@ -0,0 +1,16 @@
+fun box(): String {
+    var log = ""
+    listOf(1, 2, 3).filter { log += "f$it;"; it != 2 }.map { log += "m$it;"; it * 10 }.forEach { log += "e$it;" }
+    // without -Xfuse-collection-chains every operation processes the whole collection before the next one starts
+    if (log != "f1;f2;f3;m1;m3;e10;e30;") return "Fail forEach: $log"
+
+    var mapped = 0
+    if (!listOf(1, 2, 3, 4, 5, 6).map { mapped++; it }.any { it == 2 }) return "Fail any"
+    if (mapped != 6) return "Fail any evaluated $mapped"
+
+    mapped = 0
+    if (listOf(1, 2, 3, 4, 5, 6).map { mapped++; it }.all { it < 3 }) return "Fail all"
+    if (mapped != 6) return "Fail all evaluated $mapped"
+
+    return "OK"
+}
@@ -0,0 +1,23 @@
+// FUSE_COLLECTION_CHAINS
+
+fun box(): String {
+    val list = listOf(1, 2, 3, 4, 5, 6)
+    val strings = arrayOf("a", "bb", "ccc")
+    val ints = intArrayOf(3, 1, 4, 1, 5)
+
+    if (list.filter { it % 2 == 0 }.map { it * 10 }.sumBy { it } != 120) return "Fail sumBy"
+    if (list.map { it * 0.5 }.filterNot { it < 1.0 }.sumByDouble { it } != 10.0) return "Fail sumByDouble"
+    if (strings.map { it.length }.count { it > 1 } != 2) return "Fail count"
+    if (!ints.filter { it > 3 }.any { it == 5 }) return "Fail any"
+    if (ints.map { it - 1 }.all { it > 0 }) return "Fail all"
+    if (!list.filter { it > 10 }.none { true }) return "Fail none"
+
+    var visited = ""
+    list.filter { it < 4 }.map { "<" + it + ">" }.forEach { visited += it }
+    if (visited != "<1><2><3>") return "Fail forEach: $visited"
+
+    val mapped = strings.filterNot { it == "bb" }.map { it.toUpperCase() }
+    if (mapped != listOf("A", "CCC")) return "Fail map: $mapped"
+
+    return "OK"
+}
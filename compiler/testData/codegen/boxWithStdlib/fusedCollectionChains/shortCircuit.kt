@@ -0,0 +1,20 @@
+// FUSE_COLLECTION_CHAINS
+
+fun box(): String {
+    val list = listOf(1, 2, 3, 4, 5, 6)
+
+    // the terminal operation stops evaluating the preceding ones as well
+    var mapped = 0
+    if (!list.map { mapped++; it }.any { it == 2 }) return "Fail any"
+    if (mapped != 2) return "Fail any evaluated $mapped"
+
+    mapped = 0
+    if (list.map { mapped++; it }.all { it < 3 }) return "Fail all"
+    if (mapped != 3) return "Fail all evaluated $mapped"
+
+    var filtered = 0
+    if (list.filter { filtered++; it > 3 }.none { it % 2 == 0 }) return "Fail none"
+    if (filtered != 4) return "Fail none evaluated $filtered"
+
+    return "OK"
+}
@@ -0,0 +1,22 @@
+fun box(): String {
+    val array = arrayOf("a", "b", "c")
+    var result = ""
+    for (i in array.indices) {
+        result += i
+    }
+    for (i in intArrayOf(1, 2).indices.reversed()) {
+        result += i
+    }
+    for (i in listOf(1, 2, 3, 4, 5).indices step 2) {
+        result += i
+    }
+    for (i in "xyz".indices.reversed() step 2) {
+        result += i
+    }
+    for (i in emptyList<Int>().indices) {
+        return "Fail: empty list"
+    }
+    if (result != "012" + "10" + "024" + "20") return "Fail: $result"
+
+    return "OK"
+}
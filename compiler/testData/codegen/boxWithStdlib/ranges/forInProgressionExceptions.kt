@@ -0,0 +1,35 @@
+fun failsWith(expectedMessage: String, block: () -> Unit): Boolean {
+    try {
+        block()
+    }
+    catch (e: IllegalArgumentException) {
+        return e.message == expectedMessage
+    }
+    return false
+}
+
+fun box(): String {
+    val zero = 0
+    val minInt = Int.MIN_VALUE
+    val minLong = Long.MIN_VALUE
+
+    if (!failsWith("Step must be positive, was: 0") { for (i in 0..10 step zero) {} }) return "Fail: step 0"
+    if (!failsWith("Step must be positive, was: -1") { for (i in 10 downTo 0 step (zero - 1)) {} }) return "Fail: step -1"
+    if (!failsWith("Step must be positive, was: -2") { for (i in (0L..10L).reversed() step -2L) {} }) return "Fail: step -2L"
+    if (!failsWith("The to argument value '$minInt' was too small.") { for (i in 0 until minInt) {} }) return "Fail: until MIN_VALUE"
+    if (!failsWith("The to argument value '$minLong' was too small.") { for (i in 0L until minLong) {} }) return "Fail: until Long.MIN_VALUE"
+
+    var result = ""
+    for (i in 0.toByte() until Byte.MIN_VALUE) {
+        result += i
+    }
+    for (i in 'a' until 'd' step 2) {
+        result += i
+    }
+    for (i in (1..10 step 4).reversed()) {
+        result += i
+    }
+    if (result != "ac951") return "Fail: $result"
+
+    return "OK"
+}
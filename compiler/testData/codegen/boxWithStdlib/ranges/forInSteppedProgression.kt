@@ -0,0 +1,67 @@
+import java.util.ArrayList
+
+fun up(first: Int, last: Int, step: Int): List<Int> {
+    val result = ArrayList<Int>()
+    for (i in first..last step step) {
+        result.add(i)
+    }
+    return result
+}
+
+fun down(first: Int, last: Int, step: Int): List<Int> {
+    val result = ArrayList<Int>()
+    for (i in first downTo last step step) {
+        result.add(i)
+    }
+    return result
+}
+
+fun upLong(first: Long, last: Long, step: Long): List<Long> {
+    val result = ArrayList<Long>()
+    for (i in first..last step step) {
+        result.add(i)
+    }
+    return result
+}
+
+fun downLong(first: Long, last: Long, step: Long): List<Long> {
+    val result = ArrayList<Long>()
+    for (i in first downTo last step step) {
+        result.add(i)
+    }
+    return result
+}
+
+fun box(): String {
+    val bounds = listOf(Int.MIN_VALUE, Int.MIN_VALUE + 2, -7, -3, -1, 0, 1, 2, 5, 10, Int.MAX_VALUE - 3, Int.MAX_VALUE)
+    val steps = listOf(1, 2, 3, 7, Int.MAX_VALUE)
+    for (first in bounds) {
+        for (last in bounds) {
+            for (step in steps) {
+                if (Math.abs(last.toLong() - first.toLong()) / step > 100) continue
+
+                val expectedUp = (first..last step step).toList()
+                val actualUp = up(first, last, step)
+                if (expectedUp != actualUp) return "Fail: $first..$last step $step: $actualUp"
+
+                val expectedDown = (first downTo last step step).toList()
+                val actualDown = down(first, last, step)
+                if (expectedDown != actualDown) return "Fail: $first downTo $last step $step: $actualDown"
+
+                val expectedUpLong = (first.toLong()..last.toLong() step step.toLong()).toList()
+                val actualUpLong = upLong(first.toLong(), last.toLong(), step.toLong())
+                if (expectedUpLong != actualUpLong) return "Fail: ${first}L..${last}L step $step: $actualUpLong"
+
+                val expectedDownLong = (first.toLong() downTo last.toLong() step step.toLong()).toList()
+                val actualDownLong = downLong(first.toLong(), last.toLong(), step.toLong())
+                if (expectedDownLong != actualDownLong) return "Fail: ${first}L downTo ${last}L step $step: $actualDownLong"
+            }
+        }
+    }
+
+    val longStep = Long.MAX_VALUE
+    if (upLong(Long.MIN_VALUE, Long.MAX_VALUE, longStep) != (Long.MIN_VALUE..Long.MAX_VALUE step longStep).toList()) return "Fail: Long bounds"
+    if (downLong(Long.MAX_VALUE, Long.MIN_VALUE, longStep) != (Long.MAX_VALUE downTo Long.MIN_VALUE step longStep).toList()) return "Fail: Long bounds downTo"
+
+    return "OK"
+}
@@ -0,0 +1,20 @@
+inline fun <R : Comparable<R>> maxOf(a: R, b: R): R = if (a >= b) a else b
+
+inline fun <T> same(a: T, b: T): Boolean = a == b
+
+fun maxInt(x: Int, y: Int): Int = maxOf(x, y)
+
+fun maxLong(x: Long, y: Long): Long = maxOf(x, y)
+
+fun maxDouble(x: Double, y: Double): Double = maxOf(x, y)
+
+fun sameChars(x: Char, y: Char): Boolean = same(x, y)
+
+// Calls from the bodies of maxOf and same are left as is
+// 1 INVOKEINTERFACE java/lang/Comparable.compareTo
+// 1 INVOKESTATIC kotlin/jvm/internal/Intrinsics.areEqual
+// 0 valueOf
+// 0 Value\s\(\)
+// 2 INVOKESTATIC kotlin/jvm/internal/Intrinsics.compare \(II\)I
+// 1 LCMP
+// 1 INVOKESTATIC java/lang/Double.compare \(DD\)I
@@ -0,0 +1,23 @@
+inline fun go(block: () -> Unit) {
+    block()
+}
+
+fun box(): String {
+    var i = 0
+    var l = 0L
+    var d = 0.0
+    var c = 'a'
+    var s = ""
+    go {
+        i++
+        l += 2
+        d += 1.5
+        c = 'b'
+        s += "x"
+    }
+    return if (i == 1 && l == 2L && d == 1.5 && c == 'b' && s == "x") "OK" else "fail"
+}
+
+// 0 NEW kotlin/jvm/internal/Ref
+// 0 GETFIELD kotlin/jvm/internal/Ref
+// 0 PUTFIELD kotlin/jvm/internal/Ref
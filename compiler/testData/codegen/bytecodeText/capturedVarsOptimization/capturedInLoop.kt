@@ -0,0 +1,18 @@
+inline fun go(block: () -> Unit) {
+    block()
+}
+
+fun sum(array: IntArray): Int {
+    var result = 0
+    for (element in array) {
+        var doubled = 0
+        go {
+            doubled = element * 2
+            result += doubled
+        }
+    }
+    return result
+}
+
+// 0 NEW kotlin/jvm/internal/Ref
+// 0 Ref\$IntRef.element
@@ -0,0 +1,18 @@
+fun go(block: () -> Unit) {
+    block()
+}
+
+inline fun goInline(block: () -> Unit) {
+    block()
+}
+
+fun box(): String {
+    var escaping = 0
+    var local = 0
+    go { escaping++ }
+    goInline { local++ }
+    return if (escaping == 1 && local == 1) "OK" else "fail"
+}
+
+// 1 NEW kotlin/jvm/internal/Ref\$IntRef
+// 1 NEW kotlin/jvm/internal/Ref
@@ -0,0 +1,7 @@
+fun test(): String = when (42L) {
+    else -> "OK"
+}
+
+// 0 LSTORE
+// 0 LDC 42
+// 0 POP2
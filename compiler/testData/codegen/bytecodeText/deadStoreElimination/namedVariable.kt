@@ -0,0 +1,8 @@
+fun foo(): Int = 42
+
+fun test(): String {
+    val x = foo()
+    return "OK"
+}
+
+// 1 ISTORE
@@ -0,0 +1,8 @@
+fun foo(): Int = 42
+
+fun test(): String = when (foo()) {
+    else -> "OK"
+}
+
+// 0 ISTORE
+// 1 POP
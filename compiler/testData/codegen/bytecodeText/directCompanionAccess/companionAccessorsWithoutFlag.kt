@@ -0,0 +1,16 @@
+class Outer {
+    fun run(): String {
+        val lambda = { next() + next() }
+        return greeting + lambda()
+    }
+
+    companion object {
+        private val greeting: String
+            get() = "O"
+
+        private fun next(): Int = 1
+    }
+}
+
+// Two calls of 'next' and one of the 'greeting' getter
+// 3 INVOKESTATIC Outer\$Companion.access\$
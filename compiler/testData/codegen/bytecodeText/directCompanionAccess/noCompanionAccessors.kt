@@ -0,0 +1,24 @@
+// DIRECT_COMPANION_ACCESS
+
+class Outer {
+    fun run(): String {
+        val lambda = { next() + next() }
+        counter = lambda()
+        return greeting + counter
+    }
+
+    companion object {
+        private var counter = 0
+
+        private val greeting: String
+            get() = "O"
+
+        private fun next(): Int = ++counter
+    }
+}
+
+// 0 INVOKESTATIC Outer\$Companion.access\$
+// The outer class reads the companion's private field directly, without calling the companion's getter
+// 0 INVOKEVIRTUAL Outer\$Companion.getCounter
+// 2 INVOKEVIRTUAL Outer\$Companion.next
+// 1 INVOKEVIRTUAL Outer\$Companion.getGreeting
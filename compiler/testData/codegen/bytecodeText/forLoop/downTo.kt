@@ -0,0 +1,11 @@
+fun f(n: Int, m: Long) {
+    for (i in n downTo 0) {
+    }
+    for (i in m downTo 1L) {
+    }
+}
+
+// 0 iterator
+// 0 getFirst
+// 0 getLast
+// 0 NEW kotlin/ranges
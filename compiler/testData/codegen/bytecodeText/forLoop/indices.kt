@@ -0,0 +1,19 @@
+fun f(a: IntArray, b: Array<String>, c: List<String>, s: CharSequence) {
+    for (i in a.indices) {
+    }
+    for (i in b.indices) {
+    }
+    for (i in c.indices) {
+    }
+    for (i in s.indices) {
+    }
+}
+
+// 0 iterator
+// 0 getIndices
+// 0 getFirst
+// 0 getLast
+// 0 NEW kotlin/ranges
+// 2 ARRAYLENGTH
+// 1 INVOKEINTERFACE java/util/Collection.size
+// 1 INVOKEINTERFACE java/lang/CharSequence.length
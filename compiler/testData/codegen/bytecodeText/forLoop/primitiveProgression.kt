@@ -6,6 +6,7 @@ fun f() {
 }
 
 // 0 iterator
-// 2 getFirst
-// 2 getLast
-// 2 getStep
\ No newline at end of file
+// 0 getFirst
+// 0 getLast
+// 0 getStep
+// 0 NEW kotlin/ranges
\ No newline at end of file
@@ -0,0 +1,18 @@
+fun f(n: Int, m: Long) {
+    for (i in (0..n).reversed()) {
+    }
+    for (i in (0 until n step 3).reversed()) {
+    }
+    for (i in (n downTo 0).reversed() step 2) {
+    }
+    for (i in 0L..m step 5L) {
+    }
+}
+
+// 0 iterator
+// 0 reversed
+// 0 getFirst
+// 0 getLast
+// 0 getStep
+// 0 NEW kotlin/ranges
+// 0 INVOKESTATIC kotlin/internal
@@ -0,0 +1,13 @@
+fun f(n: Int, m: Long, c: Char) {
+    for (i in 0 until n) {
+    }
+    for (i in 0L until m) {
+    }
+    for (i in 'a' until c) {
+    }
+}
+
+// 0 iterator
+// 0 getFirst
+// 0 getLast
+// 0 NEW kotlin/ranges
@@ -0,0 +1,11 @@
+// FUSE_COLLECTION_CHAINS
+
+fun sum(list: List<Int>) = list.filter { it % 2 == 0 }.map { it * 10 }.sumBy { it }
+
+fun anyEven(list: List<Int>) = list.map { it + 1 }.any { it % 2 == 0 }
+
+fun squares(list: List<Int>) = list.filter { it > 0 }.map { it * it }
+
+// Each chain is a single loop, only the chain ending with 'map' creates a list which is its result
+// 3 INVOKEINTERFACE java/lang/Iterable.iterator
+// 1 NEW java/util/ArrayList
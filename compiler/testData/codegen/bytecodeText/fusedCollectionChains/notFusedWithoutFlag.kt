@@ -0,0 +1,5 @@
+fun sum(list: List<Int>) = list.filter { it % 2 == 0 }.map { it * 10 }.sumBy { it }
+
+fun squares(list: List<Int>) = list.filter { it > 0 }.map { it * it }
+
+// 4 NEW java/util/ArrayList
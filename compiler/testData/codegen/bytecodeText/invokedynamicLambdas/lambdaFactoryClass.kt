@@ -0,0 +1,16 @@
+// INVOKEDYNAMIC_LAMBDAS
+
+class Host {
+    val lambda = { x: Int -> x + 1 }
+
+    inline fun run(f: () -> Int) = f()
+}
+
+fun square() = { x: Int -> x * x }
+
+// Only the factory classes Host$Lambdas and LambdaFactoryClassKt$Lambdas have invokedynamic and the Java 8 class file version
+// 2 INVOKEDYNAMIC
+// 2 class version 52.0
+// 2 class version 50.0
+// 1 INVOKESTATIC Host\$Lambdas.lambda\$
+// 1 INVOKESTATIC LambdaFactoryClassKt\$Lambdas.lambda\$
@@ -0,0 +1,9 @@
+class Host {
+    val lambda = { x: Int -> x + 1 }
+}
+
+fun square() = { x: Int -> x * x }
+
+// 0 INVOKEDYNAMIC
+// 0 class version 52.0
+// 0 \$Lambdas
@@ -0,0 +1,10 @@
+fun test(x: Any, y: Int): String {
+    return "a" + 1 + x + 'c' + true + "${2L}d" + y + "e" + 'f'
+}
+
+// Adjacent constants are folded into a single string at compile time
+// 1 LDC "a1"
+// 1 LDC "ctrue2d"
+// 1 LDC "ef"
+// 3 INVOKEVIRTUAL java/lang/StringBuilder.append \(Ljava/lang/String;\)
+// 1 NEW java/lang/StringBuilder
@@ -0,0 +1,10 @@
+fun test(x: Int, y: String?, z: String): String {
+    return "a" + "${x}b${"c$y"}" + (z + "d")
+}
+
+// 1 NEW java/lang/StringBuilder
+// 1 BIPUSH 20
+// 1 INVOKESPECIAL java/lang/StringBuilder.<init> \(I\)V
+// 0 INVOKESPECIAL java/lang/StringBuilder.<init> \(\)V
+// 1 LDC "bc"
+// 1 INVOKEVIRTUAL java/lang/StringBuilder.toString
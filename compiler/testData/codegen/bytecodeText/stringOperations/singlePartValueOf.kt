@@ -0,0 +1,12 @@
+fun test(x: Int, y: Any?, z: Long): String {
+    val a = "$x"
+    val b = "" + y
+    val c = "${""}$z${""}"
+    return a + b + c
+}
+
+// 0 INVOKESPECIAL java/lang/StringBuilder.<init> \(I\)V
+// 1 INVOKESPECIAL java/lang/StringBuilder.<init> \(\)V
+// 1 INVOKESTATIC java/lang/String.valueOf \(I\)
+// 1 INVOKESTATIC java/lang/String.valueOf \(Ljava/lang/Object;\)
+// 1 INVOKESTATIC java/lang/String.valueOf \(J\)
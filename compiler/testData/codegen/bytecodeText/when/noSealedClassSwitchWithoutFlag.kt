@@ -0,0 +1,24 @@
+sealed class Message {
+    class Ping : Message()
+    class Pong : Message()
+    class Data(val payload: String) : Message()
+    object Close : Message()
+}
+
+fun dispatch(m: Message): String = when (m) {
+    is Message.Ping -> "ping"
+    is Message.Pong -> "pong"
+    is Message.Data -> m.payload
+    is Message.Close -> "close"
+}
+
+fun fewCases(m: Message): String = when (m) {
+    is Message.Ping -> "ping"
+    is Message.Pong -> "pong"
+    else -> "other"
+}
+
+// 0 TABLESWITCH
+// 0 \$sealedOrdinal
+// 0 \$sealedSubclass
+// 6 INSTANCEOF
@@ -0,0 +1,28 @@
+// SEALED_CLASS_SWITCH
+
+sealed class Message {
+    class Ping : Message()
+    class Pong : Message()
+    class Data(val payload: String) : Message()
+    object Close : Message()
+}
+
+fun dispatch(m: Message): String = when (m) {
+    is Message.Ping -> "ping"
+    is Message.Pong -> "pong"
+    is Message.Data -> m.payload
+    is Message.Close -> "close"
+}
+
+fun fewCases(m: Message): String = when (m) {
+    is Message.Ping -> "ping"
+    is Message.Pong -> "pong"
+    else -> "other"
+}
+
+// 1 TABLESWITCH
+// 1 INVOKEVIRTUAL Message\.\$sealedOrdinal\$Message \(\)I
+// 1 INVOKESTATIC Message\.\$sealedSubclassCount\$Message \(\)I
+// 4 INVOKESTATIC Message\$\w+\.\$sealedSubclassOrdinal\$Message \(\)I
+// 1 IALOAD
+// 2 INSTANCEOF
@@ -0,0 +1,7 @@
+public abstract class Base {
+    public String baseMethod() {
+        return name();
+    }
+
+    protected abstract String name();
+}
@@ -0,0 +1,17 @@
+// INVOKEDYNAMIC_LAMBDAS
+
+class A : Base() {
+    override fun name() = "O"
+}
+
+class B : Base() {
+    override fun name() = "K"
+}
+
+// The stack map frame after the branches has Base on the stack, which the class writer can't compute without loading the classes
+fun pick(c: Boolean) = (if (c) A() else B()).baseMethod()
+
+fun box(): String {
+    val f = { c: Boolean -> (if (c) A() else B()).baseMethod() }
+    return pick(true) + f(false)
+}
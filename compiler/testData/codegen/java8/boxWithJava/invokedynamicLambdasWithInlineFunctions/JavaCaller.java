@@ -0,0 +1,7 @@
+import kotlin.jvm.functions.Function1;
+
+public class JavaCaller {
+    public static String call(Function1<String, String> f, String s) {
+        return f.invoke(s);
+    }
+}
@@ -0,0 +1,22 @@
+// INVOKEDYNAMIC_LAMBDAS
+
+// The bytecode of Host and of this file's facade is read by the inliner, and they both have lambdas generated with invokedynamic
+class Host {
+    val suffix = { s: String -> s + "K" }
+
+    inline fun transform(s: String, f: (String) -> String) = f(s)
+}
+
+inline fun twice(s: String, f: (String) -> String) = f(f(s))
+
+inline fun wrap(noinline f: (String) -> String): (String) -> String = f
+
+fun box(): String {
+    val host = Host()
+    if (host.transform("O", host.suffix) != "OK") return "Fail member"
+    if (host.transform("O") { it + "K" } != "OK") return "Fail inlined lambda"
+    if (twice("K") { it + "K" } != "KKK") return "Fail top-level"
+    if (JavaCaller.call(wrap { it + "K" }, "O") != "OK") return "Fail noinline"
+
+    return JavaCaller.call(host.suffix, "O")
+}
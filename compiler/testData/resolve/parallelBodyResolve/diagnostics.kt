@@ -0,0 +1,41 @@
+package test
+
+fun inferredFromOther() = inferred() + 1
+
+fun inferred() = 42
+
+fun inferredWithError() = undefinedInInferred() ?: 0
+
+fun usesInferredWithError() = inferredWithError() + inferred()
+
+fun unresolved() {
+    undefinedFunction()
+    val x: String = 1
+}
+
+fun withLambda(list: List<Int>): Int {
+    var sum = 0
+    list.forEach { sum += it }
+    return sum + ""
+}
+
+fun withLocalClass(): Any {
+    class Local(val value: Int) {
+        fun twice() = value * 2
+    }
+    return Local(1).twice().missing
+}
+
+class Container(val name: String) {
+    fun member(): String = name.length
+
+    fun usesOther() = inferredFromOther().toString()
+
+    fun unused(p: Int) {
+        val unused = p
+    }
+}
+
+fun recursive() = recursive()
+
+fun nullable(s: String?) = s.length
@@ -28,6 +28,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.cli.jvm.compiler.CliLightClassGenerationSupport;
 import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider;
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings;
 import org.jetbrains.kotlin.context.ContextKt;
 import org.jetbrains.kotlin.context.GlobalContext;
 import org.jetbrains.kotlin.context.ModuleContext;
@@ -56,6 +57,7 @@ import org.jetbrains.kotlin.test.InTextDirectivesUtils;
 import org.jetbrains.kotlin.test.KotlinTestUtils;
 import org.jetbrains.kotlin.test.util.DescriptorValidator;
 import org.jetbrains.kotlin.test.util.RecursiveDescriptorComparator;
+import org.jetbrains.kotlin.util.PhaseMetrics;
 import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
 
 import java.io.File;
@@ -127,8 +129,18 @@ public abstract class AbstractDiagnosticsTest extends BaseDiagnosticsTest {
             moduleBindings.put(testModule, moduleTrace.getBindingContext());
 
 
+            boolean failFastInference = CollectionsKt.any(testFilesInModule, new Function1<TestFile, Boolean>() {
+                @Override
+                public Boolean invoke(TestFile file) {
+                    return file.failFastInference;
+                }
+            });
+            FrontendPerformanceSettings performanceSettings =
+                    failFastInference ? new FrontendPerformanceSettings(1, PhaseMetrics.DISABLED, false, false, true)
+                                      : FrontendPerformanceSettings.DEFAULT;
+
             ModuleContext moduleContext = ContextKt.withModule(ContextKt.withProject(context, getProject()), module);
-            analyzeModuleContents(moduleContext, jetFiles, moduleTrace);
+            analyzeModuleContents(moduleContext, jetFiles, moduleTrace, performanceSettings);
 
             checkAllResolvedCallsAreCompleted(jetFiles, moduleTrace.getBindingContext());
         }
@@ -235,7 +247,8 @@ public abstract class AbstractDiagnosticsTest extends BaseDiagnosticsTest {
     protected void analyzeModuleContents(
             @NotNull ModuleContext moduleContext,
             @NotNull List<KtFile> jetFiles,
-            @NotNull BindingTrace moduleTrace
+            @NotNull BindingTrace moduleTrace,
+            @NotNull FrontendPerformanceSettings performanceSettings
     ) {
         // New JavaDescriptorResolver is created for each module, which is good because it emulates different Java libraries for each module,
         // albeit with same class names
@@ -245,7 +258,8 @@ public abstract class AbstractDiagnosticsTest extends BaseDiagnosticsTest {
                 moduleTrace,
                 null,
                 null,
-                new JvmPackagePartProvider(getEnvironment())
+                new JvmPackagePartProvider(getEnvironment()),
+                performanceSettings
         );
     }
 
@@ -21,6 +21,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles;
 import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
 import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings;
 import org.jetbrains.kotlin.context.ModuleContext;
 import org.jetbrains.kotlin.descriptors.impl.ModuleDescriptorImpl;
 import org.jetbrains.kotlin.js.analyze.TopDownAnalyzerFacadeForJS;
@@ -63,7 +64,8 @@ public abstract class AbstractDiagnosticsTestWithJsStdLib extends AbstractDiagno
     protected void analyzeModuleContents(
             @NotNull ModuleContext moduleContext,
             @NotNull List<KtFile> jetFiles,
-            @NotNull BindingTrace moduleTrace
+            @NotNull BindingTrace moduleTrace,
+            @NotNull FrontendPerformanceSettings performanceSettings
     ) {
         TopDownAnalyzerFacadeForJS.analyzeFilesWithGivenTrace(jetFiles, moduleTrace, moduleContext, config);
     }
@@ -16,6 +16,7 @@
 
 package org.jetbrains.kotlin.checkers
 
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings
 import org.jetbrains.kotlin.context.ModuleContext
 import org.jetbrains.kotlin.diagnostics.DiagnosticUtils.hasError
 import org.jetbrains.kotlin.js.analyze.TopDownAnalyzerFacadeForJS
@@ -28,7 +29,8 @@ abstract class AbstractDiagnosticsTestWithJsStdLibAndBackendCompilation : Abstra
     override fun analyzeModuleContents(
             moduleContext: ModuleContext,
             jetFiles: MutableList<KtFile>,
-            moduleTrace: BindingTrace
+            moduleTrace: BindingTrace,
+            performanceSettings: FrontendPerformanceSettings
     ) {
         val analysisResult = TopDownAnalyzerFacadeForJS.analyzeFilesWithGivenTrace(jetFiles, moduleTrace, moduleContext, config)
         val diagnostics = analysisResult.bindingTrace.bindingContext.diagnostics
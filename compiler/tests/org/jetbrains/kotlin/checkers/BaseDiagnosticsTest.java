@@ -83,6 +83,8 @@ public abstract class BaseDiagnosticsTest extends
 
     public static final String MARK_DYNAMIC_CALLS_DIRECTIVE = "MARK_DYNAMIC_CALLS";
 
+    public static final String FAIL_FAST_INFERENCE_DIRECTIVE = "FAIL_FAST_INFERENCE";
+
     @Override
     protected TestModule createTestModule(@NotNull String name) {
         return new TestModule(name);
@@ -245,6 +247,7 @@ public abstract class BaseDiagnosticsTest extends
         private final boolean declareCheckType;
         private final boolean declareFlexibleType;
         public final boolean checkLazyLog;
+        public final boolean failFastInference;
         private final boolean markDynamicCalls;
         private final List<DeclarationDescriptor> dynamicCallDescriptors = new ArrayList<DeclarationDescriptor>();
 
@@ -260,6 +263,7 @@ public abstract class BaseDiagnosticsTest extends
             this.declareCheckType = directives.containsKey(CHECK_TYPE_DIRECTIVE);
             this.declareFlexibleType = directives.containsKey(EXPLICIT_FLEXIBLE_TYPES_DIRECTIVE);
             this.markDynamicCalls = directives.containsKey(MARK_DYNAMIC_CALLS_DIRECTIVE);
+            this.failFastInference = directives.containsKey(FAIL_FAST_INFERENCE_DIRECTIVE);
             if (fileName.endsWith(".java")) {
                 PsiFileFactory.getInstance(getProject()).createFileFromText(fileName, JavaLanguage.INSTANCE, textWithMarkers);
                 // TODO: check there's not syntax errors
@@ -8433,6 +8433,45 @@ public class DiagnosticsTestGenerated extends AbstractDiagnosticsTest {
                 }
             }
 
+            @TestMetadata("compiler/testData/diagnostics/tests/inference/failFast")
+            @TestDataPath("$PROJECT_ROOT")
+            @RunWith(JUnit3RunnerWithInners.class)
+            public static class FailFast extends AbstractDiagnosticsTest {
+                public void testAllFilesPresentInFailFast() throws Exception {
+                    KotlinTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/diagnostics/tests/inference/failFast"), Pattern.compile("^(.+)\\.kt$"), true);
+                }
+
+                @TestMetadata("FunctionPlaceholder.kt")
+                public void testFunctionPlaceholder() throws Exception {
+                    String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/inference/failFast/FunctionPlaceholder.kt");
+                    doTest(fileName);
+                }
+
+                @TestMetadata("completeInferenceIfManyFailed.kt")
+                public void testCompleteInferenceIfManyFailed() throws Exception {
+                    String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/inference/failFast/completeInferenceIfManyFailed.kt");
+                    doTest(fileName);
+                }
+
+                @TestMetadata("conflictingSubstitutions.kt")
+                public void testConflictingSubstitutions() throws Exception {
+                    String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/inference/failFast/conflictingSubstitutions.kt");
+                    doTest(fileName);
+                }
+
+                @TestMetadata("intersectUpperBounds.kt")
+                public void testIntersectUpperBounds() throws Exception {
+                    String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/inference/failFast/intersectUpperBounds.kt");
+                    doTest(fileName);
+                }
+
+                @TestMetadata("kt2283.kt")
+                public void testKt2283() throws Exception {
+                    String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/inference/failFast/kt2283.kt");
+                    doTest(fileName);
+                }
+            }
+
             @TestMetadata("compiler/testData/diagnostics/tests/inference/nestedCalls")
             @TestDataPath("$PROJECT_ROOT")
             @RunWith(JUnit3RunnerWithInners.class)
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.cli.jvm
+
+import com.intellij.core.CoreJarFileSystem
+import junit.framework.TestCase
+import org.jetbrains.kotlin.cli.jvm.compiler.JavaRoot
+import org.jetbrains.kotlin.cli.jvm.compiler.JvmDependenciesIndex
+import org.jetbrains.kotlin.codegen.forTestCompile.ForTestCompileRuntime
+import org.jetbrains.kotlin.name.ClassId
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.kotlin.name.Name
+import java.io.File
+import java.io.FileOutputStream
+import java.util.*
+import java.util.zip.ZipEntry
+import java.util.zip.ZipFile
+import java.util.zip.ZipOutputStream
+
+class JvmDependenciesIndexTest : TestCase() {
+    private val jars = listOf(
+            ForTestCompileRuntime.runtimeJarForTests(),
+            ForTestCompileRuntime.reflectJarForTests(),
+            ForTestCompileRuntime.kotlinTestJarForTests()
+    )
+
+    fun testJarPackagesIndexGivesSameResultsAsTraversal() {
+        val classes = jars.flatMap { classIdsIn(it) }
+        val packages = classes.map { it.packageFqName }.toSet() + listOf(FqName("kotlin.nonexistent"), FqName("org.nonexistent"))
+
+        val indexed = createIndex(useJarPackagesIndex = true)
+        val traversing = createIndex(useJarPackagesIndex = false)
+
+        for (packageFqName in packages) {
+            assertEquals("Directories of $packageFqName", directoriesOf(traversing, packageFqName), directoriesOf(indexed, packageFqName))
+        }
+        for (classId in classes + ClassId.topLevel(FqName("kotlin.Nonexistent"))) {
+            assertEquals("Class $classId", findClass(traversing, classId), findClass(indexed, classId))
+        }
+    }
+
+    fun testJarWithoutDirectoryEntries() {
+        val jar = File.createTempFile("noDirectoryEntries", ".jar")
+        try {
+            val output = ZipOutputStream(FileOutputStream(jar))
+            try {
+                output.putNextEntry(ZipEntry("a/b/C.class"))
+                output.closeEntry()
+                output.putNextEntry(ZipEntry("D.class"))
+                output.closeEntry()
+            }
+            finally {
+                output.close()
+            }
+
+            val indexed = createIndex(useJarPackagesIndex = true, jars = listOf(jar))
+            val traversing = createIndex(useJarPackagesIndex = false, jars = listOf(jar))
+            for (packageFqName in listOf(FqName.ROOT, FqName("a"), FqName("a.b"), FqName("a.c"), FqName("b"))) {
+                assertEquals("Directories of $packageFqName", directoriesOf(traversing, packageFqName), directoriesOf(indexed, packageFqName))
+            }
+            assertEquals(1, directoriesOf(indexed, FqName("a.b")).size)
+        }
+        finally {
+            jar.delete()
+        }
+    }
+
+    private fun createIndex(useJarPackagesIndex: Boolean, jars: List<File> = this.jars): JvmDependenciesIndex {
+        val fileSystem = CoreJarFileSystem()
+        val roots = jars.map { JavaRoot(fileSystem.findFileByPath(it.absolutePath + "!/")!!, JavaRoot.RootType.BINARY) }
+        return JvmDependenciesIndex(roots, useJarPackagesIndex)
+    }
+
+    private fun directoriesOf(index: JvmDependenciesIndex, packageFqName: FqName): List<String> {
+        val result = ArrayList<String>()
+        index.traverseDirectoriesInPackage(packageFqName) { dir, rootType ->
+            result.add(dir.path)
+            true
+        }
+        return result
+    }
+
+    private fun findClass(index: JvmDependenciesIndex, classId: ClassId): String? =
+            index.findClass(classId) { dir, rootType ->
+                dir.findChild(classId.relativeClassName.asString().replace('.', '$') + ".class")?.path
+            }
+
+    private fun classIdsIn(jar: File): List<ClassId> {
+        val zip = ZipFile(jar)
+        try {
+            return Collections.list(zip.entries()).map { it.name }.filter { it.endsWith(".class") && '$' !in it }.map { name ->
+                val path = name.removeSuffix(".class")
+                val packageFqName = FqName(path.substringBeforeLast('/', "").replace('/', '.'))
+                ClassId(packageFqName, Name.identifier(path.substringAfterLast('/')))
+            }
+        }
+        finally {
+            zip.close()
+        }
+    }
+}
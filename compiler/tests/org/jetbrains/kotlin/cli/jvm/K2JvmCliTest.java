@@ -65,6 +65,14 @@ public class K2JvmCliTest extends CliBaseTest {
         executeCompilerCompareOutputJVM();
     }
 
+    @Test
+    public void releaseBindings() throws Exception {
+        executeCompilerCompareOutputJVM();
+
+        Assert.assertTrue(new File(tmpdir.getTmpDir(), "a/ReleaseBindings1Kt.class").isFile());
+        Assert.assertTrue(new File(tmpdir.getTmpDir(), "b/ReleaseBindings2Kt.class").isFile());
+    }
+
     @Test
     public void warningsInDummy() throws Exception {
         executeCompilerCompareOutputJVM();
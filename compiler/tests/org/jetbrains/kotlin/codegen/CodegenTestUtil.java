@@ -28,8 +28,12 @@ import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
 import org.jetbrains.kotlin.cli.jvm.config.JVMConfigurationKeys;
 import org.jetbrains.kotlin.codegen.forTestCompile.ForTestCompileRuntime;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.state.Progress;
 import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.name.FqName;
+import org.jetbrains.kotlin.psi.KtFile;
 import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil;
+import org.jetbrains.kotlin.test.InTextDirectivesUtils;
 import org.jetbrains.kotlin.test.KotlinTestUtils;
 import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
 
@@ -65,7 +69,20 @@ public class CodegenTestUtil {
                 GenerationState.GenerateClassFilter.GENERATE_ALL,
                 configuration.get(JVMConfigurationKeys.DISABLE_INLINE, false),
                 configuration.get(JVMConfigurationKeys.DISABLE_OPTIMIZATION, false),
-                /* useTypeTableInSerializer = */ false
+                /* useTypeTableInSerializer = */ false,
+                Collections.<FqName>emptySet(),
+                Collections.<FqName>emptySet(),
+                /* targetId = */ null,
+                /* moduleName = */ null,
+                /* outDirectory = */ null,
+                /* incrementalCompilationComponents = */ null,
+                /* generateOpenMultifileClasses = */ false,
+                Progress.DEAF,
+                /* codegenThreads = */ 1,
+                isDirectiveDefined(files.getPsiFiles(), "FUSE_COLLECTION_CHAINS"),
+                isDirectiveDefined(files.getPsiFiles(), "DIRECT_COMPANION_ACCESS"),
+                isDirectiveDefined(files.getPsiFiles(), "INVOKEDYNAMIC_LAMBDAS"),
+                isDirectiveDefined(files.getPsiFiles(), "SEALED_CLASS_SWITCH")
         );
         KotlinCodegenFacade.compileCorrectFiles(state, CompilationErrorHandler.THROW_EXCEPTION);
 
@@ -75,6 +92,14 @@ public class CodegenTestUtil {
         return state.getFactory();
     }
 
+    // Flags of experimental code generation modes are enabled for a test by directives in its files, e.g. "// FUSE_COLLECTION_CHAINS"
+    static boolean isDirectiveDefined(@NotNull List<KtFile> files, @NotNull String directive) {
+        for (KtFile file : files) {
+            if (InTextDirectivesUtils.isDirectiveDefined(file.getText(), directive)) return true;
+        }
+        return false;
+    }
+
     public static void assertThrows(@NotNull Method foo, @NotNull Class<? extends Throwable> exceptionClass,
             @Nullable Object instance, @NotNull Object... args) throws IllegalAccessException {
         boolean caught = false;
@@ -22,7 +22,9 @@ import org.jetbrains.kotlin.analyzer.AnalysisResult;
 import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider;
 import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.state.Progress;
 import org.jetbrains.kotlin.descriptors.PackagePartProvider;
+import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.psi.KtFile;
 import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil;
 
@@ -83,7 +85,20 @@ public class GenerationUtils {
                 GenerationState.GenerateClassFilter.GENERATE_ALL,
                 /* disableInline = */ false,
                 /* disableOptimization = */ false,
-                useTypeTableInSerializer
+                useTypeTableInSerializer,
+                Collections.<FqName>emptySet(),
+                Collections.<FqName>emptySet(),
+                /* targetId = */ null,
+                /* moduleName = */ null,
+                /* outDirectory = */ null,
+                /* incrementalCompilationComponents = */ null,
+                /* generateOpenMultifileClasses = */ false,
+                Progress.DEAF,
+                /* codegenThreads = */ 1,
+                CodegenTestUtil.isDirectiveDefined(files, "FUSE_COLLECTION_CHAINS"),
+                CodegenTestUtil.isDirectiveDefined(files, "DIRECT_COMPANION_ACCESS"),
+                CodegenTestUtil.isDirectiveDefined(files, "INVOKEDYNAMIC_LAMBDAS"),
+                CodegenTestUtil.isDirectiveDefined(files, "SEALED_CLASS_SWITCH")
         );
         KotlinCodegenFacade.compileCorrectFiles(state, CompilationErrorHandler.THROW_EXCEPTION);
         return state;
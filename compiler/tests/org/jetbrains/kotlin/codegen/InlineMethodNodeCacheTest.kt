@@ -0,0 +1,73 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.codegen
+
+import com.intellij.openapi.vfs.StandardFileSystems
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import org.jetbrains.kotlin.codegen.forTestCompile.ForTestCompileRuntime
+import org.jetbrains.kotlin.codegen.inline.InlineCodegenUtil
+import org.jetbrains.kotlin.codegen.inline.InlineMethodNodeCache
+import org.jetbrains.kotlin.name.ClassId
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.kotlin.test.ConfigurationKind
+
+class InlineMethodNodeCacheTest : CodegenTestCase() {
+    override fun setUp() {
+        super.setUp()
+        createEnvironmentWithMockJdkAndIdeaAnnotations(ConfigurationKind.ALL)
+    }
+
+    fun testCallSitesGetIndependentCopies() {
+        val file = findClassFile()
+        val expected = InlineCodegenUtil.getNodeText(InlineCodegenUtil.getMethodNode(file.contentsToByteArray(), NAME, DESC, CLASS_ID)!!.node)
+        val cache = InlineMethodNodeCache()
+
+        val first = cache.getMethodNode(file, NAME, DESC, CLASS_ID)!!
+        val second = cache.getMethodNode(file, NAME, DESC, CLASS_ID)!!
+        assertNotSame(first.node, second.node)
+        assertEquals(expected, InlineCodegenUtil.getNodeText(first.node))
+        assertEquals(expected, InlineCodegenUtil.getNodeText(second.node))
+        assertEquals(first.lineNumbers.size, second.lineNumbers.size)
+
+        first.node.instructions.clear()
+        assertEquals(expected, InlineCodegenUtil.getNodeText(cache.getMethodNode(file, NAME, DESC, CLASS_ID)!!.node))
+    }
+
+    fun testMissingMethodIsNotCached() {
+        val file = findClassFile()
+        val cache = InlineMethodNodeCache()
+
+        assertNull(cache.getMethodNode(file, "noSuchMethod", DESC, CLASS_ID))
+        assertNull(cache.getMethodNode(file, "noSuchMethod", DESC, CLASS_ID))
+        assertNotNull(cache.getMethodNode(file, NAME, DESC, CLASS_ID))
+    }
+
+    private fun findClassFile(): VirtualFile {
+        val path = ForTestCompileRuntime.runtimeJarForTests().path + "!/kotlin/collections/CollectionsKt___CollectionsKt.class"
+        val file = VirtualFileManager.getInstance().getFileSystem(StandardFileSystems.JAR_PROTOCOL).findFileByPath(path)
+        assertNotNull("Class file not found: $path", file)
+        return file!!
+    }
+
+    companion object {
+        private val NAME = "forEach"
+        private val DESC = "(Ljava/lang/Iterable;Lkotlin/jvm/functions/Function1;)V"
+        private val CLASS_ID = ClassId.topLevel(FqName("kotlin.collections.CollectionsKt"))
+    }
+}
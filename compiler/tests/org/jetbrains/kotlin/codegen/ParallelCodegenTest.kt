@@ -0,0 +1,71 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen
+
+import org.jetbrains.kotlin.analyzer.AnalysisResult
+import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider
+import org.jetbrains.kotlin.codegen.state.GenerationState
+import org.jetbrains.kotlin.psi.KtFile
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+
+class ParallelCodegenTest : CodegenTestCase() {
+    fun testOutputIsTheSameAsInSequentialMode() {
+        createEnvironmentWithMockJdkAndIdeaAnnotations(ConfigurationKind.ALL)
+
+        val files = (1..8).map { KotlinTestUtils.createFile("file$it.kt", packageText(it), myEnvironment.project) }
+        val analysisResult = JvmResolveUtil.analyzeFilesWithJavaIntegrationAndCheckForErrors(
+                myEnvironment.project, files, JvmPackagePartProvider(myEnvironment)
+        )
+
+        val sequential = generate(analysisResult, files, codegenThreads = 1)
+        for (i in 1..5) {
+            assertEquals(sequential, generate(analysisResult, files, codegenThreads = 4))
+        }
+    }
+
+    private fun generate(analysisResult: AnalysisResult, files: List<KtFile>, codegenThreads: Int): String {
+        val state = GenerationState(
+                myEnvironment.project, ClassBuilderFactories.TEST, analysisResult.moduleDescriptor, analysisResult.bindingContext, files,
+                codegenThreads = codegenThreads
+        )
+        KotlinCodegenFacade.compileCorrectFiles(state, CompilationErrorHandler.THROW_EXCEPTION)
+        return state.factory.createText()
+    }
+
+    private fun packageText(index: Int) = """
+        package p$index
+
+        enum class Color { RED, GREEN }
+
+        inline fun <T> measure$index(block: () -> T): T = block()
+
+        fun colorName(c: Color) = when (c) {
+            Color.RED -> "red"
+            Color.GREEN -> "green"
+        }
+
+        class Holder(val value: Int) {
+            fun sum(list: List<Int>) = measure$index { list.fold(value) { a, b -> a + b } }
+
+            fun runnable(): Runnable = Runnable { colorName(Color.RED) }
+
+            fun local() = p1.measure1 { object { val x = value }.x }
+        }
+    """
+}
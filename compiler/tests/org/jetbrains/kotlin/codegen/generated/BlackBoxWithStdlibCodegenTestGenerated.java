@@ -319,6 +319,12 @@ public class BlackBoxWithStdlibCodegenTestGenerated extends AbstractBlackBoxCode
             doTestWithStdlib(fileName);
         }
 
+        @TestMetadata("compareToAndEquals.kt")
+        public void testCompareToAndEquals() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/boxingOptimization/compareToAndEquals.kt");
+            doTestWithStdlib(fileName);
+        }
+
         @TestMetadata("fold.kt")
         public void testFold() throws Exception {
             String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/boxingOptimization/fold.kt");
@@ -1928,6 +1934,39 @@ public class BlackBoxWithStdlibCodegenTestGenerated extends AbstractBlackBoxCode
         }
     }
 
+    @TestMetadata("compiler/testData/codegen/boxWithStdlib/fusedCollectionChains")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class FusedCollectionChains extends AbstractBlackBoxCodegenTest {
+        public void testAllFilesPresentInFusedCollectionChains() throws Exception {
+            KotlinTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/boxWithStdlib/fusedCollectionChains"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("interleavedOperations.kt")
+        public void testInterleavedOperations() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/fusedCollectionChains/interleavedOperations.kt");
+            doTestWithStdlib(fileName);
+        }
+
+        @TestMetadata("notFusedWithoutFlag.kt")
+        public void testNotFusedWithoutFlag() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/fusedCollectionChains/notFusedWithoutFlag.kt");
+            doTestWithStdlib(fileName);
+        }
+
+        @TestMetadata("results.kt")
+        public void testResults() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/fusedCollectionChains/results.kt");
+            doTestWithStdlib(fileName);
+        }
+
+        @TestMetadata("shortCircuit.kt")
+        public void testShortCircuit() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/fusedCollectionChains/shortCircuit.kt");
+            doTestWithStdlib(fileName);
+        }
+    }
+
     @TestMetadata("compiler/testData/codegen/boxWithStdlib/hashPMap")
     @TestDataPath("$PROJECT_ROOT")
     @RunWith(JUnit3RunnerWithInners.class)
@@ -2719,6 +2758,24 @@ public class BlackBoxWithStdlibCodegenTestGenerated extends AbstractBlackBoxCode
             doTestWithStdlib(fileName);
         }
 
+        @TestMetadata("forInIndices.kt")
+        public void testForInIndices() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/ranges/forInIndices.kt");
+            doTestWithStdlib(fileName);
+        }
+
+        @TestMetadata("forInProgressionExceptions.kt")
+        public void testForInProgressionExceptions() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/ranges/forInProgressionExceptions.kt");
+            doTestWithStdlib(fileName);
+        }
+
+        @TestMetadata("forInSteppedProgression.kt")
+        public void testForInSteppedProgression() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/ranges/forInSteppedProgression.kt");
+            doTestWithStdlib(fileName);
+        }
+
         @TestMetadata("forIntRange.kt")
         public void testForIntRange() throws Exception {
             String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/ranges/forIntRange.kt");
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.resolve;
+
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider;
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings;
+import org.jetbrains.kotlin.diagnostics.Diagnostic;
+import org.jetbrains.kotlin.diagnostics.DiagnosticUtils;
+import org.jetbrains.kotlin.diagnostics.rendering.DefaultErrorMessages;
+import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil;
+import org.jetbrains.kotlin.resolve.lazy.KotlinTestWithEnvironment;
+import org.jetbrains.kotlin.test.KotlinTestUtils;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+
+public class ParallelBodyResolveTest extends KotlinTestWithEnvironment {
+    private static final String TEST_DATA_PATH = "compiler/testData/resolve/parallelBodyResolve/";
+
+    @Override
+    protected KotlinCoreEnvironment createEnvironment() {
+        return KotlinTestUtils.createEnvironmentWithMockJdkAndIdeaAnnotations(getTestRootDisposable());
+    }
+
+    public void testDiagnosticsAreTheSameAsInSequentialMode() throws Exception {
+        assertEquals(renderDiagnostics(analyze(1), true), renderDiagnostics(analyze(4), true));
+    }
+
+    public void testOrderOfDiagnosticsDoesNotDependOnScheduling() throws Exception {
+        String expected = renderDiagnostics(analyze(4), false);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected, renderDiagnostics(analyze(4), false));
+        }
+    }
+
+    private BindingContext analyze(int parallelism) throws Exception {
+        File file = new File(TEST_DATA_PATH + "diagnostics.kt");
+        KtFile ktFile = KotlinTestUtils.createFile(file.getName(), FileUtil.loadFile(file, true), getProject());
+        return JvmResolveUtil.analyzeFilesWithJavaIntegration(
+                getProject(), Collections.singleton(ktFile), new JvmPackagePartProvider(getEnvironment()),
+                new FrontendPerformanceSettings(parallelism)
+        ).getBindingContext();
+    }
+
+    private static String renderDiagnostics(BindingContext bindingContext, boolean sorted) {
+        Collection<Diagnostic> diagnostics = bindingContext.getDiagnostics().all();
+        StringBuilder result = new StringBuilder();
+        for (Diagnostic diagnostic : sorted ? DiagnosticUtils.sortedDiagnostics(diagnostics) : diagnostics) {
+            result.append(diagnostic.getTextRanges()).append(": ").append(DefaultErrorMessages.render(diagnostic)).append("\n");
+        }
+        return result.toString();
+    }
+}
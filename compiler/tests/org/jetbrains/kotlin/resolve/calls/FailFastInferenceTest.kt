@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.resolve.calls
+
+import com.intellij.openapi.util.io.FileUtil
+import org.jetbrains.kotlin.checkers.CheckerTestUtil
+import org.jetbrains.kotlin.cli.jvm.compiler.CliLightClassGenerationSupport
+import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings
+import org.jetbrains.kotlin.diagnostics.rendering.DefaultErrorMessages
+import org.jetbrains.kotlin.psi.KtExpression
+import org.jetbrains.kotlin.resolve.BindingContext
+import org.jetbrains.kotlin.resolve.jvm.TopDownAnalyzerFacadeForJVM
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil
+import org.jetbrains.kotlin.resolve.lazy.KotlinTestWithEnvironment
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import org.jetbrains.kotlin.util.slicedMap.WritableSlice
+import java.io.File
+import java.util.*
+import java.util.regex.Pattern
+
+class FailFastInferenceTest : KotlinTestWithEnvironment() {
+    override fun createEnvironment(): KotlinCoreEnvironment {
+        return KotlinTestUtils.createEnvironmentWithMockJdkAndIdeaAnnotations(testRootDisposable!!, ConfigurationKind.JDK_ONLY)
+    }
+
+    fun testSameDiagnosticsAsWithoutFailFast() {
+        val testFiles = FileUtil.findFilesByMask(Pattern.compile(".+\\.kt"), TEST_DATA_DIR).filter {
+            val text = FileUtil.loadFile(it, true)
+            text.contains("TYPE_INFERENCE_") && !text.contains("// FILE:") && !text.contains("// MODULE:")
+        }
+        assertTrue(testFiles.isNotEmpty())
+
+        var inferenceErrors = 0
+        for (file in testFiles) {
+            val expected = analyze(file, FrontendPerformanceSettings.DEFAULT)
+            val actual = analyze(file, FrontendPerformanceSettings(failFastInference = true))
+
+            val diagnostics = renderDiagnostics(actual.bindingContext)
+            assertEquals(file.path, renderDiagnostics(expected.bindingContext), diagnostics)
+            inferenceErrors += diagnostics.split("TYPE_INFERENCE_").size - 1
+
+            // Arguments typed before a contradiction must not be typed again when the complete system is built
+            val recordedMoreOften = actual.typeInfoRecords.filter { it.value > (expected.typeInfoRecords[it.key] ?: 0) }
+            assertTrue("${file.path}: types of expressions recorded more often with fail-fast inference: $recordedMoreOften",
+                       recordedMoreOften.isEmpty())
+        }
+        assertTrue("No type inference errors in test data", inferenceErrors > 0)
+    }
+
+    // Messages of type inference errors contain the bounds of the type variables
+    private fun renderDiagnostics(context: BindingContext): String =
+            context.diagnostics.all().map { "${it.textRanges}: ${it.factory.name}: ${DefaultErrorMessages.render(it)}" }.sorted().joinToString("\n")
+
+    private fun analyze(file: File, performanceSettings: FrontendPerformanceSettings): TypeInfoRecordingTrace {
+        val text = CheckerTestUtil.parseDiagnosedRanges(FileUtil.loadFile(file, true), ArrayList())
+        val ktFile = KotlinTestUtils.createFile(file.name, text, environment.project)
+
+        val trace = TypeInfoRecordingTrace()
+        TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegrationWithCustomContext(
+                TopDownAnalyzerFacadeForJVM.createContextWithSealedModule(environment.project, JvmResolveUtil.TEST_MODULE_NAME),
+                listOf(ktFile), trace, null, null, JvmPackagePartProvider(environment), performanceSettings
+        )
+        return trace
+    }
+
+    private class TypeInfoRecordingTrace : CliLightClassGenerationSupport.CliBindingTrace() {
+        val typeInfoRecords = HashMap<String, Int>()
+
+        override fun <K, V> record(slice: WritableSlice<K, V>, key: K, value: V) {
+            if (slice === BindingContext.EXPRESSION_TYPE_INFO) {
+                val expression = key as KtExpression
+                val position = "${expression.textRange}: ${expression.text}"
+                typeInfoRecords[position] = (typeInfoRecords[position] ?: 0) + 1
+            }
+            super.record(slice, key, value)
+        }
+    }
+
+    companion object {
+        private val TEST_DATA_DIR = File("compiler/testData/diagnostics/tests/inference")
+    }
+}
@@ -77,7 +77,7 @@ abstract class AbstractConstraintSystemTest() : KotlinLiteFixture() {
         val constraintsFile = File(filePath)
         val constraintsFileText = constraintsFile.readLines()
 
-        val builder = ConstraintSystemBuilderImpl()
+        val builder = ConstraintSystemBuilderImpl(failFast = constraintsFileText.contains("FAIL_FAST"))
 
         val variables = parseVariables(constraintsFileText)
         val fixVariables = constraintsFileText.contains("FIX_VARIABLES")
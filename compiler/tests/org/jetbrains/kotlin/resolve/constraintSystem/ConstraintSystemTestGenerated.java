@@ -49,6 +49,12 @@ public class ConstraintSystemTestGenerated extends AbstractConstraintSystemTest
             doTest(fileName);
         }
 
+        @TestMetadata("conflictingConstraintsFailFast.constraints")
+        public void testConflictingConstraintsFailFast() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/constraintSystem/checkStatus/conflictingConstraintsFailFast.constraints");
+            doTest(fileName);
+        }
+
         @TestMetadata("successful.constraints")
         public void testSuccessful() throws Exception {
             String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/constraintSystem/checkStatus/successful.constraints");
@@ -22,6 +22,7 @@ import org.jetbrains.kotlin.analyzer.AnalysisResult;
 import org.jetbrains.kotlin.cli.jvm.compiler.CliLightClassGenerationSupport;
 import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider;
 import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings;
 import org.jetbrains.kotlin.context.ModuleContext;
 import org.jetbrains.kotlin.descriptors.PackagePartProvider;
 import org.jetbrains.kotlin.psi.KtFile;
@@ -106,12 +107,21 @@ public class JvmResolveUtil {
             @NotNull Collection<KtFile> files,
             @NotNull PackagePartProvider packagePartProvider
     ) {
+        return analyzeFilesWithJavaIntegration(project, files, packagePartProvider, FrontendPerformanceSettings.DEFAULT);
+    }
 
+    @NotNull
+    public static AnalysisResult analyzeFilesWithJavaIntegration(
+            @NotNull Project project,
+            @NotNull Collection<KtFile> files,
+            @NotNull PackagePartProvider packagePartProvider,
+            @NotNull FrontendPerformanceSettings performanceSettings
+    ) {
         ModuleContext moduleContext = TopDownAnalyzerFacadeForJVM.createContextWithSealedModule(project, TEST_MODULE_NAME);
 
         BindingTrace trace = new CliLightClassGenerationSupport.CliBindingTrace();
 
         return TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegrationWithCustomContext(moduleContext, files, trace, null, null,
-                                                                                            packagePartProvider);
+                                                                                            packagePartProvider, performanceSettings);
     }
 }
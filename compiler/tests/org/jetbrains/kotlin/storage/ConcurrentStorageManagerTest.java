@@ -0,0 +1,118 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.storage;
+
+import kotlin.jvm.functions.Function0;
+import kotlin.jvm.functions.Function1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentStorageManagerTest extends StorageManagerTest {
+    private static final int THREADS = 8;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        m = new ConcurrentStorageManager();
+    }
+
+    public void testAllThreadsSeeTheSamePublishedValue() throws Exception {
+        final NotNullLazyValue<Object> value = m.createLazyValue(new Function0<Object>() {
+            @Override
+            public Object invoke() {
+                return new Object();
+            }
+        });
+        final MemoizedFunctionToNotNull<Integer, Object> function = m.createMemoizedFunction(new Function1<Integer, Object>() {
+            @Override
+            public Object invoke(Integer integer) {
+                return new Object();
+            }
+        });
+
+        List<Object[]> results = runConcurrently(new Callable<Object[]>() {
+            @Override
+            public Object[] call() {
+                return new Object[] { value.invoke(), function.invoke(42) };
+            }
+        });
+
+        for (Object[] result : results) {
+            assertSame(value.invoke(), result[0]);
+            assertSame(function.invoke(42), result[1]);
+        }
+    }
+
+    public void testDifferentValuesAreComputedConcurrently() throws Exception {
+        final CountDownLatch allStarted = new CountDownLatch(THREADS);
+        final MemoizedFunctionToNotNull<Integer, Boolean> function = m.createMemoizedFunction(new Function1<Integer, Boolean>() {
+            @Override
+            public Boolean invoke(Integer integer) {
+                allStarted.countDown();
+                try {
+                    // would time out if computations were serialized
+                    return allStarted.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        final AtomicInteger keys = new AtomicInteger();
+        List<Boolean> results = runConcurrently(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return function.invoke(keys.incrementAndGet());
+            }
+        });
+
+        for (Boolean result : results) {
+            assertTrue(result);
+        }
+    }
+
+    private static <T> List<T> runConcurrently(final Callable<T> task) throws Exception {
+        final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<T>> futures = new ArrayList<Future<T>>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(new Callable<T>() {
+                    @Override
+                    public T call() throws Exception {
+                        barrier.await();
+                        return task.call();
+                    }
+                }));
+            }
+
+            List<T> results = new ArrayList<T>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.types
+
+import org.jetbrains.kotlin.builtins.DefaultBuiltIns
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
+import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings
+import org.jetbrains.kotlin.resolve.BindingContext
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil
+import org.jetbrains.kotlin.resolve.lazy.KotlinTestWithEnvironment
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import org.jetbrains.kotlin.types.checker.KotlinTypeChecker
+import org.jetbrains.kotlin.types.checker.SubtypeCache
+import java.io.File
+
+class SubtypeCacheTest : KotlinTestWithEnvironment() {
+    override fun createEnvironment(): KotlinCoreEnvironment {
+        return KotlinTestUtils.createEnvironmentWithMockJdkAndIdeaAnnotations(testRootDisposable!!, ConfigurationKind.JDK_ONLY)
+    }
+
+    fun testSameResultsWithCache() {
+        val types = analyzeTestData().getSliceContents(BindingContext.EXPRESSION_TYPE_INFO).values
+                .mapNotNull { it.type }.distinct().take(200)
+        assertTrue(types.isNotEmpty())
+
+        val expected = types.flatMap { subtype -> types.map { supertype -> KotlinTypeChecker.DEFAULT.isSubtypeOf(subtype, supertype) } }
+
+        val cache = SubtypeCache()
+        SubtypeCache.withCache(cache) {
+            assertSame(cache, SubtypeCache.getCurrent())
+            for (pass in 1..2) {
+                val actual = types.flatMap { subtype -> types.map { supertype -> KotlinTypeChecker.DEFAULT.isSubtypeOf(subtype, supertype) } }
+                assertEquals("Pass $pass", expected, actual)
+            }
+            assertTrue("No hits: ${cache.misses} misses", cache.hits > 0)
+        }
+        assertNull(SubtypeCache.getCurrent())
+    }
+
+    fun testCacheIsBounded() {
+        val builtIns = DefaultBuiltIns.Instance
+        val cache = SubtypeCache(maxSize = 2)
+        val first = cache.createKey(builtIns.intType, builtIns.anyType)!!
+        val second = cache.createKey(builtIns.stringType, builtIns.anyType)!!
+        val third = cache.createKey(builtIns.nullableAnyType, builtIns.anyType)!!
+
+        cache.putSubtypeResult(first, true)
+        cache.putSubtypeResult(second, true)
+        cache.putSubtypeResult(third, false)
+
+        assertNull(cache.getSubtypeResult(first))
+        assertEquals(true, cache.getSubtypeResult(second))
+        assertEquals(false, cache.getSubtypeResult(third))
+        assertEquals(2L, cache.hits)
+        assertEquals(1L, cache.misses)
+    }
+
+    fun testSameAnalysisResultsWithCache() {
+        val expected = renderTypesAndDiagnostics(analyzeTestData())
+        val actual = renderTypesAndDiagnostics(analyzeTestData(FrontendPerformanceSettings(cacheSubtypeChecks = true)))
+        assertEquals(expected, actual)
+        assertNull(SubtypeCache.getCurrent())
+    }
+
+    private fun renderTypesAndDiagnostics(context: BindingContext): String {
+        val types = context.getSliceContents(BindingContext.EXPRESSION_TYPE_INFO).entries
+                .map { "${it.key.containingFile.name}:${it.key.textRange}: ${it.value.type}" }.sorted()
+        val diagnostics = context.diagnostics.all().map { "${it.psiFile.name}:${it.textRanges}: ${it.factory.name}" }.sorted()
+        return (types + diagnostics).joinToString("\n")
+    }
+
+    private fun analyzeTestData(performanceSettings: FrontendPerformanceSettings = FrontendPerformanceSettings.DEFAULT): BindingContext {
+        val files = TEST_DATA_DIR.listFiles { file -> file.name.endsWith(".kt") }!!.sortedBy { it.name }.map {
+            KotlinTestUtils.loadJetFile(environment.project, it)
+        }
+        return JvmResolveUtil.analyzeFilesWithJavaIntegration(
+                environment.project, files, JvmPackagePartProvider(environment), performanceSettings
+        ).bindingContext
+    }
+
+    companion object {
+        private val TEST_DATA_DIR = File("compiler/testData/codegen/box/bridges")
+    }
+}
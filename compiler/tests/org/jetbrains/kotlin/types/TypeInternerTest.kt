@@ -0,0 +1,106 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.types
+
+import org.jetbrains.kotlin.builtins.DefaultBuiltIns
+import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
+import org.jetbrains.kotlin.config.FrontendPerformanceSettings
+import org.jetbrains.kotlin.descriptors.annotations.Annotations
+import org.jetbrains.kotlin.psi.KtProperty
+import org.jetbrains.kotlin.resolve.BindingContext
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil
+import org.jetbrains.kotlin.resolve.lazy.KotlinTestWithEnvironment
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+
+class TypeInternerTest : KotlinTestWithEnvironment() {
+    override fun createEnvironment(): KotlinCoreEnvironment {
+        return KotlinTestUtils.createEnvironmentWithMockJdkAndIdeaAnnotations(testRootDisposable!!, ConfigurationKind.JDK_ONLY)
+    }
+
+    fun testEqualTypesAreInternedOnce() {
+        val builtIns = DefaultBuiltIns.Instance
+        val interner = TypeInterner()
+
+        fun listType(argument: TypeProjection, nullable: Boolean = false) =
+                interner.intern(builtIns.list, Annotations.EMPTY, nullable, listOf(argument))
+
+        val listOfString = listType(TypeProjectionImpl(builtIns.stringType))
+        assertSame(listOfString, listType(TypeProjectionImpl(builtIns.stringType)))
+        assertEquals(KotlinTypeImpl.create(Annotations.EMPTY, builtIns.list, false, listOf(TypeProjectionImpl(builtIns.stringType))),
+                     listOfString)
+
+        assertNotSame(listOfString, listType(TypeProjectionImpl(builtIns.stringType), nullable = true))
+        assertNotSame(listOfString, listType(TypeProjectionImpl(Variance.OUT_VARIANCE, builtIns.stringType)))
+        assertNotSame(listOfString, listType(TypeProjectionImpl(builtIns.anyType)))
+
+        val starProjection = TypeUtils.makeStarProjection(builtIns.list.typeConstructor.parameters.single())
+        assertSame(listType(starProjection), listType(TypeUtils.makeStarProjection(builtIns.list.typeConstructor.parameters.single())))
+
+        assertEquals(5, interner.size)
+        assertEquals(7L, interner.requests)
+        assertEquals(2L, interner.hits)
+    }
+
+    fun testFullInternerIsEvicted() {
+        val builtIns = DefaultBuiltIns.Instance
+        val interner = TypeInterner(maxSize = 1)
+
+        val first = interner.intern(builtIns.list, Annotations.EMPTY, false, listOf(TypeProjectionImpl(builtIns.stringType)))
+        val second = interner.intern(builtIns.list, Annotations.EMPTY, false, listOf(TypeProjectionImpl(builtIns.anyType)))
+
+        assertSame(second, interner.intern(builtIns.list, Annotations.EMPTY, false, listOf(TypeProjectionImpl(builtIns.anyType))))
+        assertNotSame(first, interner.intern(builtIns.list, Annotations.EMPTY, false, listOf(TypeProjectionImpl(builtIns.stringType))))
+        assertEquals(1, interner.size)
+    }
+
+    fun testResolvedAndSubstitutedTypesAreInterned() {
+        val types = analyzePropertyTypes(FrontendPerformanceSettings(internTypes = true))
+
+        assertSame(types["a"], types["b"])
+        assertSame(types["c"], types["d"])
+        assertNotSame(types["a"], types["e"])
+        assertNull(TypeInterner.getCurrent())
+    }
+
+    fun testTypesAreNotInternedByDefault() {
+        val types = analyzePropertyTypes(FrontendPerformanceSettings.DEFAULT)
+
+        assertEquals(types["a"], types["b"])
+        assertNotSame(types["a"], types["b"])
+    }
+
+    private fun analyzePropertyTypes(performanceSettings: FrontendPerformanceSettings): Map<String, KotlinType> {
+        val file = KotlinTestUtils.createFile("interned.kt", """
+            class Box<T>
+            class Holder<A>(val value: A)
+
+            val a: Box<String> = Box()
+            val b: Box<String> = Box()
+            val c = Holder(a)
+            val d = Holder(b)
+            val e: Box<String>? = null
+            """, environment.project)
+        val context = JvmResolveUtil.analyzeFilesWithJavaIntegration(
+                environment.project, listOf(file), JvmPackagePartProvider(environment), performanceSettings
+        ).bindingContext
+        return file.declarations.filterIsInstance<KtProperty>().map {
+            it.name!! to context.get(BindingContext.VARIABLE, it)!!.type
+        }.toMap()
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.util
+
+import junit.framework.TestCase
+
+class PhaseMetricsTest : TestCase() {
+    fun testDisabled() {
+        val metrics = PhaseMetrics.DISABLED
+        assertNull(metrics.start(PhaseMetrics.CODEGEN))
+        metrics.measure(PhaseMetrics.CODEGEN, "a.kt") {}
+        assertFalse(metrics.toJson().contains(PhaseMetrics.CODEGEN))
+    }
+
+    fun testPerFileMetrics() {
+        val metrics = PhaseMetrics()
+        metrics.measure(PhaseMetrics.CODEGEN, "a.kt") {}
+        metrics.measure(PhaseMetrics.CODEGEN, "a.kt") {}
+        metrics.measure(PhaseMetrics.CODEGEN, "dir\\b \"quoted\".kt") {}
+
+        val json = metrics.toJson()
+        assertTrue(json, json.contains("{\"name\": \"codegen\", \"count\": 3"))
+        assertTrue(json, json.contains("{\"file\": \"a.kt\", \"count\": 2"))
+        assertTrue(json, json.contains("{\"file\": \"dir\\\\b \\\"quoted\\\".kt\", \"count\": 1"))
+    }
+
+    fun testReentrantPhaseIsMeasuredOnce() {
+        val metrics = PhaseMetrics()
+        metrics.measure(PhaseMetrics.INLINE) {
+            metrics.measure(PhaseMetrics.INLINE) {}
+            metrics.measure(PhaseMetrics.OPTIMIZATION) {}
+        }
+
+        val json = metrics.toJson()
+        assertTrue(json, json.contains("{\"name\": \"inline\", \"count\": 1"))
+        assertTrue(json, json.contains("{\"name\": \"optimization\", \"count\": 1"))
+    }
+
+    fun testCompilationsDoNotShareMetrics() {
+        val first = PhaseMetrics()
+        val second = PhaseMetrics()
+        first.measure(PhaseMetrics.CODEGEN, "a.kt") {
+            // the same phase of another compilation on the same thread is measured independently
+            second.measure(PhaseMetrics.CODEGEN, "b.kt") {}
+        }
+
+        val firstJson = first.toJson()
+        assertTrue(firstJson, firstJson.contains("{\"file\": \"a.kt\", \"count\": 1"))
+        assertFalse(firstJson, firstJson.contains("b.kt"))
+
+        val secondJson = second.toJson()
+        assertTrue(secondJson, secondJson.contains("{\"file\": \"b.kt\", \"count\": 1"))
+        assertFalse(secondJson, secondJson.contains("a.kt"))
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.util.slicedMap
+
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
+import org.jetbrains.kotlin.resolve.BindingContext
+import org.jetbrains.kotlin.resolve.BindingTraceContext
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil
+import org.jetbrains.kotlin.resolve.lazy.KotlinTestWithEnvironment
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import java.io.File
+
+class SlicePartitionedSlicedMapTest : KotlinTestWithEnvironment() {
+    override fun createEnvironment(): KotlinCoreEnvironment {
+        return KotlinTestUtils.createEnvironmentWithMockJdkAndIdeaAnnotations(testRootDisposable!!, ConfigurationKind.JDK_ONLY)
+    }
+
+    fun testPutGetAndSliceContents() {
+        val map = SlicePartitionedSlicedMap.create()
+        map.put(NAME_LENGTH, "a", 1)
+        map.put(NAME_LENGTH, "bb", 2)
+        map.put(NAME_COLOR, "a", 0xff0000)
+
+        assertEquals(1, map.get(NAME_LENGTH, "a"))
+        assertEquals(0xff0000, map.get(NAME_COLOR, "a"))
+        assertNull(map.get(NAME_COLOR, "bb"))
+        assertEquals(mapOf("a" to 1, "bb" to 2), map.getSliceContents(NAME_LENGTH))
+        assertEquals(mapOf("a" to 0xff0000), map.getSliceContents(NAME_COLOR))
+
+        map.put(NAME_LENGTH, "a", null)
+        assertNull(map.get(NAME_LENGTH, "a"))
+        assertEquals(mapOf("bb" to 2), map.getSliceContents(NAME_LENGTH))
+
+        map.clear()
+        assertTrue(map.getSliceContents(NAME_LENGTH).isEmpty())
+    }
+
+    fun testCollectiveSliceKeys() {
+        val map = SlicePartitionedSlicedMap.create()
+        map.put(COLLECTED, "first", true)
+        map.put(COLLECTED, "second", true)
+
+        assertEquals(listOf("first", "second"), map.getKeys(COLLECTED).toList())
+    }
+
+    fun testRemoveKeepsCollectiveSlices() {
+        for (map in listOf(SlicedMapImpl.create(), SlicePartitionedSlicedMap.create())) {
+            map.put(NAME_LENGTH, "a", 1)
+            map.put(NAME_COLOR, "a", 0xff0000)
+            map.put(COLLECTED, "a", true)
+            map.put(NAME_LENGTH, "b", 1)
+
+            map.remove("a")
+
+            assertNull(map.get(NAME_LENGTH, "a"))
+            assertNull(map.get(NAME_COLOR, "a"))
+            assertEquals(true, map.get(COLLECTED, "a"))
+            assertEquals(listOf("a"), map.getKeys(COLLECTED).toList())
+            assertEquals(1, map.get(NAME_LENGTH, "b"))
+        }
+    }
+
+    fun testSameContentsAsSlicedMapImpl() {
+        val context = analyzeTestData()
+
+        val original = SlicedMapImpl.create()
+        val partitioned = SlicePartitionedSlicedMap.create()
+        val slices = linkedSetOf<WritableSlice<Any?, Any?>>()
+        context.addOwnDataTo(object : BindingTraceContext() {
+            override fun <K, V> record(slice: WritableSlice<K, V>, key: K, value: V) {
+                @Suppress("UNCHECKED_CAST")
+                slices.add(slice as WritableSlice<Any?, Any?>)
+                original.put(slice, key, value)
+                partitioned.put(slice, key, value)
+            }
+        }, false)
+
+        assertTrue(slices.isNotEmpty())
+        for (slice in slices) {
+            assertEquals("Contents of $slice", original.getSliceContents(slice), partitioned.getSliceContents(slice))
+        }
+    }
+
+    fun testPartitionedBindingTrace() {
+        val context = analyzeTestData()
+        val trace = BindingTraceContext(/* partitionSlices = */ true)
+        context.addOwnDataTo(trace, false)
+
+        for (slice in listOf(BindingContext.FUNCTION, BindingContext.EXPRESSION_TYPE_INFO, BindingContext.REFERENCE_TARGET)) {
+            assertTrue("No bindings in $slice", context.getSliceContents(slice).isNotEmpty())
+            assertEquals("Contents of $slice", context.getSliceContents(slice), trace.bindingContext.getSliceContents(slice))
+        }
+    }
+
+    private fun analyzeTestData(): BindingContext {
+        val files = TEST_DATA_DIR.listFiles { file -> file.name.endsWith(".kt") }!!.sortedBy { it.name }.map {
+            KotlinTestUtils.loadJetFile(environment.project, it)
+        }
+        return JvmResolveUtil.analyzeFilesWithJavaIntegration(environment.project, files, environment).bindingContext
+    }
+
+    companion object {
+        private val TEST_DATA_DIR = File("compiler/testData/codegen/box/classes")
+
+        private val NAME_LENGTH = Slices.sliceBuilder<String, Int>().setDebugName("NAME_LENGTH").build()
+        private val NAME_COLOR = Slices.sliceBuilder<String, Int>().setDebugName("NAME_COLOR").build()
+        private val COLLECTED = Slices.createCollectiveSetSlice<String>()
+    }
+}
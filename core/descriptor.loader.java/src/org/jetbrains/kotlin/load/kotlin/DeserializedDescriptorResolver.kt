@@ -22,15 +22,18 @@ import org.jetbrains.kotlin.descriptors.PackageFragmentDescriptor
 import org.jetbrains.kotlin.load.kotlin.header.KotlinClassHeader
 import org.jetbrains.kotlin.resolve.scopes.ChainedMemberScope
 import org.jetbrains.kotlin.resolve.scopes.MemberScope
+import org.jetbrains.kotlin.serialization.ClassData
 import org.jetbrains.kotlin.serialization.ClassDataWithSource
 import org.jetbrains.kotlin.serialization.deserialization.DeserializationComponents
 import org.jetbrains.kotlin.serialization.deserialization.ErrorReporter
 import org.jetbrains.kotlin.serialization.deserialization.descriptors.DeserializedPackageMemberScope
-import org.jetbrains.kotlin.serialization.jvm.JvmProtoBufUtil
 import org.jetbrains.kotlin.utils.sure
 import javax.inject.Inject
 
-class DeserializedDescriptorResolver(private val errorReporter: ErrorReporter) {
+class DeserializedDescriptorResolver(
+        private val errorReporter: ErrorReporter,
+        private val parsedMetadataCache: ParsedMetadataCache
+) {
     lateinit var components: DeserializationComponents
 
     // component dependency cycle
@@ -40,11 +43,7 @@ class DeserializedDescriptorResolver(private val errorReporter: ErrorReporter) {
     }
 
     fun resolveClass(kotlinClass: KotlinJvmBinaryClass): ClassDescriptor? {
-        val data = readData(kotlinClass, KOTLIN_CLASS) ?: return null
-        val strings = kotlinClass.classHeader.strings.sure { "String table not found in $kotlinClass" }
-        val classData = parseProto(kotlinClass) {
-            JvmProtoBufUtil.readClassDataFrom(data, strings)
-        }
+        val classData = readClassData(kotlinClass) ?: return null
         val sourceElement = KotlinJvmBinarySourceElement(kotlinClass)
         return components.classDeserializer.deserializeClass(
                 kotlinClass.classId,
@@ -56,7 +55,7 @@ class DeserializedDescriptorResolver(private val errorReporter: ErrorReporter) {
         val data = readData(kotlinClass, KOTLIN_FILE_FACADE_OR_MULTIFILE_CLASS_PART) ?: return null
         val strings = kotlinClass.classHeader.strings.sure { "String table not found in $kotlinClass" }
         val (nameResolver, packageProto) = parseProto(kotlinClass) {
-            JvmProtoBufUtil.readPackageDataFrom(data, strings)
+            parsedMetadataCache.getPackageData(data, strings)
         }
         val source = JvmPackagePartSource(kotlinClass.classId)
         return DeserializedPackageMemberScope(descriptor, packageProto, nameResolver, source, components) {
@@ -78,7 +77,15 @@ class DeserializedDescriptorResolver(private val errorReporter: ErrorReporter) {
         return ChainedMemberScope("Member scope for union of package parts data", scopes)
     }
 
-    internal fun readData(kotlinClass: KotlinJvmBinaryClass, expectedKinds: Set<KotlinClassHeader.Kind>): Array<String>? {
+    internal fun readClassData(kotlinClass: KotlinJvmBinaryClass): ClassData? {
+        val data = readData(kotlinClass, KOTLIN_CLASS) ?: return null
+        val strings = kotlinClass.classHeader.strings.sure { "String table not found in $kotlinClass" }
+        return parseProto(kotlinClass) {
+            parsedMetadataCache.getClassData(data, strings)
+        }
+    }
+
+    private fun readData(kotlinClass: KotlinJvmBinaryClass, expectedKinds: Set<KotlinClassHeader.Kind>): Array<String>? {
         val header = kotlinClass.classHeader
         if (!header.metadataVersion.isCompatible()) {
             errorReporter.reportIncompatibleMetadataVersion(kotlinClass.classId, kotlinClass.location, header.metadataVersion)
@@ -100,7 +107,7 @@ class DeserializedDescriptorResolver(private val errorReporter: ErrorReporter) {
     }
 
     companion object {
-        internal val KOTLIN_CLASS = setOf(KotlinClassHeader.Kind.CLASS)
+        private val KOTLIN_CLASS = setOf(KotlinClassHeader.Kind.CLASS)
 
         private val KOTLIN_FILE_FACADE_OR_MULTIFILE_CLASS_PART =
                 setOf(KotlinClassHeader.Kind.FILE_FACADE, KotlinClassHeader.Kind.MULTIFILE_CLASS_PART)
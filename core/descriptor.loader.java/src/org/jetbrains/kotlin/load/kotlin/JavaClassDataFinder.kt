@@ -19,7 +19,6 @@ package org.jetbrains.kotlin.load.kotlin
 import org.jetbrains.kotlin.name.ClassId
 import org.jetbrains.kotlin.serialization.ClassDataWithSource
 import org.jetbrains.kotlin.serialization.deserialization.ClassDataFinder
-import org.jetbrains.kotlin.serialization.jvm.JvmProtoBufUtil
 
 class JavaClassDataFinder(
         private val kotlinClassFinder: KotlinClassFinder,
@@ -30,9 +29,7 @@ class JavaClassDataFinder(
         assert(kotlinJvmBinaryClass.classId == classId) {
             "Class with incorrect id found: expected $classId, actual ${kotlinJvmBinaryClass.classId}"
         }
-        val data = deserializedDescriptorResolver.readData(kotlinJvmBinaryClass, DeserializedDescriptorResolver.KOTLIN_CLASS) ?: return null
-        val strings = kotlinJvmBinaryClass.classHeader.strings ?: error("String table not found in $kotlinJvmBinaryClass")
-        val classData = JvmProtoBufUtil.readClassDataFrom(data, strings)
+        val classData = deserializedDescriptorResolver.readClassData(kotlinJvmBinaryClass) ?: return null
         return ClassDataWithSource(classData, KotlinJvmBinarySourceElement(kotlinJvmBinaryClass))
     }
 }
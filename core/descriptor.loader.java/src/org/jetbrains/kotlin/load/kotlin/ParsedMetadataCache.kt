@@ -0,0 +1,95 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.load.kotlin
+
+import org.jetbrains.kotlin.serialization.ClassData
+import org.jetbrains.kotlin.serialization.PackageData
+import org.jetbrains.kotlin.serialization.jvm.JvmProtoBufUtil
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.SoftReference
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Caches parsed metadata of compiled Kotlin classes (protobuf messages together with their string tables).
+ *
+ * Entries are keyed by the contents of the metadata annotation, so a class is parsed only once as long as its bytes
+ * don't change, no matter which jar or compilation it comes from. Parsed messages are immutable, which makes it possible to
+ * share [SHARED] between all compilations performed in the same process, e.g. by the compile daemon.
+ * Values are softly reachable and are dropped under memory pressure.
+ */
+class ParsedMetadataCache {
+    private val classes = SoftValueMap<ClassData>()
+    private val packages = SoftValueMap<PackageData>()
+
+    fun getClassData(data: Array<String>, strings: Array<String>): ClassData =
+            classes.getOrPut(data, strings) { JvmProtoBufUtil.readClassDataFrom(data, strings) }
+
+    fun getPackageData(data: Array<String>, strings: Array<String>): PackageData =
+            packages.getOrPut(data, strings) { JvmProtoBufUtil.readPackageDataFrom(data, strings) }
+
+    fun clear() {
+        classes.clear()
+        packages.clear()
+    }
+
+    private class Key(val data: Array<String>, val strings: Array<String>) {
+        private val hashCode = 31 * Arrays.hashCode(data) + Arrays.hashCode(strings)
+
+        override fun equals(other: Any?): Boolean =
+                other is Key && hashCode == other.hashCode && Arrays.equals(data, other.data) && Arrays.equals(strings, other.strings)
+
+        override fun hashCode(): Int = hashCode
+    }
+
+    private class ValueReference<V>(val key: Key, value: V, queue: ReferenceQueue<V>) : SoftReference<V>(value, queue)
+
+    private class SoftValueMap<V : Any> {
+        private val map = ConcurrentHashMap<Key, ValueReference<V>>()
+        private val queue = ReferenceQueue<V>()
+
+        fun getOrPut(data: Array<String>, strings: Array<String>, compute: () -> V): V {
+            processQueue()
+
+            val key = Key(data, strings)
+            map[key]?.get()?.let { return it }
+
+            // Two threads may parse the same data concurrently, which is harmless: the results are equivalent
+            val value = compute()
+            map.put(key, ValueReference(key, value, queue))
+            return value
+        }
+
+        fun clear() {
+            map.clear()
+        }
+
+        @Suppress("UNCHECKED_CAST")
+        private fun processQueue() {
+            while (true) {
+                val reference = queue.poll() as ValueReference<V>? ?: return
+                map.remove(reference.key, reference)
+            }
+        }
+    }
+
+    companion object {
+        @JvmField
+        val SHARED = ParsedMetadataCache()
+    }
+}
@@ -41,6 +41,19 @@ interface LookupTracker {
     }
 }
 
+/**
+ * Serializes calls to [delegate], for lookups recorded from several threads at once.
+ */
+class SynchronizedLookupTracker(private val delegate: LookupTracker) : LookupTracker {
+    override val requiresPosition: Boolean
+        get() = delegate.requiresPosition
+
+    @Synchronized
+    override fun record(filePath: String, position: Position, scopeFqName: String, scopeKind: ScopeKind, name: String) {
+        delegate.record(filePath, position, scopeFqName, scopeKind, name)
+    }
+}
+
 enum class ScopeKind {
     PACKAGE,
     CLASSIFIER
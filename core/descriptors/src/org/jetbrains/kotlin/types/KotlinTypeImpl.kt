@@ -56,11 +56,12 @@ private constructor(
         @JvmStatic fun create(annotations: Annotations,
                               descriptor: ClassDescriptor,
                               nullable: Boolean,
-                              arguments: List<TypeProjection>): KotlinTypeImpl
+                              arguments: List<TypeProjection>): KotlinTypeImpl {
+            val interner = TypeInterner.forAnnotations(annotations)
+            if (interner != null) return interner.intern(descriptor, annotations, nullable, arguments)
 
-                = KotlinTypeImpl(
-                    annotations, descriptor.typeConstructor, nullable, arguments, null, descriptor.getMemberScope(arguments)
-                )
+            return KotlinTypeImpl(annotations, descriptor.typeConstructor, nullable, arguments, null, descriptor.getMemberScope(arguments))
+        }
     }
 
     private class WithCapabilities(
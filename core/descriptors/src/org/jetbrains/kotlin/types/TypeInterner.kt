@@ -0,0 +1,132 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.types
+
+import org.jetbrains.kotlin.descriptors.ClassDescriptor
+import org.jetbrains.kotlin.descriptors.annotations.Annotations
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Canonicalizes class types without annotations and capabilities, so that equal types created by substitution or by
+ * resolution of type references share a single instance and are mostly compared by reference.
+ *
+ * Types are looked up by their constructor, nullability and the identities of their argument types, hence the interning
+ * is effective bottom-up: types built from interned arguments are interned as well.
+ *
+ * An interner is created for a single analysis and installed into the threads which perform it with [withInterner],
+ * so that the types of one compilation, including the types of built-in classes with arguments from it, are not kept by the next one.
+ * The interner is thread-safe. The number of interned types is bounded: once it's full, all of them are evicted and interning
+ * starts over, the types interned before stay valid but are no longer canonical.
+ */
+class TypeInterner(private val maxSize: Int = DEFAULT_MAX_SIZE) {
+    private val types = ConcurrentHashMap<Key, KotlinTypeImpl>()
+
+    private val requestCount = AtomicLong()
+    private val hitCount = AtomicLong()
+
+    val size: Int
+        get() = types.size
+
+    val requests: Long
+        get() = requestCount.get()
+
+    val hits: Long
+        get() = hitCount.get()
+
+    /**
+     * Returns the canonical type of the given class with the given nullability and arguments, creating it if there is none yet.
+     * The annotations are only used for a new type and are expected to be empty, see [forAnnotations].
+     */
+    fun intern(descriptor: ClassDescriptor, annotations: Annotations, nullable: Boolean, arguments: List<TypeProjection>): KotlinTypeImpl {
+        val key = Key(descriptor.typeConstructor, nullable, arguments)
+        requestCount.incrementAndGet()
+
+        val existing = types[key]
+        if (existing != null) {
+            hitCount.incrementAndGet()
+            return existing
+        }
+
+        val type = KotlinTypeImpl.create(annotations, descriptor.typeConstructor, nullable, arguments, descriptor.getMemberScope(arguments))
+        if (types.size >= maxSize) {
+            types.clear()
+        }
+        return types.putIfAbsent(key, type) ?: type
+    }
+
+    private class Key(val constructor: TypeConstructor, val nullable: Boolean, val arguments: List<TypeProjection>) {
+        private val hashCode = computeHashCode()
+
+        private fun computeHashCode(): Int {
+            var result = 31 * System.identityHashCode(constructor) + (if (nullable) 1 else 0)
+            for (argument in arguments) {
+                result = 31 * result + if (argument.isStarProjection) 0 else 31 * System.identityHashCode(argument.type) + argument.projectionKind.ordinal
+            }
+            return result
+        }
+
+        override fun hashCode() = hashCode
+
+        override fun equals(other: Any?): Boolean {
+            if (this === other) return true
+            if (other !is Key || hashCode != other.hashCode) return false
+            if (constructor !== other.constructor || nullable != other.nullable || arguments.size != other.arguments.size) return false
+
+            for (i in arguments.indices) {
+                val argument = arguments[i]
+                val otherArgument = other.arguments[i]
+                if (argument.isStarProjection != otherArgument.isStarProjection) return false
+                // Star projections of the same type parameter are the same
+                if (argument.isStarProjection) continue
+                if (argument.projectionKind != otherArgument.projectionKind || argument.type !== otherArgument.type) return false
+            }
+            return true
+        }
+    }
+
+    companion object {
+        const val DEFAULT_MAX_SIZE = 1 shl 16
+
+        private val current = ThreadLocal<TypeInterner?>()
+
+        @JvmStatic
+        fun getCurrent(): TypeInterner? = current.get()
+
+        /**
+         * @return the interner installed into the current thread, or null if there is none or types with these annotations are not interned
+         */
+        @JvmStatic
+        fun forAnnotations(annotations: Annotations): TypeInterner? = if (annotations.isEmpty()) current.get() else null
+
+        /**
+         * Runs [block] with [interner] installed into the current thread, unless there is one installed already
+         */
+        @JvmStatic
+        fun <T> withInterner(interner: TypeInterner, block: () -> T): T {
+            if (current.get() != null) return block()
+
+            current.set(interner)
+            try {
+                return block()
+            }
+            finally {
+                current.remove()
+            }
+        }
+    }
+}
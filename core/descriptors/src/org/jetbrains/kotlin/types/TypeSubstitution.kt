@@ -135,9 +135,17 @@ fun KotlinType.replace(
         )
     }
 
+    val declarationDescriptor = constructor.declarationDescriptor
+    if (declarationDescriptor is ClassDescriptor && capabilities === TypeCapabilities.NONE) {
+        val interner = TypeInterner.forAnnotations(annotations)
+        if (interner != null) {
+            // The same type as below, but a canonical instance of it
+            return interner.intern(declarationDescriptor, annotations, isMarkedNullable, newArguments)
+        }
+    }
+
     val newSubstitution = computeNewSubstitution(constructor, newArguments)
 
-    val declarationDescriptor = constructor.declarationDescriptor
     val newScope =
             if (declarationDescriptor is ClassDescriptor)
                 declarationDescriptor.getMemberScope(newSubstitution)
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.types.checker
+
+import org.jetbrains.kotlin.types.KotlinType
+import org.jetbrains.kotlin.types.TypeCapabilities
+import org.jetbrains.kotlin.types.TypeConstructor
+import org.jetbrains.kotlin.types.TypeProjection
+import java.util.*
+
+/**
+ * A bounded cache of results of [TypeCheckingProcedure.isSubtypeOf] and [findCorrespondingSupertype] for the default type checker.
+ *
+ * Types are compared by their constructors, nullability and the identities of their argument types, so that types
+ * created by the same substitution over and over again (as happens in overload and constraint system resolution) share entries,
+ * while the keys stay cheap to compute. Types with capabilities (flexible, captured, etc.) are never cached.
+ *
+ * The cache is not thread-safe and holds the types it has seen, so it's only installed into the current thread
+ * for the duration of a resolution session with [withCache]. Its [hits] and [misses] are reported by the session's owner.
+ */
+class SubtypeCache(private val maxSize: Int = DEFAULT_MAX_SIZE) {
+    private val subtypeResults = createLruMap<TypePairKey, Boolean>()
+    private val correspondingSupertypes = createLruMap<TypePairKey, Any>()
+
+    var hits: Long = 0
+        private set
+    var misses: Long = 0
+        private set
+
+    fun createKey(subtype: KotlinType, supertype: KotlinType): Any? =
+            if (isCacheable(subtype) && isCacheable(supertype)) TypePairKey(subtype, supertype, supertypeArguments = true) else null
+
+    fun getSubtypeResult(key: Any): Boolean? = count(subtypeResults[key as TypePairKey])
+
+    fun putSubtypeResult(key: Any, result: Boolean) {
+        subtypeResults[key as TypePairKey] = result
+    }
+
+    // Only the constructor of the supertype matters for the corresponding supertype
+    fun createCorrespondingSupertypeKey(subtype: KotlinType, supertype: KotlinType): Any? =
+            if (isCacheable(subtype)) TypePairKey(subtype, supertype, supertypeArguments = false) else null
+
+    /**
+     * @return the cached corresponding supertype, [NO_CORRESPONDING_SUPERTYPE] if there is none, or null if nothing is cached
+     */
+    fun getCorrespondingSupertype(key: Any): Any? = count(correspondingSupertypes[key as TypePairKey])
+
+    fun putCorrespondingSupertype(key: Any, result: KotlinType?) {
+        correspondingSupertypes[key as TypePairKey] = result ?: NO_CORRESPONDING_SUPERTYPE
+    }
+
+    private fun <T> count(value: T?): T? {
+        if (value != null) hits++ else misses++
+        return value
+    }
+
+    private fun isCacheable(type: KotlinType): Boolean = type.capabilities === TypeCapabilities.NONE
+
+    private fun <V> createLruMap(): MutableMap<TypePairKey, V> =
+            object : LinkedHashMap<TypePairKey, V>(16, 0.75f, true) {
+                override fun removeEldestEntry(eldest: MutableMap.MutableEntry<TypePairKey, V>?) = size > maxSize
+            }
+
+    private class TypePairKey(subtype: KotlinType, supertype: KotlinType, supertypeArguments: Boolean) {
+        private val subtypeConstructor: TypeConstructor = subtype.constructor
+        private val subtypeNullable = subtype.isMarkedNullable
+        private val subtypeArguments: List<TypeProjection> = subtype.arguments
+        private val supertypeConstructor: TypeConstructor = supertype.constructor
+        private val supertypeNullable = supertypeArguments && supertype.isMarkedNullable
+        private val supertypeArguments: List<TypeProjection> = if (supertypeArguments) supertype.arguments else emptyList()
+
+        private val hashCode = 31 * (31 * hashOf(subtypeConstructor, subtypeArguments) + hashOf(supertypeConstructor, this.supertypeArguments)) +
+                               (if (subtypeNullable) 2 else 0) + (if (supertypeNullable) 1 else 0)
+
+        override fun hashCode() = hashCode
+
+        override fun equals(other: Any?): Boolean {
+            if (this === other) return true
+            if (other !is TypePairKey || hashCode != other.hashCode) return false
+
+            return subtypeConstructor === other.subtypeConstructor &&
+                   supertypeConstructor === other.supertypeConstructor &&
+                   subtypeNullable == other.subtypeNullable &&
+                   supertypeNullable == other.supertypeNullable &&
+                   sameArguments(subtypeArguments, other.subtypeArguments) &&
+                   sameArguments(supertypeArguments, other.supertypeArguments)
+        }
+
+        private fun hashOf(constructor: TypeConstructor, arguments: List<TypeProjection>): Int {
+            var result = System.identityHashCode(constructor)
+            for (argument in arguments) {
+                result = 31 * result + if (argument.isStarProjection) 0 else System.identityHashCode(argument.type)
+            }
+            return result
+        }
+
+        private fun sameArguments(first: List<TypeProjection>, second: List<TypeProjection>): Boolean {
+            if (first.size != second.size) return false
+            for (i in first.indices) {
+                val a = first[i]
+                val b = second[i]
+                if (a.isStarProjection != b.isStarProjection || a.projectionKind != b.projectionKind || a.type !== b.type) return false
+            }
+            return true
+        }
+    }
+
+    companion object {
+        const val DEFAULT_MAX_SIZE = 4096
+
+        @JvmField val NO_CORRESPONDING_SUPERTYPE = Any()
+
+        private val current = ThreadLocal<SubtypeCache?>()
+
+        @JvmStatic
+        fun getCurrent(): SubtypeCache? = current.get()
+
+        /**
+         * Runs [block] with [cache] installed into the current thread, unless there is one installed already
+         */
+        @JvmStatic
+        fun <T> withCache(cache: SubtypeCache, block: () -> T): T {
+            if (current.get() != null) return block()
+
+            current.set(cache)
+            try {
+                return block()
+            }
+            finally {
+                current.remove()
+            }
+        }
+    }
+}
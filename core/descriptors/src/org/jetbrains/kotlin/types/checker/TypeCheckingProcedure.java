@@ -43,7 +43,20 @@ public class TypeCheckingProcedure {
     // as the second parameter, applying the substitution of type arguments to it
     @Nullable
     public static KotlinType findCorrespondingSupertype(@NotNull KotlinType subtype, @NotNull KotlinType supertype, @NotNull TypeCheckingProcedureCallbacks typeCheckingProcedureCallbacks) {
-        return UtilsKt.findCorrespondingSupertype(subtype, supertype, typeCheckingProcedureCallbacks);
+        SubtypeCache cache = typeCheckingProcedureCallbacks.getClass() == TypeCheckerProcedureCallbacksImpl.class ? SubtypeCache.getCurrent() : null;
+        Object key = cache != null ? cache.createCorrespondingSupertypeKey(subtype, supertype) : null;
+        if (key == null) {
+            return UtilsKt.findCorrespondingSupertype(subtype, supertype, typeCheckingProcedureCallbacks);
+        }
+
+        Object cached = cache.getCorrespondingSupertype(key);
+        if (cached != null) {
+            return cached == SubtypeCache.NO_CORRESPONDING_SUPERTYPE ? null : (KotlinType) cached;
+        }
+
+        KotlinType result = UtilsKt.findCorrespondingSupertype(subtype, supertype, typeCheckingProcedureCallbacks);
+        cache.putCorrespondingSupertype(key, result);
+        return result;
     }
 
     @NotNull
@@ -59,9 +72,12 @@ public class TypeCheckingProcedure {
     }
 
     private final TypeCheckingProcedureCallbacks constraints;
+    // Results may only be cached if neither the procedure nor its callbacks are customized
+    private final boolean cacheable;
 
     public TypeCheckingProcedure(TypeCheckingProcedureCallbacks constraints) {
         this.constraints = constraints;
+        this.cacheable = getClass() == TypeCheckingProcedure.class && constraints.getClass() == TypeCheckerProcedureCallbacksImpl.class;
     }
 
     public boolean equalTypes(@NotNull KotlinType type1, @NotNull KotlinType type2) {
@@ -184,6 +200,21 @@ public class TypeCheckingProcedure {
     }
 
     public boolean isSubtypeOf(@NotNull KotlinType subtype, @NotNull KotlinType supertype) {
+        SubtypeCache cache = cacheable ? SubtypeCache.getCurrent() : null;
+        Object key = cache != null ? cache.createKey(subtype, supertype) : null;
+        if (key == null) {
+            return isSubtypeOfNotCached(subtype, supertype);
+        }
+
+        Boolean cached = cache.getSubtypeResult(key);
+        if (cached != null) return cached;
+
+        boolean result = isSubtypeOfNotCached(subtype, supertype);
+        cache.putSubtypeResult(key, result);
+        return result;
+    }
+
+    private boolean isSubtypeOfNotCached(@NotNull KotlinType subtype, @NotNull KotlinType supertype) {
         if (TypeCapabilitiesKt.sameTypeConstructors(subtype, supertype)) {
             return !subtype.isMarkedNullable() || supertype.isMarkedNullable();
         }
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jetbrains.kotlin.storage;
+
+import kotlin.Unit;
+import kotlin.jvm.functions.Function0;
+import kotlin.jvm.functions.Function1;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.utils.WrappedValues;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A storage manager which does not serialize lazy values and memoized functions on a single lock.
+ * Each value is computed without any lock held and the result is published with a CAS: if several threads compute the same value
+ * simultaneously, all of them get the result of the first one to finish. Recursion is detected per thread.
+ *
+ * <p>
+ * Since the same value can be computed by several threads, this storage manager must only be used for computations without side effects,
+ * e.g. deserialization of descriptors. It's not suitable for resolve sessions, whose computations report diagnostics and write to
+ * binding traces: these would be duplicated. {@link #compute(Function0)} is still executed under the lock.
+ */
+public class ConcurrentStorageManager extends LockBasedStorageManager {
+    private static final Object NOT_COMPUTED = new Object() {
+        @Override
+        public String toString() {
+            return "NOT_COMPUTED";
+        }
+    };
+
+    private static final Object RECURSION_WAS_DETECTED = new Object() {
+        @Override
+        public String toString() {
+            return "RECURSION_WAS_DETECTED";
+        }
+    };
+
+    private static final Object COMPUTING = new Object() {
+        @Override
+        public String toString() {
+            return "COMPUTING";
+        }
+    };
+
+    // Values being computed by the current thread: lazy values and (function, key) pairs, mapped to COMPUTING,
+    // RECURSION_WAS_DETECTED or a PostComputing instance
+    private final ThreadLocal<Map<Object, Object>> computations = new ThreadLocal<Map<Object, Object>>() {
+        @Override
+        protected Map<Object, Object> initialValue() {
+            return new HashMap<Object, Object>();
+        }
+    };
+
+    public ConcurrentStorageManager() {
+        super(getPointOfConstruction(), ExceptionHandlingStrategy.THROW, new ReentrantLock());
+    }
+
+    public ConcurrentStorageManager(@NotNull ExceptionHandlingStrategy exceptionHandlingStrategy) {
+        super(getPointOfConstruction(), exceptionHandlingStrategy, new ReentrantLock());
+    }
+
+    @NotNull
+    @Override
+    public <K, V> MemoizedFunctionToNotNull<K, V> createMemoizedFunction(@NotNull Function1<? super K, ? extends V> compute) {
+        return createMemoizedFunction(compute, ConcurrentStorageManager.<K>createConcurrentHashMap());
+    }
+
+    @NotNull
+    @Override
+    public <K, V> MemoizedFunctionToNullable<K, V> createMemoizedFunctionWithNullableValues(
+            @NotNull Function1<? super K, ? extends V> compute
+    ) {
+        return createMemoizedFunctionWithNullableValues(compute, ConcurrentStorageManager.<K>createConcurrentHashMap());
+    }
+
+    @NotNull
+    @Override
+    public <K, V> MemoizedFunctionToNotNull<K, V> createMemoizedFunction(
+            @NotNull Function1<? super K, ? extends V> compute,
+            @NotNull ConcurrentMap<K, Object> map
+    ) {
+        return new ConcurrentMemoizedFunctionToNotNull<K, V>(this, map, compute);
+    }
+
+    @NotNull
+    @Override
+    public <K, V> MemoizedFunctionToNullable<K, V> createMemoizedFunctionWithNullableValues(
+            @NotNull Function1<? super K, ? extends V> compute,
+            @NotNull ConcurrentMap<K, Object> map
+    ) {
+        return new ConcurrentMemoizedFunction<K, V>(this, map, compute);
+    }
+
+    @NotNull
+    @Override
+    public <T> NotNullLazyValue<T> createLazyValue(@NotNull Function0<? extends T> computable) {
+        return new ConcurrentNotNullLazyValue<T>(this, computable);
+    }
+
+    @NotNull
+    @Override
+    public <T> NotNullLazyValue<T> createRecursionTolerantLazyValue(
+            @NotNull Function0<? extends T> computable, @NotNull final T onRecursiveCall
+    ) {
+        return new ConcurrentNotNullLazyValue<T>(this, computable) {
+            @Override
+            protected T recursionDetected(boolean firstTime) {
+                return onRecursiveCall;
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public <T> NotNullLazyValue<T> createLazyValueWithPostCompute(
+            @NotNull Function0<? extends T> computable,
+            final Function1<? super Boolean, ? extends T> onRecursiveCall,
+            @NotNull final Function1<? super T, Unit> postCompute
+    ) {
+        return new ConcurrentNotNullLazyValue<T>(this, computable) {
+            @Override
+            protected T recursionDetected(boolean firstTime) {
+                if (onRecursiveCall == null) {
+                    return super.recursionDetected(firstTime);
+                }
+                return onRecursiveCall.invoke(firstTime);
+            }
+
+            @Override
+            protected void postCompute(T value) {
+                postCompute.invoke(value);
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public <T> NullableLazyValue<T> createNullableLazyValue(@NotNull Function0<? extends T> computable) {
+        return new ConcurrentLazyValue<T>(this, computable);
+    }
+
+    @NotNull
+    @Override
+    public <T> NullableLazyValue<T> createRecursionTolerantNullableLazyValue(
+            @NotNull Function0<? extends T> computable, final T onRecursiveCall
+    ) {
+        return new ConcurrentLazyValue<T>(this, computable) {
+            @Override
+            protected T recursionDetected(boolean firstTime) {
+                return onRecursiveCall;
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public <T> NullableLazyValue<T> createNullableLazyValueWithPostCompute(
+            @NotNull Function0<? extends T> computable, @NotNull final Function1<? super T, Unit> postCompute
+    ) {
+        return new ConcurrentLazyValue<T>(this, computable) {
+            @Override
+            protected void postCompute(@Nullable T value) {
+                postCompute.invoke(value);
+            }
+        };
+    }
+
+    @NotNull
+    private static <K> ConcurrentMap<K, Object> createConcurrentHashMap() {
+        // unlike the lock-based storage manager, writes to the map happen concurrently, so it's split into several lock stripes
+        return new ConcurrentHashMap<K, Object>(3, 1, 4);
+    }
+
+    private static class PostComputing {
+        private final Object value;
+
+        private PostComputing(@Nullable Object value) {
+            this.value = value;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static class ConcurrentLazyValue<T> implements NullableLazyValue<T> {
+        private static final AtomicReferenceFieldUpdater<ConcurrentLazyValue, Object> VALUE =
+                AtomicReferenceFieldUpdater.newUpdater(ConcurrentLazyValue.class, Object.class, "value");
+
+        private final ConcurrentStorageManager storageManager;
+        private final Function0<? extends T> computable;
+
+        @Nullable
+        private volatile Object value = NOT_COMPUTED;
+
+        public ConcurrentLazyValue(@NotNull ConcurrentStorageManager storageManager, @NotNull Function0<? extends T> computable) {
+            this.storageManager = storageManager;
+            this.computable = computable;
+        }
+
+        @Override
+        public boolean isComputed() {
+            Object _value = value;
+            return _value != NOT_COMPUTED && _value != RECURSION_WAS_DETECTED;
+        }
+
+        @Override
+        public boolean isComputing() {
+            return storageManager.computations.get().containsKey(this);
+        }
+
+        @Override
+        public T invoke() {
+            Object _value = value;
+            if (_value != NOT_COMPUTED && _value != RECURSION_WAS_DETECTED) return WrappedValues.unescapeThrowable(_value);
+
+            Map<Object, Object> computations = storageManager.computations.get();
+            Object state = computations.get(this);
+            if (state instanceof PostComputing) {
+                // postCompute() of this thread sees the value before other threads do
+                return (T) ((PostComputing) state).value;
+            }
+            if (state == COMPUTING) {
+                computations.put(this, RECURSION_WAS_DETECTED);
+                return recursionDetected(/*firstTime = */ true);
+            }
+            if (state == RECURSION_WAS_DETECTED || _value == RECURSION_WAS_DETECTED) {
+                return recursionDetected(/*firstTime = */ false);
+            }
+
+            computations.put(this, COMPUTING);
+            T typedValue;
+            try {
+                typedValue = computable.invoke();
+            }
+            catch (Throwable throwable) {
+                // Store only if it's a genuine result, not something thrown through recursionDetected()
+                Object newValue = computations.remove(this) == COMPUTING ? WrappedValues.escapeThrowable(throwable) : RECURSION_WAS_DETECTED;
+                VALUE.compareAndSet(this, NOT_COMPUTED, newValue);
+                throw storageManager.exceptionHandlingStrategy.handleException(throwable);
+            }
+
+            computations.put(this, new PostComputing(typedValue));
+            try {
+                postCompute(typedValue);
+            }
+            finally {
+                computations.remove(this);
+            }
+
+            if (VALUE.compareAndSet(this, NOT_COMPUTED, typedValue) || VALUE.compareAndSet(this, RECURSION_WAS_DETECTED, typedValue)) {
+                return typedValue;
+            }
+            // another thread has published its result first
+            return WrappedValues.unescapeThrowable(value);
+        }
+
+        /**
+         * @param firstTime {@code true} when recursion has been just detected, {@code false} otherwise
+         * @return a value to be returned on a recursive call or subsequent calls
+         */
+        protected T recursionDetected(boolean firstTime) {
+            throw new IllegalStateException("Recursive call in a lazy value under " + storageManager);
+        }
+
+        protected void postCompute(T value) {
+            // Doing something in post-compute helps prevent infinite recursion
+        }
+    }
+
+    private static class ConcurrentNotNullLazyValue<T> extends ConcurrentLazyValue<T> implements NotNullLazyValue<T> {
+        public ConcurrentNotNullLazyValue(@NotNull ConcurrentStorageManager storageManager, @NotNull Function0<? extends T> computable) {
+            super(storageManager, computable);
+        }
+
+        @Override
+        @NotNull
+        public T invoke() {
+            T result = super.invoke();
+            assert result != null : "compute() returned null";
+            return result;
+        }
+    }
+
+    private static class ConcurrentMemoizedFunction<K, V> implements MemoizedFunctionToNullable<K, V> {
+        private final ConcurrentStorageManager storageManager;
+        private final ConcurrentMap<K, Object> cache;
+        private final Function1<? super K, ? extends V> compute;
+
+        public ConcurrentMemoizedFunction(
+                @NotNull ConcurrentStorageManager storageManager,
+                @NotNull ConcurrentMap<K, Object> map,
+                @NotNull Function1<? super K, ? extends V> compute
+        ) {
+            this.storageManager = storageManager;
+            this.cache = map;
+            this.compute = compute;
+        }
+
+        @Override
+        @Nullable
+        public V invoke(K input) {
+            Object value = cache.get(input);
+            if (value != null) return WrappedValues.unescapeExceptionOrNull(value);
+
+            Map<Object, Object> computations = storageManager.computations.get();
+            Computation<K> computation = new Computation<K>(this, input);
+            if (computations.containsKey(computation)) {
+                throw new AssertionError("Recursion detected on input: " + input + " under " + storageManager);
+            }
+
+            computations.put(computation, COMPUTING);
+            Object newValue;
+            try {
+                newValue = WrappedValues.escapeNull(compute.invoke(input));
+            }
+            catch (Throwable throwable) {
+                newValue = WrappedValues.escapeThrowable(throwable);
+            }
+            finally {
+                computations.remove(computation);
+            }
+
+            Object oldValue = cache.putIfAbsent(input, newValue);
+            if (oldValue != null) {
+                // another thread has published its result first
+                newValue = oldValue;
+            }
+
+            try {
+                return WrappedValues.unescapeExceptionOrNull(newValue);
+            }
+            catch (Throwable throwable) {
+                throw storageManager.exceptionHandlingStrategy.handleException(throwable);
+            }
+        }
+
+        @Override
+        public boolean isComputed(K key) {
+            return cache.get(key) != null;
+        }
+    }
+
+    private static class ConcurrentMemoizedFunctionToNotNull<K, V> extends ConcurrentMemoizedFunction<K, V>
+            implements MemoizedFunctionToNotNull<K, V> {
+        public ConcurrentMemoizedFunctionToNotNull(
+                @NotNull ConcurrentStorageManager storageManager,
+                @NotNull ConcurrentMap<K, Object> map,
+                @NotNull Function1<? super K, ? extends V> compute
+        ) {
+            super(storageManager, map, compute);
+        }
+
+        @NotNull
+        @Override
+        public V invoke(K input) {
+            V result = super.invoke(input);
+            assert result != null : "compute() returned null";
+            return result;
+        }
+    }
+
+    // A key of a memoized function being computed by the current thread
+    private static class Computation<K> {
+        private final Object function;
+        private final K input;
+
+        private Computation(@NotNull Object function, K input) {
+            this.function = function;
+            this.input = input;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Computation)) return false;
+            Computation other = (Computation) o;
+            return function == other.function && (input == null ? other.input == null : input.equals(other.input));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(function) + (input == null ? 0 : input.hashCode());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.jps.incremental
+
+import com.intellij.testFramework.UsefulTestCase
+import org.jetbrains.kotlin.config.IncrementalCompilation
+import org.jetbrains.kotlin.incremental.CacheVersion
+import org.jetbrains.kotlin.incremental.dataContainerCacheVersion
+import org.jetbrains.kotlin.incremental.storage.CompactIntExternalizer
+import org.jetbrains.kotlin.incremental.storage.IntCollectionExternalizer
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+
+class CompactIntExternalizerTest : UsefulTestCase() {
+    private val values = listOf(
+            0, 1, 127, 128, 191, 192, 255, 256, 16383, 16384, 1 shl 21, Int.MAX_VALUE - 1, Int.MAX_VALUE,
+            -1, -2, -128, -129, Int.MIN_VALUE + 1, Int.MIN_VALUE
+    )
+
+    fun testRoundTrip() {
+        for (value in values) {
+            val bytes = write { CompactIntExternalizer.save(it, value) }
+            val input = DataInputStream(ByteArrayInputStream(bytes))
+            assertEquals("Value $value", value, CompactIntExternalizer.read(input))
+            assertEquals("Bytes left after $value", 0, input.available())
+        }
+    }
+
+    fun testSmallValuesTakeOneByte() {
+        for (value in 0..127) {
+            assertEquals("Size of $value", 1, write { CompactIntExternalizer.save(it, value) }.size)
+        }
+    }
+
+    fun testCollectionRoundTrip() {
+        val bytes = write { IntCollectionExternalizer.save(it, values) }
+        assertEquals(values.toSet(), IntCollectionExternalizer.read(DataInputStream(ByteArrayInputStream(bytes))))
+    }
+
+    fun testAppendedValuesAreReadAsCollection() {
+        // LazyStorage.append writes single values one after another, they have to be readable as a collection
+        val bytes = write { output -> values.forEach { CompactIntExternalizer.save(output, it) } }
+        assertEquals(values.toSet(), IntCollectionExternalizer.read(DataInputStream(ByteArrayInputStream(bytes))))
+    }
+
+    // Data written with fixed-size ints can't be read by CompactIntExternalizer, so data containers of the previous version are rebuilt
+    fun testDataContainerOfPreviousFormatIsRebuilt() {
+        val wasExperimental = IncrementalCompilation.isExperimental()
+        IncrementalCompilation.setIsExperimental(true)
+        try {
+            val dataRoot = KotlinTestUtils.tmpDir("dataContainer")
+            val current = dataContainerCacheVersion(dataRoot)
+
+            CacheVersion(ownVersion = 1,
+                         versionFile = current.formatVersionFile,
+                         whenVersionChanged = CacheVersion.Action.DO_NOTHING,
+                         whenTurnedOn = CacheVersion.Action.DO_NOTHING,
+                         whenTurnedOff = CacheVersion.Action.DO_NOTHING,
+                         isEnabled = { true }).saveIfNeeded()
+            assertEquals(CacheVersion.Action.REBUILD_ALL_KOTLIN, current.checkVersion())
+
+            current.saveIfNeeded()
+            assertEquals(CacheVersion.Action.DO_NOTHING, dataContainerCacheVersion(dataRoot).checkVersion())
+        }
+        finally {
+            IncrementalCompilation.setIsExperimental(wasExperimental)
+        }
+    }
+
+    private fun write(save: (DataOutputStream) -> Unit): ByteArray {
+        val bytes = ByteArrayOutputStream()
+        val output = DataOutputStream(bytes)
+        save(output)
+        output.flush()
+        return bytes.toByteArray()
+    }
+}
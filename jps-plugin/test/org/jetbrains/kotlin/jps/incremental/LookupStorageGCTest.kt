@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.jps.incremental
+
+import com.intellij.testFramework.UsefulTestCase
+import org.jetbrains.kotlin.incremental.LookupStorage
+import org.jetbrains.kotlin.incremental.LookupSymbol
+import org.jetbrains.kotlin.incremental.storage.BasicMapsOwner
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import java.io.File
+import java.util.*
+
+class LookupStorageGCTest : UsefulTestCase() {
+    // storages of more than 10000 files are collected when more than a half of files is deleted
+    private val filesCount = 10001
+
+    private val everywhere = LookupSymbol("everywhere", "test")
+    private val first = LookupSymbol("first", "test")
+    private val last = LookupSymbol("last", "test")
+    private val deletedOnly = LookupSymbol("deletedOnly", "test")
+
+    private val dataDir by lazy { KotlinTestUtils.tmpDir("lookupStorage") }
+    private val files by lazy { (0..filesCount - 1).map { File(dataDir, "src/file$it.kt").absoluteFile } }
+
+    fun testGarbageIsCollectedWhenMostFilesAreDeleted() {
+        val deleted = files.subList(1, 6001)
+        val live = listOf(files.first()) + files.subList(6001, filesCount)
+
+        val storage = createStorage(deleted)
+        try {
+            assertEquals(listOf("${live.size}", "0"), countersFile().readLines())
+            assertLiveLookups(storage, live)
+        }
+        finally {
+            storage.close()
+        }
+
+        val reopened = LookupStorage(dataDir)
+        try {
+            assertLiveLookups(reopened, live)
+        }
+        finally {
+            reopened.close()
+        }
+    }
+
+    fun testGarbageIsNotCollectedWhenFewFilesAreDeleted() {
+        val deleted = files.subList(1, 4001)
+        val live = listOf(files.first()) + files.subList(4001, filesCount)
+
+        val storage = createStorage(deleted)
+        try {
+            assertEquals(listOf("$filesCount", "${deleted.size}"), countersFile().readLines())
+            assertLiveLookups(storage, live)
+        }
+        finally {
+            storage.close()
+        }
+    }
+
+    private fun createStorage(deleted: List<File>): LookupStorage {
+        val lookups = HashMap<LookupSymbol, Collection<String>>()
+        lookups[everywhere] = files.map { it.path }
+        lookups[first] = listOf(files.first().path)
+        lookups[last] = listOf(files.last().path)
+        lookups[deletedOnly] = deleted.map { it.path }
+
+        val storage = LookupStorage(dataDir)
+        storage.addAll(lookups.entries)
+        storage.flush(false)
+
+        deleted.forEach { storage.removeLookupsFrom(it) }
+        storage.flush(false)
+        return storage
+    }
+
+    private fun assertLiveLookups(storage: LookupStorage, live: List<File>) {
+        assertEquals(live.map { it.path }.toSet(), storage.get(everywhere).toSet())
+        assertEquals(listOf(files.first().path), storage.get(first).toList())
+        assertEquals(listOf(files.last().path), storage.get(last).toList())
+        assertEmpty(storage.get(deletedOnly))
+    }
+
+    private fun countersFile() = File(dataDir, "counters.${BasicMapsOwner.CACHE_EXTENSION}")
+}